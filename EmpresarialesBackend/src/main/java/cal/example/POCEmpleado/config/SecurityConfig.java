@@ -58,6 +58,9 @@ public class SecurityConfig {
         // Permitir todos los headers
         configuration.setAllowedHeaders(Arrays.asList("*"));
 
+        // Cabeceras de respuesta legibles desde el navegador (cursor de paginación y ETag)
+        configuration.setExposedHeaders(Arrays.asList("X-Next-Cursor", "ETag"));
+
         // Permitir credenciales
         configuration.setAllowCredentials(true);
 
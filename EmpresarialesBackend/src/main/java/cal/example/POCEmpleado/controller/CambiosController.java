@@ -0,0 +1,199 @@
+package cal.example.POCEmpleado.controller;
+
+import cal.example.POCEmpleado.model.EventoCambio;
+import cal.example.POCEmpleado.service.FeedCambios;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Feed de cambios por Server-Sent Events: creaciones, actualizaciones y eliminaciones de
+ * carros y mantenimientos, y los cambios de estado de urgencia de los mantenimientos.
+ *
+ * Las conexiones no tienen hilo propio: cuando el feed entrega un evento a una suscripción,
+ * su transmisor se programa en un despachador compartido de feed.hilos-despacho hilos, que
+ * drena la cola sin bloquear y vuelve a quedar libre. Un cliente lento solo se atrasa a sí
+ * mismo y, cuando su cola se llena, el feed lo descarta.
+ */
+@RestController
+@RequestMapping("/api/cambios")
+@CrossOrigin(origins = "*")
+public class CambiosController {
+
+    // Eventos enviados por turno antes de ceder el hilo a otras conexiones
+    private static final int EVENTOS_POR_TURNO = 64;
+
+    private final FeedCambios feed;
+    private final Set<Transmisor> transmisores = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger contadorHilos = new AtomicInteger();
+    private ScheduledExecutorService despachador;
+
+    // Sin eventos, un comentario cada intervalo mantiene viva la conexión y detecta clientes caídos
+    @Value("${feed.heartbeat-ms:30000}")
+    private long heartbeatMs;
+
+    @Value("${feed.hilos-despacho:2}")
+    private int hilosDespacho;
+
+    @Autowired
+    public CambiosController(FeedCambios feed) {
+        this.feed = feed;
+    }
+
+    @PostConstruct
+    public void init() {
+        despachador = Executors.newScheduledThreadPool(hilosDespacho, tarea -> {
+            Thread hilo = new Thread(tarea, "feed-cambios-" + contadorHilos.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        despachador.scheduleWithFixedDelay(this::latido, heartbeatMs, heartbeatMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Suscripción al feed. entidad=carro|mantenimiento filtra los eventos; Last-Event-ID
+     * (lo envía el navegador al reconectar) reanuda desde el último evento recibido.
+     */
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> suscribir(@RequestParam(required = false) String entidad,
+                                                @RequestHeader(value = "Last-Event-ID", required = false) String ultimoId)
+            throws IOException {
+        // Sin límite de tiempo: la conexión dura lo que el cliente quiera
+        SseEmitter emisor = new SseEmitter(0L);
+        FeedCambios.Suscripcion suscripcion;
+        try {
+            suscripcion = feed.suscribir(entidad, ultimoId);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            // El tipo declarado debe seguir siendo SseEmitter: el error viaja como un evento "error"
+            emisor.send(SseEmitter.event().name("error").data(e.getMessage()));
+            emisor.complete();
+            HttpStatus estado = e instanceof IllegalStateException ? HttpStatus.SERVICE_UNAVAILABLE : HttpStatus.BAD_REQUEST;
+            return ResponseEntity.status(estado).body(emisor);
+        }
+        Transmisor transmisor = new Transmisor(suscripcion, emisor);
+        transmisores.add(transmisor);
+        emisor.onCompletion(transmisor::cancelar);
+        emisor.onTimeout(transmisor::cancelar);
+        emisor.onError(error -> transmisor.cancelar());
+        suscripcion.alRecibir(transmisor::programar);
+        // Eventos reenviados desde Last-Event-ID: ya están en la cola
+        transmisor.programar();
+        return ResponseEntity.ok(emisor);
+    }
+
+    /**
+     * Marca un ping en las conexiones que no enviaron nada desde el latido anterior.
+     */
+    private void latido() {
+        for (Transmisor transmisor : transmisores) {
+            if (!transmisor.enviado) {
+                transmisor.pingPendiente = true;
+                transmisor.programar();
+            }
+            transmisor.enviado = false;
+        }
+    }
+
+    /**
+     * Envío de una conexión. Nunca corre en dos hilos a la vez (programado) y nunca espera
+     * eventos: drena lo que haya en la cola y libera el hilo.
+     */
+    private final class Transmisor implements Runnable {
+
+        private final FeedCambios.Suscripcion suscripcion;
+        private final SseEmitter emisor;
+        private final AtomicBoolean programado = new AtomicBoolean();
+        private volatile boolean pingPendiente;
+        private volatile boolean enviado;
+
+        Transmisor(FeedCambios.Suscripcion suscripcion, SseEmitter emisor) {
+            this.suscripcion = suscripcion;
+            this.emisor = emisor;
+        }
+
+        void programar() {
+            if (programado.compareAndSet(false, true)) {
+                try {
+                    despachador.execute(this);
+                } catch (RejectedExecutionException e) {
+                    // Cierre de la aplicación
+                    programado.set(false);
+                }
+            }
+        }
+
+        void cancelar() {
+            transmisores.remove(this);
+            suscripcion.cancelar();
+        }
+
+        @Override
+        public void run() {
+            boolean abierto;
+            try {
+                abierto = transmitir();
+            } finally {
+                programado.set(false);
+            }
+            // Un aviso que llegó mientras se drenaba no pudo programar otro turno
+            if (abierto && (suscripcion.hayPendientes() || pingPendiente || !suscripcion.isActiva())) {
+                programar();
+            }
+        }
+
+        // false si la conexión quedó cerrada
+        private boolean transmitir() {
+            try {
+                for (int i = 0; i < EVENTOS_POR_TURNO; i++) {
+                    EventoCambio evento = suscripcion.siguiente();
+                    if (!suscripcion.isActiva()) {
+                        if (suscripcion.isDescartada()) {
+                            emisor.send(SseEmitter.event().name("descartado")
+                                    .data("Demasiados eventos sin consumir: reconecte con Last-Event-ID"));
+                        }
+                        transmisores.remove(this);
+                        emisor.complete();
+                        return false;
+                    }
+                    if (evento == null) {
+                        break;
+                    }
+                    String nombre = evento.getEntidad() != null ? evento.getEntidad() : "resincronizar";
+                    emisor.send(SseEmitter.event().id(evento.getId()).name(nombre)
+                            .data(evento, MediaType.APPLICATION_JSON));
+                    enviado = true;
+                }
+                if (pingPendiente) {
+                    pingPendiente = false;
+                    emisor.send(SseEmitter.event().comment("ping"));
+                }
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                // Cliente desconectado
+                cancelar();
+                return false;
+            }
+        }
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        despachador.shutdownNow();
+    }
+}
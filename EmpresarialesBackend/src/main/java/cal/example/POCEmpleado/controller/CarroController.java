@@ -1,17 +1,23 @@
 package cal.example.POCEmpleado.controller;
 
 import cal.example.POCEmpleado.model.Carro;
+import cal.example.POCEmpleado.model.Pagina;
+import cal.example.POCEmpleado.model.ResultadoImportacion;
 import cal.example.POCEmpleado.service.ICarroService;
 import cal.example.POCEmpleado.errors.ErrorMessage;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -29,11 +35,15 @@ import java.util.stream.Collectors;
 public class CarroController {
 
     private final ICarroService carroService;
+    private final ProyeccionJson proyeccion;
+    private final ExportadorStreaming exportador;
 
     // Inyección por constructor (mejor práctica)
     @Autowired
-    public CarroController(ICarroService carroService) {
+    public CarroController(ICarroService carroService, ProyeccionJson proyeccion, ExportadorStreaming exportador) {
         this.carroService = carroService;
+        this.proyeccion = proyeccion;
+        this.exportador = exportador;
     }
 
     @GetMapping(value = "/healthCheck")
@@ -48,16 +58,24 @@ public class CarroController {
      * - Con placa: retorna un carro específico
      * - Con otros filtros: retorna carros filtrados
      * - Con action=estadisticas: retorna estadísticas
+     * - Con action=cache: retorna las métricas de la caché de consultas
      * - Con action=valor-comercial&placa=XXX: retorna valor comercial
+     *
+     * Los listados llevan un ETag con la versión del inventario; con If-None-Match vigente
+     * responde 304 sin ejecutar la consulta.
      */
     @GetMapping
-    public ResponseEntity<?> listar(@RequestParam Map<String, String> params) {
+    public ResponseEntity<?> listar(@RequestParam Map<String, String> params,
+                                    @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
             // Manejar acciones especiales
             String action = params.get("action");
             if ("estadisticas".equals(action)) {
                 return obtenerEstadisticas();
             }
+            if ("cache".equals(action)) {
+                return ResponseEntity.ok(carroService.getMetricasCache());
+            }
             if ("valor-comercial".equals(action)) {
                 String placa = params.get("placa");
                 if (placa != null && !placa.trim().isEmpty()) {
@@ -66,62 +84,63 @@ public class CarroController {
                 return ResponseEntity.badRequest().body("Placa requerida para calcular valor comercial");
             }
 
-            // Convertir parámetros String a Object para el servicio
-            Map<String, Object> filtros = new HashMap<>();
+            // La versión se lee antes de consultar: si el cliente ya la tiene no se recorre nada
+            long version = carroService.getVersion();
+            if (Condicionales.noModificado(ifNoneMatch, version)) {
+                return Condicionales.respuestaNoModificado(version);
+            }
+            String etag = Condicionales.etag(version);
 
+            // Los valores se convierten y validan al compilar la consulta en el servicio
+            Map<String, Object> filtros = new HashMap<>();
             for (Map.Entry<String, String> entry : params.entrySet()) {
-                String key = entry.getKey();
-                String value = entry.getValue();
-
-                if (value != null && !value.trim().isEmpty() && !"action".equals(key)) {
-                    // Conversión de tipos según el parámetro
-                    switch (key.toLowerCase()) {
-                        case "anio":
-                            try {
-                                filtros.put(key, Integer.parseInt(value));
-                            } catch (NumberFormatException e) {
-                                return ResponseEntity.badRequest()
-                                    .body("Valor inválido para año: " + value);
-                            }
-                            break;
-                        case "precio_min":
-                        case "precio_max":
-                        case "precio":
-                            try {
-                                filtros.put(key, Double.parseDouble(value));
-                            } catch (NumberFormatException e) {
-                                return ResponseEntity.badRequest()
-                                    .body("Valor inválido para precio: " + value);
-                            }
-                            break;
-                        case "aire_acondicionado":
-                        case "tieneaireacondicicionado":
-                            filtros.put(key, Boolean.parseBoolean(value));
-                            break;
-                        case "numeropuertas":
-                        case "numero_puertas":
-                            try {
-                                filtros.put(key, Integer.parseInt(value));
-                            } catch (NumberFormatException e) {
-                                return ResponseEntity.badRequest()
-                                    .body("Valor inválido para número de puertas: " + value);
-                            }
-                            break;
-                        default:
-                            filtros.put(key, value);
-                    }
+                if (entry.getValue() != null && !entry.getValue().trim().isEmpty() && !"action".equals(entry.getKey())
+                        && !Paginacion.esParametro(entry.getKey()) && !"fields".equals(entry.getKey())) {
+                    filtros.put(entry.getKey(), entry.getValue());
                 }
             }
 
+            // Con limit, cursor o sort: una página ordenada por keyset
+            if (Paginacion.solicitada(params)) {
+                Pagina<Carro> pagina = carroService.listarPagina(filtros, params.get("sort"), params.get("cursor"),
+                        Paginacion.limite(params));
+                return proyeccion.responder(Paginacion.ok(pagina.getSiguienteCursor()).eTag(etag), Carro.class,
+                        pagina.getElementos(), params.get("fields"), carroService::serializarJson);
+            }
+
+            // Con fields=...: solo se serializan las propiedades pedidas
             List<Carro> carros = carroService.listar(filtros);
-            return ResponseEntity.ok(carros);
+            return proyeccion.responder(ResponseEntity.ok().eTag(etag), Carro.class, carros, params.get("fields"),
+                    carroService::serializarJson);
 
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body("Error interno del servidor: " + e.getMessage());
         }
     }
 
+    /**
+     * Exportar carros en NDJSON (por defecto) o CSV, con los mismos filtros del listado.
+     * Los registros se escriben a la respuesta a medida que se recorren.
+     */
+    @GetMapping("/exportar")
+    public ResponseEntity<StreamingResponseBody> exportar(@RequestParam Map<String, String> params) {
+        try {
+            Map<String, Object> filtros = new HashMap<>();
+            for (Map.Entry<String, String> entry : params.entrySet()) {
+                if (entry.getValue() != null && !entry.getValue().trim().isEmpty() && !"formato".equals(entry.getKey())) {
+                    filtros.put(entry.getKey(), entry.getValue());
+                }
+            }
+            return exportador.exportar(params.get("formato"), "carros", carroService.exportar(filtros),
+                    ExportadorStreaming.COLUMNAS_CARRO);
+        } catch (IllegalArgumentException e) {
+            return exportador.rechazar(e.getMessage());
+        }
+    }
+
     // CREATE - Crear carro (POST)
     @PostMapping
     public ResponseEntity<?> crearCarro(@Valid @RequestBody Carro carro, BindingResult bindingResult) {
@@ -130,42 +149,64 @@ public class CarroController {
         }
 
         try {
-            Carro carroGuardado = carroService.save(carro);
-            return ResponseEntity.status(HttpStatus.CREATED).body(carroGuardado);
+            long version = carroService.saveSiVersion(carro, actual -> true);
+            return ResponseEntity.status(HttpStatus.CREATED).eTag(Condicionales.etag(version)).body(carro);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("Error al crear el carro: " + e.getMessage());
         }
     }
 
-    // UPDATE - Actualizar carro (PUT)
+    /**
+     * Importación masiva: arreglo JSON o NDJSON (un carro por línea).
+     * Cada carro se valida con las mismas reglas del POST; los válidos se crean o actualizan
+     * por placa y el lote se persiste con una sola escritura. Responde el resultado de cada registro.
+     */
+    @PostMapping(value = "/importar", consumes = {MediaType.APPLICATION_JSON_VALUE, "application/x-ndjson"})
+    public ResponseEntity<?> importarCarros(InputStream cuerpo) {
+        try {
+            ResultadoImportacion resultado = carroService.importar(cuerpo);
+            return ResponseEntity.ok(resultado);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error al importar los carros: " + e.getMessage());
+        }
+    }
+
+    // UPDATE - Actualizar carro (PUT). Con If-Match solo se escribe si el carro sigue en esa versión (412 si no)
     @PutMapping(value = "/{placa}")
     public ResponseEntity<?> actualizarCarro(@PathVariable("placa") String placa,
                                            @Valid @RequestBody Carro carro,
-                                           BindingResult bindingResult) {
+                                           BindingResult bindingResult,
+                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         if (bindingResult.hasErrors()) {
             return ResponseEntity.badRequest().body(formatMessage(bindingResult));
         }
 
-        // Buscar usando el método unificado
-        Map<String, Object> filtros = new HashMap<>();
-        filtros.put("placa", placa);
-        List<Carro> carrosEncontrados = carroService.listar(filtros);
-
-        if (carrosEncontrados.isEmpty()) {
+        // Búsqueda puntual por placa en el índice
+        if (carroService.findByPlaca(placa).isEmpty()) {
             return ResponseEntity.notFound().build();
         }
 
         // Asegurar que la placa no cambie
         carro.setPlaca(placa);
-        Carro carroActualizado = carroService.save(carro);
-        return ResponseEntity.ok(carroActualizado);
+        long version = carroService.saveSiVersion(carro, Condicionales.condicionIfMatch(ifMatch));
+        if (version < 0) {
+            return Condicionales.precondicionFallida("El carro " + placa + " cambió desde la versión indicada en If-Match");
+        }
+        return ResponseEntity.ok().eTag(Condicionales.etag(version)).body(carro);
     }
 
-    // DELETE - Eliminar carro (DELETE)
+    // DELETE - Eliminar carro (DELETE). Con If-Match solo se elimina si el carro sigue en esa versión (412 si no)
     @DeleteMapping(value = "/{placa}")
-    public ResponseEntity<Map<String, String>> eliminarCarro(@PathVariable("placa") String placa) {
-        boolean eliminado = carroService.deleteByPlaca(placa);
+    public ResponseEntity<Map<String, String>> eliminarCarro(@PathVariable("placa") String placa,
+                                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        boolean eliminado = carroService.deleteByPlacaSiVersion(placa, Condicionales.condicionIfMatch(ifMatch));
+        if (!eliminado && ifMatch != null && carroService.getVersion(placa) >= 0) {
+            return Condicionales.precondicionFallida("El carro " + placa + " cambió desde la versión indicada en If-Match");
+        }
 
         Map<String, String> response = new HashMap<>();
         if (eliminado) {
@@ -202,12 +243,10 @@ public class CarroController {
     }
 
     private ResponseEntity<?> calcularValorComercial(String placa) {
-        Map<String, Object> filtros = new HashMap<>();
-        filtros.put("placa", placa);
-        List<Carro> carros = carroService.listar(filtros);
+        Optional<Carro> encontrado = carroService.findByPlaca(placa);
 
-        if (!carros.isEmpty()) {
-            Carro carro = carros.get(0);
+        if (encontrado.isPresent()) {
+            Carro carro = encontrado.get();
             Map<String, Object> response = new HashMap<>();
             response.put("placa", placa);
             response.put("valorComercial", carro.calcularValorComercial());
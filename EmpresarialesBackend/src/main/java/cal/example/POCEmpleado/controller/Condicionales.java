@@ -0,0 +1,93 @@
+package cal.example.POCEmpleado.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongPredicate;
+
+/**
+ * ETags fuertes y peticiones condicionales (If-None-Match en lecturas, If-Match en escrituras).
+ *
+ * El ETag es la versión de la tabla (colecciones) o del registro, precedida por el instante de
+ * arranque: los contadores de versión empiezan de nuevo en cada arranque y un ETag de una
+ * ejecución anterior nunca debe coincidir. Las lecturas comparan la versión antes de consultar,
+ * así que un 304 no recorre los datos.
+ */
+final class Condicionales {
+
+    private static final String ARRANQUE = Long.toString(System.currentTimeMillis(), 36);
+
+    private Condicionales() {
+    }
+
+    static String etag(long version) {
+        return "\"" + ARRANQUE + "-" + version + "\"";
+    }
+
+    /**
+     * If-None-Match: true si el cliente ya tiene la versión (comparación débil, "*" incluido).
+     */
+    static boolean noModificado(String ifNoneMatch, long version) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String etag = etag(version);
+        for (String candidato : ifNoneMatch.split(",")) {
+            String valor = candidato.trim();
+            if (valor.startsWith("W/")) {
+                valor = valor.substring(2);
+            }
+            if ("*".equals(valor) || etag.equals(valor)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Respuesta 304 con el ETag vigente.
+     */
+    static <T> ResponseEntity<T> respuestaNoModificado(long version) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag(version)).build();
+    }
+
+    /**
+     * If-Match como condición sobre la versión actual del registro (-1 si no existe):
+     * sin cabecera siempre se cumple; "*" exige que exista; si no, la versión debe ser una de
+     * las de la lista (comparación fuerte: los ETags débiles y los de otro arranque no cumplen).
+     */
+    static LongPredicate condicionIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().isEmpty()) {
+            return version -> true;
+        }
+        Set<Long> versiones = new HashSet<>();
+        String prefijo = "\"" + ARRANQUE + "-";
+        for (String candidato : ifMatch.split(",")) {
+            String valor = candidato.trim();
+            if ("*".equals(valor)) {
+                return version -> version >= 0;
+            }
+            if (valor.startsWith(prefijo) && valor.endsWith("\"") && valor.length() > prefijo.length() + 1) {
+                try {
+                    versiones.add(Long.parseLong(valor.substring(prefijo.length(), valor.length() - 1)));
+                } catch (NumberFormatException e) {
+                    // ETag ajeno: no coincide con ninguna versión
+                }
+            }
+        }
+        return versiones::contains;
+    }
+
+    /**
+     * Respuesta 412 cuando el registro cambió desde que el cliente obtuvo su ETag.
+     */
+    static ResponseEntity<Map<String, String>> precondicionFallida(String mensaje) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", mensaje);
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(error);
+    }
+}
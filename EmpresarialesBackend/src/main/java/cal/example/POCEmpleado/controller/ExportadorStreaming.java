@@ -0,0 +1,202 @@
+package cal.example.POCEmpleado.controller;
+
+import cal.example.POCEmpleado.model.Carro;
+import cal.example.POCEmpleado.model.Mantenimiento;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Exportación de carros y mantenimientos en NDJSON (un objeto JSON por línea) o CSV.
+ *
+ * Los registros se escriben uno a uno desde el Stream del servicio (que recorre una versión
+ * inmutable de la tabla) al OutputStream de la respuesta, a través de un buffer de tamaño
+ * fijo: la memoria usada no depende de cuántos registros se exporten.
+ */
+@Component
+public class ExportadorStreaming {
+
+    public static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    public static final MediaType CSV = MediaType.parseMediaType("text/csv;charset=UTF-8");
+
+    private static final DateTimeFormatter FORMATO_FECHA = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    static final Map<String, Function<Carro, Object>> COLUMNAS_CARRO = new LinkedHashMap<>();
+    static final Map<String, Function<Mantenimiento, Object>> COLUMNAS_MANTENIMIENTO = new LinkedHashMap<>();
+
+    static {
+        COLUMNAS_CARRO.put("placa", Carro::getPlaca);
+        COLUMNAS_CARRO.put("marca", Carro::getMarca);
+        COLUMNAS_CARRO.put("modelo", Carro::getModelo);
+        COLUMNAS_CARRO.put("anio", Carro::getAnio);
+        COLUMNAS_CARRO.put("color", Carro::getColor);
+        COLUMNAS_CARRO.put("estado", Carro::getEstado);
+        COLUMNAS_CARRO.put("combustible", Carro::getCombustible);
+        COLUMNAS_CARRO.put("tipoTransmision", Carro::getTipoTransmision);
+        COLUMNAS_CARRO.put("numeroPuertas", Carro::getNumeroPuertas);
+        COLUMNAS_CARRO.put("tieneAireAcondicionado", Carro::isTieneAireAcondicionado);
+        COLUMNAS_CARRO.put("precio", Carro::getPrecio);
+        COLUMNAS_CARRO.put("fechaRegistro", Carro::getFechaRegistro);
+
+        COLUMNAS_MANTENIMIENTO.put("id", Mantenimiento::getId);
+        COLUMNAS_MANTENIMIENTO.put("placaCarro", Mantenimiento::getPlacaCarro);
+        COLUMNAS_MANTENIMIENTO.put("fechaMantenimiento", Mantenimiento::getFechaMantenimiento);
+        COLUMNAS_MANTENIMIENTO.put("kilometraje", Mantenimiento::getKilometraje);
+        COLUMNAS_MANTENIMIENTO.put("tipoMantenimiento", Mantenimiento::getTipoMantenimiento);
+        COLUMNAS_MANTENIMIENTO.put("costo", Mantenimiento::getCosto);
+        COLUMNAS_MANTENIMIENTO.put("descripcion", Mantenimiento::getDescripcion);
+        COLUMNAS_MANTENIMIENTO.put("proximoMantenimiento", Mantenimiento::getProximoMantenimiento);
+        COLUMNAS_MANTENIMIENTO.put("completado", Mantenimiento::isCompletado);
+        COLUMNAS_MANTENIMIENTO.put("estadoMantenimiento", Mantenimiento::getEstadoMantenimiento);
+        COLUMNAS_MANTENIMIENTO.put("esUrgente", Mantenimiento::getEsUrgente);
+        COLUMNAS_MANTENIMIENTO.put("fechaRegistro", Mantenimiento::getFechaRegistro);
+    }
+
+    private final ObjectMapper mapper;
+    private final ObjectWriter escritorLinea;
+
+    @Value("${exportacion.buffer-bytes:65536}")
+    private int tamanoBuffer;
+
+    @Autowired
+    public ExportadorStreaming(ObjectMapper objectMapper) {
+        this.mapper = objectMapper;
+        // Un registro por línea y sin flush por registro: el buffer decide cuándo se envían bytes
+        this.escritorLinea = objectMapper.writer()
+                .withRootValueSeparator("\n")
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * Respuesta 200 que escribe los registros en el formato pedido (ndjson o csv).
+     * El Stream es perezoso: se recorre mientras se escribe y se cierra al terminar.
+     */
+    public <T> ResponseEntity<StreamingResponseBody> exportar(String formato, String nombreArchivo,
+                                                              Stream<T> registros,
+                                                              Map<String, Function<T, Object>> columnas) {
+        String formatoNormalizado = formato == null || formato.trim().isEmpty()
+                ? "ndjson" : formato.trim().toLowerCase(Locale.ROOT);
+        StreamingResponseBody cuerpo;
+        MediaType tipo;
+        if ("ndjson".equals(formatoNormalizado)) {
+            tipo = NDJSON;
+            cuerpo = salida -> escribirNdjson(registros, salida);
+        } else if ("csv".equals(formatoNormalizado)) {
+            tipo = CSV;
+            cuerpo = salida -> escribirCsv(registros, columnas, salida);
+        } else {
+            throw new IllegalArgumentException("Formato de exportación no soportado: " + formato + " (ndjson o csv)");
+        }
+        return ResponseEntity.ok()
+                .contentType(tipo)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"" + nombreArchivo + "." + formatoNormalizado + "\"")
+                .body(cuerpo);
+    }
+
+    /**
+     * Respuesta 400 para parámetros inválidos. El tipo declarado debe seguir siendo
+     * StreamingResponseBody, así que el cuerpo (texto o JSON) también se escribe en streaming.
+     */
+    public ResponseEntity<StreamingResponseBody> rechazar(Object cuerpo) {
+        if (cuerpo instanceof String) {
+            byte[] texto = ((String) cuerpo).getBytes(StandardCharsets.UTF_8);
+            return ResponseEntity.badRequest()
+                    .contentType(new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8))
+                    .body(salida -> salida.write(texto));
+        }
+        return ResponseEntity.badRequest()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(salida -> salida.write(mapper.writeValueAsBytes(cuerpo)));
+    }
+
+    private <T> void escribirNdjson(Stream<T> registros, OutputStream salida) throws IOException {
+        OutputStream buffer = new BufferedOutputStream(salida, tamanoBuffer);
+        try (Stream<T> stream = registros;
+             JsonGenerator generador = mapper.getFactory().createGenerator(buffer)
+                     .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            Iterator<T> iterador = stream.iterator();
+            boolean escrito = false;
+            while (iterador.hasNext()) {
+                escritorLinea.writeValue(generador, iterador.next());
+                escrito = true;
+            }
+            if (escrito) {
+                generador.writeRaw('\n');
+            }
+        }
+        buffer.flush();
+    }
+
+    private <T> void escribirCsv(Stream<T> registros, Map<String, Function<T, Object>> columnas,
+                                 OutputStream salida) throws IOException {
+        Writer escritor = new OutputStreamWriter(new BufferedOutputStream(salida, tamanoBuffer), StandardCharsets.UTF_8);
+        try (Stream<T> stream = registros) {
+            escribirFila(escritor, columnas.keySet().toArray());
+            Object[] valores = new Object[columnas.size()];
+            Iterator<T> iterador = stream.iterator();
+            while (iterador.hasNext()) {
+                T registro = iterador.next();
+                int i = 0;
+                for (Function<T, Object> columna : columnas.values()) {
+                    valores[i++] = columna.apply(registro);
+                }
+                escribirFila(escritor, valores);
+            }
+        }
+        escritor.flush();
+    }
+
+    private static void escribirFila(Writer escritor, Object[] valores) throws IOException {
+        for (int i = 0; i < valores.length; i++) {
+            if (i > 0) {
+                escritor.write(',');
+            }
+            escribirCampo(escritor, valores[i]);
+        }
+        escritor.write("\r\n");
+    }
+
+    // RFC 4180: entre comillas (y con las comillas duplicadas) si contiene separador, comillas o saltos de línea
+    private static void escribirCampo(Writer escritor, Object valor) throws IOException {
+        if (valor == null) {
+            return;
+        }
+        String texto = valor instanceof LocalDateTime ? FORMATO_FECHA.format((LocalDateTime) valor) : valor.toString();
+        boolean citar = false;
+        for (int i = 0; i < texto.length() && !citar; i++) {
+            char c = texto.charAt(i);
+            citar = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!citar) {
+            escritor.write(texto);
+            return;
+        }
+        escritor.write('"');
+        escritor.write(texto.replace("\"", "\"\""));
+        escritor.write('"');
+    }
+}
@@ -1,20 +1,28 @@
 package cal.example.POCEmpleado.controller;
 
-import cal.example.POCEmpleado.model.Carro;
 import cal.example.POCEmpleado.model.Mantenimiento;
+import cal.example.POCEmpleado.model.Pagina;
+import cal.example.POCEmpleado.model.ResultadoImportacion;
+import cal.example.POCEmpleado.model.ResumenMantenimientos;
 import cal.example.POCEmpleado.service.ICarroService;
 import cal.example.POCEmpleado.service.IMantenimientoService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 /**
@@ -29,12 +37,17 @@ public class MantenimientoController {
 
     private final IMantenimientoService mantenimientoService;
     private final ICarroService carroService;
+    private final ProyeccionJson proyeccion;
+    private final ExportadorStreaming exportador;
 
     // Inyección por constructor (mejor práctica)
     @Autowired
-    public MantenimientoController(IMantenimientoService mantenimientoService, ICarroService carroService) {
+    public MantenimientoController(IMantenimientoService mantenimientoService, ICarroService carroService,
+                                   ProyeccionJson proyeccion, ExportadorStreaming exportador) {
         this.mantenimientoService = mantenimientoService;
         this.carroService = carroService;
+        this.proyeccion = proyeccion;
+        this.exportador = exportador;
     }
 
     @GetMapping(value = "/healthCheck")
@@ -43,23 +56,27 @@ public class MantenimientoController {
     }
 
     /**
-     * Obtener un mantenimiento específico por ID
+     * Obtener un mantenimiento específico por ID, con un ETag de la versión del registro
+     * (If-None-Match vigente: 304 sin leerlo)
      */
     @GetMapping("/{id}")
-    public ResponseEntity<?> obtenerPorId(@PathVariable String id) {
+    public ResponseEntity<?> obtenerPorId(@PathVariable String id,
+                                          @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
-            Map<String, Object> filtro = new HashMap<>();
-            filtro.put("id", id);
-            List<Mantenimiento> mantenimientos = mantenimientoService.listar(filtro);
+            long version = mantenimientoService.getVersion(id);
+            if (version >= 0 && Condicionales.noModificado(ifNoneMatch, version)) {
+                return Condicionales.respuestaNoModificado(version);
+            }
+            Optional<Mantenimiento> mantenimiento = mantenimientoService.findById(id);
 
-            if (mantenimientos.isEmpty()) {
+            if (mantenimiento.isEmpty()) {
                 Map<String, String> error = new HashMap<>();
                 error.put("error", "⚠️ No se encontró el mantenimiento solicitado. El ID '" + id + "' no existe en el sistema o ha sido eliminado.");
                 error.put("id", id);
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
             }
 
-            return ResponseEntity.ok(mantenimientos.get(0));
+            return ResponseEntity.ok().eTag(Condicionales.etag(version)).body(mantenimiento.get());
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", "❌ Error interno del servidor al obtener el mantenimiento. Por favor, contacte al administrador del sistema.");
@@ -75,14 +92,28 @@ public class MantenimientoController {
      * - Con placa: retorna todos los mantenimientos de ese carro
      * - Con otros filtros: retorna mantenimientos filtrados
      * - Con action=estadisticas: retorna estadísticas
+     * - Con action=cache: retorna las métricas de la caché de consultas
+     *
+     * Los listados llevan un ETag con la versión de la colección; con If-None-Match vigente
+     * responde 304 sin ejecutar la consulta.
      */
     @GetMapping(params = "!id")
-    public ResponseEntity<?> listar(@RequestParam(required = false) Map<String, String> params) {
+    public ResponseEntity<?> listar(@RequestParam(required = false) Map<String, String> params,
+                                    @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
+            // La versión se lee antes de consultar: si el cliente ya la tiene no se recorre nada
+            long version = mantenimientoService.getVersion();
+            boolean esListado = params == null || !params.containsKey("action");
+            if (esListado && Condicionales.noModificado(ifNoneMatch, version)) {
+                return Condicionales.respuestaNoModificado(version);
+            }
+            String etag = Condicionales.etag(version);
+
             // Si no hay parámetros, retornar todos
             if (params == null || params.isEmpty()) {
                 List<Mantenimiento> mantenimientos = mantenimientoService.listar(new HashMap<>());
-                return ResponseEntity.ok(mantenimientos);
+                return ResponseEntity.ok().eTag(etag).contentType(MediaType.APPLICATION_JSON)
+                        .body(mantenimientoService.serializarJson(mantenimientos));
             }
 
             // Manejar acciones especiales
@@ -90,6 +121,9 @@ public class MantenimientoController {
             if ("estadisticas".equals(action)) {
                 return obtenerEstadisticas();
             }
+            if ("cache".equals(action)) {
+                return ResponseEntity.ok(mantenimientoService.getMetricasCache());
+            }
             if ("costo-total-placa".equals(action)) {
                 String placa = params.get("placa");
                 if (placa != null && !placa.trim().isEmpty()) {
@@ -102,60 +136,34 @@ public class MantenimientoController {
             if ("urgentes".equals(action)) {
                 return obtenerMantenimientosUrgentes();
             }
+            if ("resumen-placas".equals(action)) {
+                return obtenerResumenesPorPlaca(params.get("placas"));
+            }
 
-            // Convertir parámetros String a Object para el servicio
+            // Los valores se convierten y validan al compilar la consulta en el servicio
             Map<String, Object> filtros = new HashMap<>();
-
             for (Map.Entry<String, String> entry : params.entrySet()) {
-                String key = entry.getKey();
-                String value = entry.getValue();
-
-                if (value != null && !value.trim().isEmpty() && !"action".equals(key)) {
-                    // Conversión de tipos según el parámetro
-                    switch (key.toLowerCase()) {
-                        case "costo_min":
-                        case "costo_max":
-                        case "costo":
-                            try {
-                                filtros.put(key, Double.parseDouble(value));
-                            } catch (NumberFormatException e) {
-                                return ResponseEntity.badRequest()
-                                        .body("Valor inválido para costo: " + value);
-                            }
-                            break;
-                        case "kilometraje":
-                        case "kilometraje_min":
-                        case "kilometraje_max":
-                            try {
-                                filtros.put(key, Integer.parseInt(value));
-                            } catch (NumberFormatException e) {
-                                return ResponseEntity.badRequest()
-                                        .body("Valor inválido para kilometraje: " + value);
-                            }
-                            break;
-                        case "completado":
-                        case "urgente":
-                            filtros.put(key, Boolean.parseBoolean(value));
-                            break;
-                        case "fecha_desde":
-                        case "fecha_hasta":
-                            try {
-                                filtros.put(key, value); // Se parseará en el servicio
-                            } catch (Exception e) {
-                                return ResponseEntity.badRequest()
-                                        .body("Valor inválido para fecha: " + value);
-                            }
-                            break;
-                        default:
-                            filtros.put(key, value);
-                            break;
-                    }
+                if (entry.getValue() != null && !entry.getValue().trim().isEmpty() && !"action".equals(entry.getKey())
+                        && !Paginacion.esParametro(entry.getKey()) && !"fields".equals(entry.getKey())) {
+                    filtros.put(entry.getKey(), entry.getValue());
                 }
             }
 
+            // Con limit, cursor o sort: una página ordenada por keyset
+            if (Paginacion.solicitada(params)) {
+                Pagina<Mantenimiento> pagina = mantenimientoService.listarPagina(filtros, params.get("sort"), params.get("cursor"),
+                        Paginacion.limite(params));
+                return proyeccion.responder(Paginacion.ok(pagina.getSiguienteCursor()).eTag(etag), Mantenimiento.class,
+                        pagina.getElementos(), params.get("fields"), mantenimientoService::serializarJson);
+            }
+
+            // Con fields=...: solo se serializan las propiedades pedidas
             List<Mantenimiento> mantenimientos = mantenimientoService.listar(filtros);
-            return ResponseEntity.ok(mantenimientos);
+            return proyeccion.responder(ResponseEntity.ok().eTag(etag), Mantenimiento.class, mantenimientos, params.get("fields"),
+                    mantenimientoService::serializarJson);
 
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", "❌ Error interno del servidor al consultar mantenimientos. Por favor, contacte al administrador del sistema.");
@@ -164,6 +172,51 @@ public class MantenimientoController {
         }
     }
 
+    /**
+     * Exportar mantenimientos en NDJSON (por defecto) o CSV, con los mismos filtros del listado.
+     * Los registros se escriben a la respuesta a medida que se recorren.
+     */
+    @GetMapping("/exportar")
+    public ResponseEntity<StreamingResponseBody> exportar(@RequestParam Map<String, String> params) {
+        try {
+            Map<String, Object> filtros = new HashMap<>();
+            for (Map.Entry<String, String> entry : params.entrySet()) {
+                if (entry.getValue() != null && !entry.getValue().trim().isEmpty() && !"formato".equals(entry.getKey())) {
+                    filtros.put(entry.getKey(), entry.getValue());
+                }
+            }
+            return exportador.exportar(params.get("formato"), "mantenimientos", mantenimientoService.exportar(filtros),
+                    ExportadorStreaming.COLUMNAS_MANTENIMIENTO);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "⚠️ " + e.getMessage());
+            return exportador.rechazar(error);
+        }
+    }
+
+    /**
+     * Importación masiva de mantenimientos (arreglo JSON o NDJSON), pensada para la sincronización
+     * con los talleres. Las placas de todo el lote se verifican en una sola consulta, los ids
+     * repetidos dentro del lote se rechazan, los registros sin id reciben un UUID y el lote
+     * se persiste con una sola escritura. Responde el resultado de cada registro.
+     */
+    @PostMapping(value = "/importar", consumes = {MediaType.APPLICATION_JSON_VALUE, "application/x-ndjson"})
+    public ResponseEntity<?> importar(InputStream cuerpo) {
+        try {
+            ResultadoImportacion resultado = mantenimientoService.importar(cuerpo, carroService::placasExistentes);
+            return ResponseEntity.ok(resultado);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "⚠️ " + e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "❌ Error interno del servidor al importar los mantenimientos.");
+            error.put("detalles", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+
     /**
      * Crear un nuevo mantenimiento
      */
@@ -181,11 +234,7 @@ public class MantenimientoController {
                 return ResponseEntity.badRequest().body(error);
             }
 
-            Map<String, Object> filtroPlaca = new HashMap<>();
-            filtroPlaca.put("placa", mantenimiento.getPlacaCarro());
-            List<Carro> carrosExistentes = carroService.listar(filtroPlaca);
-
-            if (carrosExistentes.isEmpty()) {
+            if (carroService.findByPlaca(mantenimiento.getPlacaCarro()).isEmpty()) {
                 Map<String, String> error = new HashMap<>();
                 error.put("error", "No existe un carro con la placa: " + mantenimiento.getPlacaCarro());
                 error.put("placaCarro", mantenimiento.getPlacaCarro());
@@ -194,11 +243,7 @@ public class MantenimientoController {
 
             // Verificar si el mantenimiento ya existe
             if (mantenimiento.getId() != null) {
-                Map<String, Object> filtro = new HashMap<>();
-                filtro.put("id", mantenimiento.getId());
-                List<Mantenimiento> existentes = mantenimientoService.listar(filtro);
-
-                if (!existentes.isEmpty()) {
+                if (mantenimientoService.findById(mantenimiento.getId()).isPresent()) {
                     Map<String, String> error = new HashMap<>();
                     error.put("error", "⚠️ Conflicto de datos. Ya existe un mantenimiento registrado con el ID: " + mantenimiento.getId());
                     error.put("id", mantenimiento.getId());
@@ -206,8 +251,8 @@ public class MantenimientoController {
                 }
             }
 
-            Mantenimiento guardado = mantenimientoService.save(mantenimiento);
-            return ResponseEntity.status(HttpStatus.CREATED).body(guardado);
+            long version = mantenimientoService.saveSiVersion(mantenimiento, actual -> true);
+            return ResponseEntity.status(HttpStatus.CREATED).eTag(Condicionales.etag(version)).body(mantenimiento);
 
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
@@ -218,23 +263,21 @@ public class MantenimientoController {
     }
 
     /**
-     * Actualizar un mantenimiento existente
+     * Actualizar un mantenimiento existente. Con If-Match solo se escribe si el registro sigue
+     * en esa versión (412 si no)
      */
     @PutMapping("/{id}")
     public ResponseEntity<?> actualizar(@PathVariable String id,
                                         @Valid @RequestBody Mantenimiento mantenimiento,
-                                        BindingResult result) {
+                                        BindingResult result,
+                                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         if (result.hasErrors()) {
             return ResponseEntity.badRequest().body(formatMessage(result));
         }
 
         try {
             // Verificar si el mantenimiento existe
-            Map<String, Object> filtro = new HashMap<>();
-            filtro.put("id", id);
-            List<Mantenimiento> existentes = mantenimientoService.listar(filtro);
-
-            if (existentes.isEmpty()) {
+            if (mantenimientoService.findById(id).isEmpty()) {
                 return ResponseEntity.notFound().build();
             }
 
@@ -245,11 +288,7 @@ public class MantenimientoController {
                 return ResponseEntity.badRequest().body(error);
             }
 
-            Map<String, Object> filtroPlaca = new HashMap<>();
-            filtroPlaca.put("placa", mantenimiento.getPlacaCarro());
-            List<Carro> carrosExistentes = carroService.listar(filtroPlaca);
-
-            if (carrosExistentes.isEmpty()) {
+            if (carroService.findByPlaca(mantenimiento.getPlacaCarro()).isEmpty()) {
                 Map<String, String> error = new HashMap<>();
                 error.put("error", "No existe un carro con la placa: " + mantenimiento.getPlacaCarro());
                 error.put("placaCarro", mantenimiento.getPlacaCarro());
@@ -257,8 +296,12 @@ public class MantenimientoController {
             }
 
             mantenimiento.setId(id);
-            Mantenimiento actualizado = mantenimientoService.save(mantenimiento);
-            return ResponseEntity.ok(actualizado);
+            long version = mantenimientoService.saveSiVersion(mantenimiento, Condicionales.condicionIfMatch(ifMatch));
+            if (version < 0) {
+                return Condicionales.precondicionFallida("⚠️ El mantenimiento " + id
+                        + " cambió desde la versión indicada en If-Match. Vuelva a consultarlo e intente nuevamente.");
+            }
+            return ResponseEntity.ok().eTag(Condicionales.etag(version)).body(mantenimiento);
 
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
@@ -269,11 +312,17 @@ public class MantenimientoController {
     }
 
     /**
-     * Eliminar un mantenimiento por ID
+     * Eliminar un mantenimiento por ID. Con If-Match solo se elimina si el registro sigue
+     * en esa versión (412 si no)
      */
     @DeleteMapping("/{id}")
-    public ResponseEntity<Map<String, String>> eliminar(@PathVariable String id) {
-        boolean eliminado = mantenimientoService.deleteById(id);
+    public ResponseEntity<Map<String, String>> eliminar(@PathVariable String id,
+                                                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        boolean eliminado = mantenimientoService.deleteByIdSiVersion(id, Condicionales.condicionIfMatch(ifMatch));
+        if (!eliminado && ifMatch != null && mantenimientoService.getVersion(id) >= 0) {
+            return Condicionales.precondicionFallida("⚠️ El mantenimiento " + id
+                    + " cambió desde la versión indicada en If-Match. Vuelva a consultarlo e intente nuevamente.");
+        }
 
         Map<String, String> response = new HashMap<>();
         if (eliminado) {
@@ -290,9 +339,15 @@ public class MantenimientoController {
      * Obtener mantenimientos por placa de carro
      */
     @GetMapping("/carro/{placaCarro}")
-    public ResponseEntity<List<Mantenimiento>> getMantenimientosPorCarro(@PathVariable String placaCarro) {
+    public ResponseEntity<byte[]> getMantenimientosPorCarro(@PathVariable String placaCarro,
+                                                            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        long version = mantenimientoService.getVersion();
+        if (Condicionales.noModificado(ifNoneMatch, version)) {
+            return Condicionales.respuestaNoModificado(version);
+        }
         List<Mantenimiento> mantenimientos = mantenimientoService.getMantenimientosPorCarro(placaCarro);
-        return ResponseEntity.ok(mantenimientos);
+        return ResponseEntity.ok().eTag(Condicionales.etag(version)).contentType(MediaType.APPLICATION_JSON)
+                .body(mantenimientoService.serializarJson(mantenimientos));
     }
 
     /**
@@ -310,24 +365,32 @@ public class MantenimientoController {
     /**
      * Obtener mantenimientos urgentes
      */
-    private ResponseEntity<List<Mantenimiento>> obtenerMantenimientosUrgentes() {
+    private ResponseEntity<byte[]> obtenerMantenimientosUrgentes() {
         List<Mantenimiento> urgentes = mantenimientoService.getMantenimientosUrgentes();
-        return ResponseEntity.ok(urgentes);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON)
+                .body(mantenimientoService.serializarJson(urgentes));
     }
 
     /**
      * Calcular costo total de mantenimientos por placa
      */
     private ResponseEntity<?> calcularCostoTotalPorPlaca(String placa) {
-        List<Mantenimiento> mantenimientos = mantenimientoService.getMantenimientosPorCarro(placa);
-        double costoTotal = mantenimientos.stream().mapToDouble(Mantenimiento::getCosto).sum();
-
-        Map<String, Object> resultado = new HashMap<>();
-        resultado.put("placa", placa);
-        resultado.put("costo_total", costoTotal);
-        resultado.put("cantidad_mantenimientos", mantenimientos.size());
+        return ResponseEntity.ok(mantenimientoService.getResumenPorPlaca(placa));
+    }
 
-        return ResponseEntity.ok(resultado);
+    /**
+     * Resumen de costos de varias placas (placas=ABC-123,XYZ-789) o de toda la flota si se omite
+     */
+    private ResponseEntity<List<ResumenMantenimientos>> obtenerResumenesPorPlaca(String placas) {
+        List<String> lista = new ArrayList<>();
+        if (placas != null) {
+            for (String placa : placas.split(",")) {
+                if (!placa.trim().isEmpty()) {
+                    lista.add(placa.trim());
+                }
+            }
+        }
+        return ResponseEntity.ok(mantenimientoService.getResumenesPorPlaca(lista));
     }
 
     // Método para formatear mensajes de error
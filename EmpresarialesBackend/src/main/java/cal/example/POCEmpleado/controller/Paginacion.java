@@ -0,0 +1,49 @@
+package cal.example.POCEmpleado.controller;
+
+import org.springframework.http.ResponseEntity;
+
+import java.util.Map;
+
+/**
+ * Parámetros y respuesta de los listados paginados por keyset (limit, cursor, sort).
+ * El cuerpo sigue siendo un arreglo JSON; el cursor de la página siguiente viaja en la
+ * cabecera X-Next-Cursor y falta cuando ya no hay más resultados.
+ */
+final class Paginacion {
+
+    static final String CABECERA_CURSOR = "X-Next-Cursor";
+
+    private Paginacion() {
+    }
+
+    static boolean esParametro(String nombre) {
+        return "limit".equals(nombre) || "cursor".equals(nombre) || "sort".equals(nombre);
+    }
+
+    static boolean solicitada(Map<String, String> params) {
+        return params.containsKey("limit") || params.containsKey("cursor") || params.containsKey("sort");
+    }
+
+    static Integer limite(Map<String, String> params) {
+        String limit = params.get("limit");
+        if (limit == null || limit.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            return Integer.parseInt(limit.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Valor inválido para limit: " + limit);
+        }
+    }
+
+    /**
+     * Respuesta 200 con la cabecera del cursor siguiente (si lo hay).
+     */
+    static ResponseEntity.BodyBuilder ok(String siguienteCursor) {
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok();
+        if (siguienteCursor != null) {
+            respuesta.header(CABECERA_CURSOR, siguienteCursor);
+        }
+        return respuesta;
+    }
+}
@@ -0,0 +1,109 @@
+package cal.example.POCEmpleado.controller;
+
+import cal.example.POCEmpleado.model.Carro;
+import cal.example.POCEmpleado.model.Mantenimiento;
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Proyección de campos (fields=placa,marca,precio) para los listados.
+ *
+ * Usa una copia del ObjectMapper de Spring donde Carro y Mantenimiento llevan un @JsonFilter
+ * (por mixin, sin tocar el modelo). Cada combinación de tipo y campos tiene su ObjectWriter
+ * ya construido y cacheado: las peticiones siguientes con los mismos campos reutilizan los
+ * serializadores y solo escriben las propiedades pedidas.
+ */
+@Component
+public class ProyeccionJson {
+
+    private static final String FILTRO = "proyeccion";
+
+    @JsonFilter(FILTRO)
+    private interface MixinProyeccion {
+    }
+
+    private final ObjectMapper mapper;
+    private final Map<Class<?>, Set<String>> propiedadesPorTipo = new ConcurrentHashMap<>();
+    private final Map<String, ObjectWriter> escritores = new ConcurrentHashMap<>();
+
+    @Value("${proyeccion.max-escritores:256}")
+    private int maxEscritores;
+
+    @Autowired
+    public ProyeccionJson(ObjectMapper objectMapper) {
+        this.mapper = objectMapper.copy()
+                .addMixIn(Carro.class, MixinProyeccion.class)
+                .addMixIn(Mantenimiento.class, MixinProyeccion.class);
+    }
+
+    /**
+     * Sin fields responde el arreglo completo que arma el serializador (fragmentos cacheados del
+     * servicio); con fields, los bytes JSON de la proyección.
+     * Un campo que el tipo no tiene lanza IllegalArgumentException (400 en el controlador).
+     */
+    public <T> ResponseEntity<?> responder(ResponseEntity.BodyBuilder respuesta, Class<T> tipo, List<T> registros,
+                                           String fields, Function<List<T>, byte[]> serializador)
+            throws JsonProcessingException {
+        if (fields == null || fields.trim().isEmpty()) {
+            return respuesta.contentType(MediaType.APPLICATION_JSON).body(serializador.apply(registros));
+        }
+        byte[] cuerpo = escritor(tipo, fields).writeValueAsBytes(registros);
+        return respuesta.contentType(MediaType.APPLICATION_JSON).body(cuerpo);
+    }
+
+    private ObjectWriter escritor(Class<?> tipo, String fields) {
+        // Clave normalizada: el orden y los repetidos en fields no crean escritores distintos
+        Set<String> campos = new TreeSet<>();
+        for (String campo : fields.split(",")) {
+            if (!campo.trim().isEmpty()) {
+                campos.add(campo.trim());
+            }
+        }
+        Set<String> validos = propiedadesPorTipo.computeIfAbsent(tipo, this::propiedades);
+        for (String campo : campos) {
+            if (!validos.contains(campo)) {
+                throw new IllegalArgumentException("Campo no válido en fields: " + campo
+                        + " (campos disponibles: " + String.join(", ", validos) + ")");
+            }
+        }
+        String clave = tipo.getName() + ":" + String.join(",", campos);
+        ObjectWriter escritor = escritores.get(clave);
+        if (escritor == null) {
+            escritor = mapper.writer(new SimpleFilterProvider()
+                    .addFilter(FILTRO, SimpleBeanPropertyFilter.filterOutAllExcept(campos)));
+            // Cota para que combinaciones arbitrarias de fields no hagan crecer el caché sin límite
+            if (escritores.size() < maxEscritores) {
+                escritores.putIfAbsent(clave, escritor);
+            }
+        }
+        return escritor;
+    }
+
+    private Set<String> propiedades(Class<?> tipo) {
+        Set<String> nombres = new TreeSet<>();
+        for (BeanPropertyDefinition propiedad : mapper.getSerializationConfig()
+                .introspect(mapper.constructType(tipo)).findProperties()) {
+            if (propiedad.couldSerialize()) {
+                nombres.add(propiedad.getName());
+            }
+        }
+        return nombres;
+    }
+}
@@ -0,0 +1,95 @@
+package cal.example.POCEmpleado.model;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.function.Supplier;
+
+/**
+ * Evento del feed de cambios (GET /api/cambios).
+ * secuencia es monótona dentro de una ejecución del servidor; id la acompaña del instante de
+ * arranque y es lo que el cliente devuelve en Last-Event-ID para reanudar.
+ * datos es el JSON del registro tal como quedó al publicar el evento, incluido tal cual en la
+ * respuesta (null en las eliminaciones). Se serializa al primer envío, desde el hilo que transmite:
+ * el registro publicado es la instancia guardada, que no se modifica (cada cambio la reemplaza).
+ * estadoAnterior solo viene en los cambios de estado del barrido (PENDIENTE → URGENTE → VENCIDO).
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class EventoCambio {
+
+    public static final String CREADO = "CREADO";
+    public static final String ACTUALIZADO = "ACTUALIZADO";
+    public static final String ELIMINADO = "ELIMINADO";
+    public static final String CAMBIO_ESTADO = "CAMBIO_ESTADO";
+    // El cliente perdió eventos que ya no están en el historial: debe volver a pedir los listados
+    public static final String RESINCRONIZAR = "RESINCRONIZAR";
+
+    private final String id;
+    private final long secuencia;
+    private final String entidad;
+    private final String operacion;
+    private final String clave;
+    private final String estadoAnterior;
+    private Supplier<byte[]> serializador;
+    private String datos;
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private final LocalDateTime fecha;
+
+    /**
+     * @param serializador JSON del registro (UTF-8), se llama una sola vez al primer envío;
+     *                     null si el evento no lleva datos (eliminaciones, RESINCRONIZAR)
+     */
+    public EventoCambio(String id, long secuencia, String entidad, String operacion, String clave,
+                        String estadoAnterior, Supplier<byte[]> serializador) {
+        this.id = id;
+        this.secuencia = secuencia;
+        this.entidad = entidad;
+        this.operacion = operacion;
+        this.clave = clave;
+        this.estadoAnterior = estadoAnterior;
+        this.serializador = serializador;
+        this.fecha = LocalDateTime.now();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public long getSecuencia() {
+        return secuencia;
+    }
+
+    public String getEntidad() {
+        return entidad;
+    }
+
+    public String getOperacion() {
+        return operacion;
+    }
+
+    public String getClave() {
+        return clave;
+    }
+
+    public String getEstadoAnterior() {
+        return estadoAnterior;
+    }
+
+    @JsonRawValue
+    public synchronized String getDatos() {
+        // Varios suscriptores pueden enviar el mismo evento a la vez: se serializa una vez
+        if (serializador != null) {
+            datos = new String(serializador.get(), StandardCharsets.UTF_8);
+            serializador = null;
+        }
+        return datos;
+    }
+
+    public LocalDateTime getFecha() {
+        return fecha;
+    }
+}
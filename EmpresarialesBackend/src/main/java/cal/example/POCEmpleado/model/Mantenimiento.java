@@ -14,6 +14,9 @@ import java.util.Objects;
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class Mantenimiento {
 
+    // Días antes de proximoMantenimiento en que un mantenimiento pasa a ser urgente
+    public static final int DIAS_URGENCIA = 15;
+
     private String id;
 
     @NotBlank(message = "La placa del carro es obligatoria")
@@ -74,30 +77,63 @@ public class Mantenimiento {
         this.fechaRegistro = LocalDateTime.now();
     }
 
+    // Constructor de copia: los registros guardados no se modifican, se reemplazan por una copia
+    public Mantenimiento(Mantenimiento otro) {
+        this.id = otro.id;
+        this.placaCarro = otro.placaCarro;
+        this.fechaMantenimiento = otro.fechaMantenimiento;
+        this.kilometraje = otro.kilometraje;
+        this.tipoMantenimiento = otro.tipoMantenimiento;
+        this.costo = otro.costo;
+        this.descripcion = otro.descripcion;
+        this.proximoMantenimiento = otro.proximoMantenimiento;
+        this.completado = otro.completado;
+        this.fechaRegistro = otro.fechaRegistro;
+        this.estadoMantenimiento = otro.estadoMantenimiento;
+        this.esUrgente = otro.esUrgente;
+        this.costoConImpuesto = otro.costoConImpuesto;
+    }
+
     // Método para calcular si es urgente
     public boolean calcularEsUrgente() {
+        return calcularEsUrgente(LocalDateTime.now());
+    }
+
+    public boolean calcularEsUrgente(LocalDateTime ahora) {
         if (proximoMantenimiento == null || completado) {
             return false;
         }
-        LocalDateTime ahora = LocalDateTime.now();
-        LocalDateTime limiteUrgente = ahora.plusDays(15);
+        LocalDateTime limiteUrgente = ahora.plusDays(DIAS_URGENCIA);
         return proximoMantenimiento.isBefore(limiteUrgente);
     }
 
     // Método para calcular estado
     public String calcularEstadoMantenimiento() {
+        return calcularEstadoMantenimiento(LocalDateTime.now());
+    }
+
+    public String calcularEstadoMantenimiento(LocalDateTime ahora) {
         if (completado) {
             return "COMPLETADO";
         }
-        if (calcularEsUrgente()) {
-            return "URGENTE";
-        }
-        if (proximoMantenimiento != null && proximoMantenimiento.isBefore(LocalDateTime.now())) {
+        // Vencido se evalúa antes que urgente: una fecha pasada también cae en la ventana de urgencia
+        if (proximoMantenimiento != null && proximoMantenimiento.isBefore(ahora)) {
             return "VENCIDO";
         }
+        if (calcularEsUrgente(ahora)) {
+            return "URGENTE";
+        }
         return "PENDIENTE";
     }
 
+    /**
+     * Recalcula y fija estadoMantenimiento y esUrgente con la fecha de referencia indicada.
+     */
+    public void actualizarEstado(LocalDateTime ahora) {
+        this.estadoMantenimiento = calcularEstadoMantenimiento(ahora);
+        this.esUrgente = calcularEsUrgente(ahora);
+    }
+
     // Getters y Setters
     public String getId() {
         return id;
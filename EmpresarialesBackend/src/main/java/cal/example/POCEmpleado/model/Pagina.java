@@ -0,0 +1,27 @@
+package cal.example.POCEmpleado.model;
+
+import java.util.List;
+
+/**
+ * Una página de un listado paginado por keyset.
+ * siguienteCursor es null cuando no hay más resultados; el controlador lo devuelve
+ * en la cabecera X-Next-Cursor y el cuerpo sigue siendo el arreglo de registros.
+ */
+public class Pagina<T> {
+
+    private final List<T> elementos;
+    private final String siguienteCursor;
+
+    public Pagina(List<T> elementos, String siguienteCursor) {
+        this.elementos = elementos;
+        this.siguienteCursor = siguienteCursor;
+    }
+
+    public List<T> getElementos() {
+        return elementos;
+    }
+
+    public String getSiguienteCursor() {
+        return siguienteCursor;
+    }
+}
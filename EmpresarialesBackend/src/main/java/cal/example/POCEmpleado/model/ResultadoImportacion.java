@@ -0,0 +1,94 @@
+package cal.example.POCEmpleado.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reporte de una importación masiva: totales y el resultado de cada registro,
+ * en el mismo orden en que llegaron.
+ */
+public class ResultadoImportacion {
+
+    public static final String CREADO = "CREADO";
+    public static final String ACTUALIZADO = "ACTUALIZADO";
+    public static final String RECHAZADO = "RECHAZADO";
+
+    /**
+     * Resultado de un registro: su posición en la entrada (desde 0), su clave
+     * (placa o id) y, si fue rechazado, los errores por campo.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class ResultadoRegistro {
+
+        private final int indice;
+        private final String clave;
+        private final String resultado;
+        private final Map<String, String> errores;
+
+        public ResultadoRegistro(int indice, String clave, String resultado, Map<String, String> errores) {
+            this.indice = indice;
+            this.clave = clave;
+            this.resultado = resultado;
+            this.errores = errores;
+        }
+
+        public int getIndice() {
+            return indice;
+        }
+
+        public String getClave() {
+            return clave;
+        }
+
+        public String getResultado() {
+            return resultado;
+        }
+
+        public Map<String, String> getErrores() {
+            return errores;
+        }
+    }
+
+    private int creados;
+    private int actualizados;
+    private int rechazados;
+    private final List<ResultadoRegistro> registros;
+
+    public ResultadoImportacion(int total) {
+        this.registros = new ArrayList<>(total);
+    }
+
+    public void agregar(ResultadoRegistro registro) {
+        registros.add(registro);
+        if (CREADO.equals(registro.getResultado())) {
+            creados++;
+        } else if (ACTUALIZADO.equals(registro.getResultado())) {
+            actualizados++;
+        } else {
+            rechazados++;
+        }
+    }
+
+    public int getTotal() {
+        return registros.size();
+    }
+
+    public int getCreados() {
+        return creados;
+    }
+
+    public int getActualizados() {
+        return actualizados;
+    }
+
+    public int getRechazados() {
+        return rechazados;
+    }
+
+    public List<ResultadoRegistro> getRegistros() {
+        return registros;
+    }
+}
@@ -0,0 +1,97 @@
+package cal.example.POCEmpleado.model;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.time.LocalDateTime;
+
+/**
+ * Resumen de los mantenimientos de un vehículo (costo-total-placa y reporte de costos de la flota).
+ * Los nombres JSON conservan los de la respuesta original de costo-total-placa.
+ */
+public class ResumenMantenimientos {
+
+    @JsonProperty("placa")
+    private String placa;
+
+    @JsonProperty("cantidad_mantenimientos")
+    private long cantidadMantenimientos;
+
+    @JsonProperty("costo_total")
+    private double costoTotal;
+
+    @JsonProperty("costo_minimo")
+    private Double costoMinimo;
+
+    @JsonProperty("costo_maximo")
+    private Double costoMaximo;
+
+    @JsonProperty("ultimo_mantenimiento")
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime ultimoMantenimiento;
+
+    @JsonProperty("ultimo_kilometraje")
+    private Integer ultimoKilometraje;
+
+    public ResumenMantenimientos() {
+    }
+
+    public ResumenMantenimientos(String placa) {
+        this.placa = placa;
+    }
+
+    public String getPlaca() {
+        return placa;
+    }
+
+    public void setPlaca(String placa) {
+        this.placa = placa;
+    }
+
+    public long getCantidadMantenimientos() {
+        return cantidadMantenimientos;
+    }
+
+    public void setCantidadMantenimientos(long cantidadMantenimientos) {
+        this.cantidadMantenimientos = cantidadMantenimientos;
+    }
+
+    public double getCostoTotal() {
+        return costoTotal;
+    }
+
+    public void setCostoTotal(double costoTotal) {
+        this.costoTotal = costoTotal;
+    }
+
+    public Double getCostoMinimo() {
+        return costoMinimo;
+    }
+
+    public void setCostoMinimo(Double costoMinimo) {
+        this.costoMinimo = costoMinimo;
+    }
+
+    public Double getCostoMaximo() {
+        return costoMaximo;
+    }
+
+    public void setCostoMaximo(Double costoMaximo) {
+        this.costoMaximo = costoMaximo;
+    }
+
+    public LocalDateTime getUltimoMantenimiento() {
+        return ultimoMantenimiento;
+    }
+
+    public void setUltimoMantenimiento(LocalDateTime ultimoMantenimiento) {
+        this.ultimoMantenimiento = ultimoMantenimiento;
+    }
+
+    public Integer getUltimoKilometraje() {
+        return ultimoKilometraje;
+    }
+
+    public void setUltimoKilometraje(Integer ultimoKilometraje) {
+        this.ultimoKilometraje = ultimoKilometraje;
+    }
+}
@@ -0,0 +1,122 @@
+package cal.example.POCEmpleado.persistence;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Carga un arreglo JSON grande sin construir la lista completa en memoria.
+ *
+ * Un único hilo recorre los tokens con JsonParser y corta el arreglo en bloques de
+ * elementos (copiados como TokenBuffer); cada bloque se decodifica en paralelo en un
+ * ForkJoinPool y se entrega en orden al destino (normalmente el almacén del servicio).
+ * Como mucho hay dos bloques en vuelo: el que se decodifica y el que se está leyendo,
+ * de modo que la memoria pico queda cerca del tamaño final de la colección.
+ *
+ * @param <T> tipo de los elementos del arreglo
+ */
+public class CargadorJsonStreaming<T> {
+
+    public static final int TAMANO_BLOQUE_POR_DEFECTO = 2048;
+
+    private final ObjectMapper objectMapper;
+    private final ObjectReader reader;
+    private final int tamanoBloque;
+    private final ForkJoinPool pool;
+
+    public CargadorJsonStreaming(ObjectMapper objectMapper, Class<T> tipo) {
+        this(objectMapper, tipo, TAMANO_BLOQUE_POR_DEFECTO, ForkJoinPool.commonPool());
+    }
+
+    public CargadorJsonStreaming(ObjectMapper objectMapper, Class<T> tipo, int tamanoBloque, ForkJoinPool pool) {
+        this.objectMapper = objectMapper;
+        this.reader = objectMapper.readerFor(tipo);
+        this.tamanoBloque = Math.max(1, tamanoBloque);
+        this.pool = pool;
+    }
+
+    /**
+     * Lee el arreglo JSON del archivo y entrega los elementos al destino bloque a bloque, en orden.
+     *
+     * @return número de elementos cargados
+     */
+    public long cargar(Path archivo, Consumer<List<T>> destino) throws IOException {
+        long total = 0;
+        try (JsonParser parser = objectMapper.getFactory().createParser(archivo.toFile())) {
+            JsonToken inicio = parser.nextToken();
+            if (inicio == null) {
+                return 0;
+            }
+            if (inicio != JsonToken.START_ARRAY) {
+                throw new IOException("Se esperaba un arreglo JSON en " + archivo);
+            }
+
+            ForkJoinTask<List<T>> enVuelo = null;
+            List<TokenBuffer> bloque = new ArrayList<>(tamanoBloque);
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                if (parser.currentToken() == null) {
+                    throw new IOException("Arreglo JSON incompleto en " + archivo);
+                }
+                TokenBuffer elemento = new TokenBuffer(parser);
+                elemento.copyCurrentStructure(parser);
+                bloque.add(elemento);
+
+                if (bloque.size() == tamanoBloque) {
+                    total += entregar(enVuelo, destino);
+                    enVuelo = decodificar(bloque);
+                    bloque = new ArrayList<>(tamanoBloque);
+                }
+            }
+            total += entregar(enVuelo, destino);
+            if (!bloque.isEmpty()) {
+                total += entregar(decodificar(bloque), destino);
+            }
+        }
+        return total;
+    }
+
+    private ForkJoinTask<List<T>> decodificar(List<TokenBuffer> bloque) {
+        return pool.submit(() -> bloque.parallelStream()
+                .map(this::leerElemento)
+                .collect(Collectors.toList()));
+    }
+
+    private T leerElemento(TokenBuffer elemento) {
+        try (JsonParser parser = elemento.asParser(objectMapper)) {
+            return reader.readValue(parser);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private int entregar(ForkJoinTask<List<T>> tarea, Consumer<List<T>> destino) throws IOException {
+        if (tarea == null) {
+            return 0;
+        }
+        List<T> decodificados;
+        try {
+            decodificados = tarea.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Carga interrumpida", e);
+        } catch (ExecutionException e) {
+            Throwable causa = e.getCause() instanceof UncheckedIOException ? e.getCause().getCause() : e.getCause();
+            throw new IOException("Error al decodificar elemento JSON: " + causa.getMessage(), causa);
+        }
+        destino.accept(decodificados);
+        return decodificados.size();
+    }
+}
@@ -0,0 +1,11 @@
+package cal.example.POCEmpleado.persistence;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * Mixin de Jackson para persistencia: omite las propiedades calculadas de Carro
+ * (se recalculan al leer), dejando solo los campos de datos.
+ */
+@JsonIgnoreProperties(value = {"tipoVehiculo", "detallesEspecificos", "informacionCompleta"}, ignoreUnknown = true)
+public abstract class CarroPersistenciaMixin {
+}
@@ -0,0 +1,28 @@
+package cal.example.POCEmpleado.persistence;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Codifica una entidad como registro de ancho fijo dentro de un SnapshotBinario.
+ * Las cadenas se guardan como índices en el diccionario del archivo y los
+ * números en campos de tamaño fijo, de modo que el registro i empieza siempre
+ * en cabecera + i * anchoRegistro().
+ *
+ * Las implementaciones deben usar solo lecturas absolutas (getInt(indice), ...)
+ * sobre el buffer de origen: los registros se decodifican en paralelo.
+ *
+ * @param <T> tipo de la entidad
+ */
+public interface CodecBinario<T> {
+
+    /**
+     * Identificador de la entidad guardado en la cabecera ('C' carros, 'M' mantenimientos).
+     */
+    byte tipoEntidad();
+
+    int anchoRegistro();
+
+    void escribir(T registro, ByteBuffer destino, DiccionarioCadenas diccionario);
+
+    T leer(ByteBuffer origen, int offset, String[] diccionario);
+}
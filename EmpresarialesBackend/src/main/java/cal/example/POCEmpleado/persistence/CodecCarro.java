@@ -0,0 +1,58 @@
+package cal.example.POCEmpleado.persistence;
+
+import cal.example.POCEmpleado.model.Carro;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Registro binario de Carro (57 bytes):
+ * 7 cadenas (int) | anio (int) | numeroPuertas (int) | aire (byte) | precio (double) | fechaRegistro (12)
+ */
+public class CodecCarro implements CodecBinario<Carro> {
+
+    private static final int ANCHO = 7 * 4 + 4 + 4 + 1 + 8 + 12;
+
+    @Override
+    public byte tipoEntidad() {
+        return 'C';
+    }
+
+    @Override
+    public int anchoRegistro() {
+        return ANCHO;
+    }
+
+    @Override
+    public void escribir(Carro carro, ByteBuffer destino, DiccionarioCadenas diccionario) {
+        destino.putInt(diccionario.id(carro.getMarca()))
+                .putInt(diccionario.id(carro.getColor()))
+                .putInt(diccionario.id(carro.getPlaca()))
+                .putInt(diccionario.id(carro.getCombustible()))
+                .putInt(diccionario.id(carro.getModelo()))
+                .putInt(diccionario.id(carro.getEstado()))
+                .putInt(diccionario.id(carro.getTipoTransmision()))
+                .putInt(carro.getAnio())
+                .putInt(carro.getNumeroPuertas())
+                .put((byte) (carro.isTieneAireAcondicionado() ? 1 : 0))
+                .putDouble(carro.getPrecio());
+        DiccionarioCadenas.escribirFecha(destino, carro.getFechaRegistro());
+    }
+
+    @Override
+    public Carro leer(ByteBuffer origen, int offset, String[] diccionario) {
+        Carro carro = new Carro();
+        carro.setMarca(DiccionarioCadenas.cadena(diccionario, origen.getInt(offset)));
+        carro.setColor(DiccionarioCadenas.cadena(diccionario, origen.getInt(offset + 4)));
+        carro.setPlaca(DiccionarioCadenas.cadena(diccionario, origen.getInt(offset + 8)));
+        carro.setCombustible(DiccionarioCadenas.cadena(diccionario, origen.getInt(offset + 12)));
+        carro.setModelo(DiccionarioCadenas.cadena(diccionario, origen.getInt(offset + 16)));
+        carro.setEstado(DiccionarioCadenas.cadena(diccionario, origen.getInt(offset + 20)));
+        carro.setTipoTransmision(DiccionarioCadenas.cadena(diccionario, origen.getInt(offset + 24)));
+        carro.setAnio(origen.getInt(offset + 28));
+        carro.setNumeroPuertas(origen.getInt(offset + 32));
+        carro.setTieneAireAcondicionado(origen.get(offset + 36) != 0);
+        carro.setPrecio(origen.getDouble(offset + 37));
+        carro.setFechaRegistro(DiccionarioCadenas.leerFecha(origen, offset + 45));
+        return carro;
+    }
+}
@@ -0,0 +1,57 @@
+package cal.example.POCEmpleado.persistence;
+
+import cal.example.POCEmpleado.model.Mantenimiento;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Registro binario de Mantenimiento (65 bytes):
+ * id, placaCarro, tipoMantenimiento, descripcion (int) | fechaMantenimiento (12) | kilometraje (int)
+ * | costo (double) | proximoMantenimiento (12) | completado (byte) | fechaRegistro (12)
+ *
+ * Las propiedades calculadas (estadoMantenimiento, esUrgente, costoConImpuesto) no se guardan.
+ */
+public class CodecMantenimiento implements CodecBinario<Mantenimiento> {
+
+    private static final int ANCHO = 4 * 4 + 12 + 4 + 8 + 12 + 1 + 12;
+
+    @Override
+    public byte tipoEntidad() {
+        return 'M';
+    }
+
+    @Override
+    public int anchoRegistro() {
+        return ANCHO;
+    }
+
+    @Override
+    public void escribir(Mantenimiento m, ByteBuffer destino, DiccionarioCadenas diccionario) {
+        destino.putInt(diccionario.id(m.getId()))
+                .putInt(diccionario.id(m.getPlacaCarro()))
+                .putInt(diccionario.id(m.getTipoMantenimiento()))
+                .putInt(diccionario.id(m.getDescripcion()));
+        DiccionarioCadenas.escribirFecha(destino, m.getFechaMantenimiento());
+        destino.putInt(m.getKilometraje())
+                .putDouble(m.getCosto());
+        DiccionarioCadenas.escribirFecha(destino, m.getProximoMantenimiento());
+        destino.put((byte) (m.isCompletado() ? 1 : 0));
+        DiccionarioCadenas.escribirFecha(destino, m.getFechaRegistro());
+    }
+
+    @Override
+    public Mantenimiento leer(ByteBuffer origen, int offset, String[] diccionario) {
+        Mantenimiento m = new Mantenimiento();
+        m.setId(DiccionarioCadenas.cadena(diccionario, origen.getInt(offset)));
+        m.setPlacaCarro(DiccionarioCadenas.cadena(diccionario, origen.getInt(offset + 4)));
+        m.setTipoMantenimiento(DiccionarioCadenas.cadena(diccionario, origen.getInt(offset + 8)));
+        m.setDescripcion(DiccionarioCadenas.cadena(diccionario, origen.getInt(offset + 12)));
+        m.setFechaMantenimiento(DiccionarioCadenas.leerFecha(origen, offset + 16));
+        m.setKilometraje(origen.getInt(offset + 28));
+        m.setCosto(origen.getDouble(offset + 32));
+        m.setProximoMantenimiento(DiccionarioCadenas.leerFecha(origen, offset + 40));
+        m.setCompletado(origen.get(offset + 52) != 0);
+        m.setFechaRegistro(DiccionarioCadenas.leerFecha(origen, offset + 53));
+        return m;
+    }
+}
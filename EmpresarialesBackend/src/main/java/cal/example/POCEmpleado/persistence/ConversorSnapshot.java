@@ -0,0 +1,66 @@
+package cal.example.POCEmpleado.persistence;
+
+import cal.example.POCEmpleado.model.Carro;
+import cal.example.POCEmpleado.model.Mantenimiento;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * Convierte los archivos JSON existentes (carros.json, mantenimientos.json) a SnapshotBinario.
+ * Los servicios lo usan automáticamente al arrancar en formato BINARIO sin snapshot binario previo;
+ * también puede ejecutarse a mano:
+ *
+ * <pre>
+ * java -cp POCEmpleado.jar -Dloader.main=cal.example.POCEmpleado.persistence.ConversorSnapshot \
+ *      org.springframework.boot.loader.launch.PropertiesLauncher carros carros.json carros.snapshot.bin
+ * </pre>
+ */
+public final class ConversorSnapshot {
+
+    private ConversorSnapshot() {
+    }
+
+    public static int convertirCarros(Path json, Path binario, ObjectMapper objectMapper) throws IOException {
+        List<Carro> carros = objectMapper.readValue(json.toFile(), new TypeReference<List<Carro>>() {});
+        SnapshotBinario.escribir(binario, carros, new CodecCarro());
+        return carros.size();
+    }
+
+    public static int convertirMantenimientos(Path json, Path binario, ObjectMapper objectMapper) throws IOException {
+        List<Mantenimiento> mantenimientos = objectMapper.readValue(json.toFile(), new TypeReference<List<Mantenimiento>>() {});
+        SnapshotBinario.escribir(binario, mantenimientos, new CodecMantenimiento());
+        return mantenimientos.size();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 3) {
+            System.err.println("Uso: ConversorSnapshot <carros|mantenimientos> <origen.json> <destino.bin>");
+            System.exit(1);
+        }
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+
+        Path json = Paths.get(args[1]);
+        Path binario = Paths.get(args[2]);
+        int cantidad;
+        switch (args[0].toLowerCase()) {
+            case "carros":
+                cantidad = convertirCarros(json, binario, objectMapper);
+                break;
+            case "mantenimientos":
+                cantidad = convertirMantenimientos(json, binario, objectMapper);
+                break;
+            default:
+                System.err.println("Entidad desconocida: " + args[0]);
+                System.exit(1);
+                return;
+        }
+        System.out.println("✅ " + cantidad + " registros convertidos: " + json + " -> " + binario);
+    }
+}
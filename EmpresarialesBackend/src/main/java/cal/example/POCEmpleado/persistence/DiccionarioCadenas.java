@@ -0,0 +1,71 @@
+package cal.example.POCEmpleado.persistence;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Diccionario de cadenas de un SnapshotBinario: cada cadena distinta se escribe una sola vez
+ * y los registros la referencian por índice. También reúne los helpers de campos de ancho fijo
+ * que comparten los codecs.
+ */
+public class DiccionarioCadenas {
+
+    /** Índice reservado para cadenas nulas. */
+    public static final int NULO = -1;
+
+    private static final long FECHA_NULA = Long.MIN_VALUE;
+
+    private final Map<String, Integer> indices = new HashMap<>();
+    private final List<String> cadenas = new ArrayList<>();
+
+    public int id(String cadena) {
+        if (cadena == null) {
+            return NULO;
+        }
+        Integer existente = indices.get(cadena);
+        if (existente != null) {
+            return existente;
+        }
+        int nuevo = cadenas.size();
+        cadenas.add(cadena);
+        indices.put(cadena, nuevo);
+        return nuevo;
+    }
+
+    public List<String> getCadenas() {
+        return cadenas;
+    }
+
+    public static String cadena(String[] diccionario, int id) {
+        return id == NULO ? null : diccionario[id];
+    }
+
+    /**
+     * Escribe una fecha en 12 bytes: segundos epoch (UTC) + nanosegundos.
+     */
+    public static void escribirFecha(ByteBuffer destino, LocalDateTime fecha) {
+        if (fecha == null) {
+            destino.putLong(FECHA_NULA).putInt(0);
+        } else {
+            destino.putLong(fecha.toEpochSecond(ZoneOffset.UTC)).putInt(fecha.getNano());
+        }
+    }
+
+    public static LocalDateTime leerFecha(ByteBuffer origen, int offset) {
+        long segundos = origen.getLong(offset);
+        if (segundos == FECHA_NULA) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(segundos, origen.getInt(offset + 8), ZoneOffset.UTC);
+    }
+
+    static byte[] utf8(String cadena) {
+        return cadena.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,61 @@
+package cal.example.POCEmpleado.persistence;
+
+import cal.example.POCEmpleado.model.Carro;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Entrada del journal de carros: una operación de guardado o de eliminación por placa.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class EntradaJournalCarro {
+
+    public static final String GUARDAR = "GUARDAR";
+    public static final String ELIMINAR = "ELIMINAR";
+
+    private String operacion;
+    private String placa;
+    private Carro carro;
+
+    public EntradaJournalCarro() {
+    }
+
+    private EntradaJournalCarro(String operacion, String placa, Carro carro) {
+        this.operacion = operacion;
+        this.placa = placa;
+        this.carro = carro;
+    }
+
+    public static EntradaJournalCarro guardar(Carro carro) {
+        return new EntradaJournalCarro(GUARDAR, carro.getPlaca(), carro);
+    }
+
+    public static EntradaJournalCarro eliminar(String placa) {
+        return new EntradaJournalCarro(ELIMINAR, placa, null);
+    }
+
+    public String getOperacion() {
+        return operacion;
+    }
+
+    public void setOperacion(String operacion) {
+        this.operacion = operacion;
+    }
+
+    public String getPlaca() {
+        return placa;
+    }
+
+    public void setPlaca(String placa) {
+        this.placa = placa;
+    }
+
+    public Carro getCarro() {
+        return carro;
+    }
+
+    public void setCarro(Carro carro) {
+        this.carro = carro;
+    }
+}
@@ -0,0 +1,148 @@
+package cal.example.POCEmpleado.persistence;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Agrupa cambios pendientes y los persiste en un único flush, ya sea al cumplirse
+ * un intervalo o al alcanzar un tamaño máximo de lote.
+ *
+ * Modos de durabilidad:
+ * - SYNC: cada cambio se persiste en el hilo de la petición (comportamiento original).
+ * - GROUP_COMMIT: el cambio espera al siguiente flush del lote; al retornar ya está en disco.
+ * - ASYNC: el cambio retorna de inmediato; un cierre abrupto puede perder el último intervalo.
+ */
+public class EscritorGroupCommit implements AutoCloseable {
+
+    public enum ModoDurabilidad { SYNC, GROUP_COMMIT, ASYNC }
+
+    @FunctionalInterface
+    public interface AccionFlush {
+        void flush() throws Exception;
+    }
+
+    private final ModoDurabilidad modo;
+    private final long intervaloMs;
+    private final int maxLote;
+    private final AccionFlush accion;
+    private final ScheduledExecutorService executor;
+
+    private CompletableFuture<Void> loteActual = new CompletableFuture<>();
+    private int pendientes;
+    // Flush por intervalo programado para el lote actual (null si no hay)
+    private ScheduledFuture<?> temporizador;
+    // Flush por tamaño ya enviado para el lote actual: se envía una sola vez por lote
+    private boolean flushPorTamano;
+
+    public EscritorGroupCommit(String nombre, ModoDurabilidad modo, long intervaloMs, int maxLote, AccionFlush accion) {
+        this(modo, intervaloMs, maxLote, accion, modo == ModoDurabilidad.SYNC ? null
+                : Executors.newSingleThreadScheduledExecutor(r -> {
+                    Thread hilo = new Thread(r, "flush-" + nombre);
+                    hilo.setDaemon(true);
+                    return hilo;
+                }));
+    }
+
+    /**
+     * Con el executor de los flush dado (debe ejecutar las tareas de a una). close() lo detiene.
+     */
+    EscritorGroupCommit(ModoDurabilidad modo, long intervaloMs, int maxLote, AccionFlush accion,
+                        ScheduledExecutorService executor) {
+        this.modo = modo;
+        this.intervaloMs = Math.max(1, intervaloMs);
+        this.maxLote = Math.max(1, maxLote);
+        this.accion = accion;
+        this.executor = executor;
+    }
+
+    /**
+     * Registra un cambio en memoria. Según el modo, persiste de inmediato, espera al
+     * flush del lote o solo lo programa. No debe llamarse sosteniendo locks que el flush necesite.
+     */
+    public void registrarCambio() {
+        if (modo == ModoDurabilidad.SYNC) {
+            ejecutarFlush();
+            return;
+        }
+
+        CompletableFuture<Void> lote;
+        synchronized (this) {
+            lote = loteActual;
+            pendientes++;
+            if (pendientes >= maxLote) {
+                if (!flushPorTamano) {
+                    flushPorTamano = true;
+                    executor.execute(this::flushLote);
+                }
+            } else if (temporizador == null) {
+                temporizador = executor.schedule(this::flushLote, intervaloMs, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        if (modo == ModoDurabilidad.GROUP_COMMIT) {
+            try {
+                lote.join();
+            } catch (CompletionException e) {
+                throw new RuntimeException("Error al persistir el lote: " + e.getCause().getMessage(), e.getCause());
+            }
+        }
+    }
+
+    public ModoDurabilidad getModo() {
+        return modo;
+    }
+
+    /**
+     * Persiste los cambios pendientes y detiene el hilo de flush.
+     */
+    @Override
+    public void close() {
+        if (executor == null) {
+            return;
+        }
+        try {
+            executor.submit(this::flushLote).get();
+        } catch (Exception e) {
+            System.err.println("Error al persistir cambios pendientes: " + e.getMessage());
+        }
+        executor.shutdown();
+    }
+
+    private void flushLote() {
+        CompletableFuture<Void> lote;
+        synchronized (this) {
+            // El flush que toma el lote cancela el otro disparador pendiente del mismo lote;
+            // los cambios siguientes programan los suyos para el lote nuevo
+            if (temporizador != null) {
+                temporizador.cancel(false);
+                temporizador = null;
+            }
+            flushPorTamano = false;
+            if (pendientes == 0) {
+                return;
+            }
+            lote = loteActual;
+            loteActual = new CompletableFuture<>();
+            pendientes = 0;
+        }
+        try {
+            accion.flush();
+            lote.complete(null);
+        } catch (Exception e) {
+            System.err.println("⚠️ Error en flush de lote: " + e.getMessage());
+            lote.completeExceptionally(e);
+        }
+    }
+
+    private void ejecutarFlush() {
+        try {
+            accion.flush();
+        } catch (Exception e) {
+            throw new RuntimeException("Error al persistir: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package cal.example.POCEmpleado.persistence;
+
+/**
+ * Formato en el que se escribe y se lee el snapshot completo de una colección.
+ * - JSON: archivo de texto legible (carros.json, mantenimientos.json).
+ * - BINARIO: SnapshotBinario mapeado en memoria, pensado para arranques rápidos con muchos registros.
+ */
+public enum FormatoSnapshot {
+    JSON,
+    BINARIO
+}
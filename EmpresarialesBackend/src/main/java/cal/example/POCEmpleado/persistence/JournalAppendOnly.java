@@ -0,0 +1,208 @@
+package cal.example.POCEmpleado.persistence;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Journal de solo-anexado (write-ahead log) en formato NDJSON.
+ * Cada mutación se escribe como una línea JSON compacta al final del archivo,
+ * de modo que el costo de una escritura no depende del tamaño del inventario.
+ * Al arrancar, el servicio carga el snapshot y reproduce el journal encima.
+ *
+ * Un cierre abrupto durante un append solo puede dejar incompleta la última línea: esa se
+ * descarta y se recorta del archivo. Una línea ilegible antes de la última es corrupción (se
+ * perdería una operación y el estado reproducido divergiría), así que replay falla.
+ *
+ * @param <E> tipo de las entradas del journal
+ */
+public class JournalAppendOnly<E> implements AutoCloseable {
+
+    private final Path archivo;
+    private final ObjectMapper objectMapper;
+    private final Class<E> tipoEntrada;
+    private final boolean fsync;
+
+    private FileChannel canal;
+    private long entradas;
+
+    public JournalAppendOnly(Path archivo, ObjectMapper objectMapper, Class<E> tipoEntrada, boolean fsync) {
+        this.archivo = archivo;
+        this.objectMapper = objectMapper;
+        this.tipoEntrada = tipoEntrada;
+        this.fsync = fsync;
+    }
+
+    /**
+     * Anexa una entrada y, si está habilitado, fuerza la escritura a disco.
+     */
+    public synchronized void append(E entrada) throws IOException {
+        escribir(serializar(entrada));
+    }
+
+    /**
+     * Anexa varias entradas con una sola escritura y un solo fsync.
+     */
+    public synchronized void appendAll(List<E> lote) throws IOException {
+        if (lote.isEmpty()) {
+            return;
+        }
+        ByteBuffer[] buffers = new ByteBuffer[lote.size()];
+        for (int i = 0; i < lote.size(); i++) {
+            buffers[i] = serializar(lote.get(i));
+        }
+        FileChannel c = abrirCanal();
+        long pendientes = 0;
+        for (ByteBuffer b : buffers) {
+            pendientes += b.remaining();
+        }
+        while (pendientes > 0) {
+            pendientes -= c.write(buffers);
+        }
+        if (fsync) {
+            c.force(false);
+        }
+        entradas += lote.size();
+    }
+
+    /**
+     * Reproduce todas las entradas del journal en orden.
+     * Una última línea incompleta (escritura interrumpida por un cierre abrupto) se descarta y
+     * se recorta, para que el siguiente append empiece en una línea nueva.
+     *
+     * @return número de entradas aplicadas
+     * @throws IOException si una línea anterior a la última no se puede leer (journal corrupto)
+     */
+    public synchronized long replay(Consumer<E> aplicar) throws IOException {
+        entradas = 0;
+        if (!Files.exists(archivo)) {
+            return 0;
+        }
+        // Línea ilegible pendiente: solo se acepta si resulta ser la última no vacía
+        int lineaIlegible = 0;
+        long inicioIlegible = -1;
+        IOException errorIlegible = null;
+        long posicion = 0;
+        try (BufferedReader reader = Files.newBufferedReader(archivo, StandardCharsets.UTF_8)) {
+            String linea;
+            int numeroLinea = 0;
+            while ((linea = reader.readLine()) != null) {
+                numeroLinea++;
+                long inicio = posicion;
+                posicion += linea.getBytes(StandardCharsets.UTF_8).length + 1;
+                if (linea.isBlank()) {
+                    continue;
+                }
+                if (errorIlegible != null) {
+                    throw new IOException("Journal corrupto en " + archivo + ":" + lineaIlegible
+                            + " (hay entradas posteriores): " + errorIlegible.getMessage(), errorIlegible);
+                }
+                E entrada;
+                try {
+                    entrada = objectMapper.readValue(linea, tipoEntrada);
+                } catch (IOException e) {
+                    lineaIlegible = numeroLinea;
+                    inicioIlegible = inicio;
+                    errorIlegible = e;
+                    continue;
+                }
+                aplicar.accept(entrada);
+                entradas++;
+            }
+        }
+        if (errorIlegible != null) {
+            System.err.println("⚠️ Última entrada del journal incompleta en " + archivo + ":" + lineaIlegible
+                    + ", se descarta: " + errorIlegible.getMessage());
+            FileChannel c = abrirCanal();
+            c.truncate(inicioIlegible);
+            if (fsync) {
+                c.force(true);
+            }
+        } else if (posicion > Files.size(archivo)) {
+            // La última entrada se escribió completa salvo el salto de línea: se completa
+            escribirSaltoDeLinea();
+        }
+        return entradas;
+    }
+
+    /**
+     * Vacía el journal. Se llama después de escribir un snapshot completo.
+     */
+    public synchronized void truncate() throws IOException {
+        if (canal == null && !Files.exists(archivo)) {
+            entradas = 0;
+            return;
+        }
+        FileChannel c = abrirCanal();
+        c.truncate(0);
+        if (fsync) {
+            c.force(true);
+        }
+        entradas = 0;
+    }
+
+    /**
+     * Número de entradas escritas desde el último snapshot.
+     */
+    public synchronized long getEntradas() {
+        return entradas;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (canal != null) {
+            canal.close();
+            canal = null;
+        }
+    }
+
+    private ByteBuffer serializar(E entrada) throws IOException {
+        byte[] json = objectMapper.writeValueAsBytes(entrada);
+        ByteBuffer buffer = ByteBuffer.allocate(json.length + 1);
+        buffer.put(json).put((byte) '\n').flip();
+        return buffer;
+    }
+
+    private void escribir(ByteBuffer buffer) throws IOException {
+        FileChannel c = abrirCanal();
+        while (buffer.hasRemaining()) {
+            c.write(buffer);
+        }
+        if (fsync) {
+            c.force(false);
+        }
+        entradas++;
+    }
+
+    private void escribirSaltoDeLinea() throws IOException {
+        FileChannel c = abrirCanal();
+        ByteBuffer salto = ByteBuffer.wrap(new byte[]{'\n'});
+        while (salto.hasRemaining()) {
+            c.write(salto);
+        }
+        if (fsync) {
+            c.force(false);
+        }
+    }
+
+    private FileChannel abrirCanal() throws IOException {
+        if (canal == null) {
+            Path padre = archivo.toAbsolutePath().getParent();
+            if (padre != null) {
+                Files.createDirectories(padre);
+            }
+            canal = FileChannel.open(archivo, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+        }
+        return canal;
+    }
+}
@@ -0,0 +1,184 @@
+package cal.example.POCEmpleado.persistence;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Snapshot binario versionado, leído a través de un FileChannel mapeado en memoria.
+ *
+ * Estructura del archivo (big-endian):
+ * <pre>
+ * cabecera (32 bytes):
+ *   magic int 'EMPB' | version short | tipoEntidad byte | reservado byte
+ *   anchoRegistro int | cantidadRegistros int | offsetDiccionario long | cantidadCadenas int | reservado int
+ * registros: cantidadRegistros * anchoRegistro bytes (ver CodecBinario)
+ * diccionario: cantidadCadenas * (longitud int + bytes UTF-8)
+ * </pre>
+ *
+ * Al ser de ancho fijo, los registros se decodifican en paralelo sin parsear texto.
+ */
+public final class SnapshotBinario {
+
+    public static final int MAGIC = 0x454D5042; // "EMPB"
+    public static final short VERSION = 1;
+
+    private static final int CABECERA = 32;
+    private static final int BLOQUE_ESCRITURA = 64 * 1024;
+
+    private SnapshotBinario() {
+    }
+
+    /**
+     * Escribe el snapshot en un archivo temporal y lo renombra de forma atómica.
+     */
+    public static <T> void escribir(Path destino, Collection<T> registros, CodecBinario<T> codec) throws IOException {
+        Path temporal = Paths.get(destino.toString() + ".tmp");
+        DiccionarioCadenas diccionario = new DiccionarioCadenas();
+        int ancho = codec.anchoRegistro();
+
+        try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            canal.position(CABECERA);
+
+            ByteBuffer bloque = ByteBuffer.allocate(Math.max(BLOQUE_ESCRITURA, ancho));
+            int cantidad = 0;
+            for (T registro : registros) {
+                if (bloque.remaining() < ancho) {
+                    vaciar(canal, bloque);
+                }
+                int inicio = bloque.position();
+                codec.escribir(registro, bloque, diccionario);
+                if (bloque.position() - inicio != ancho) {
+                    throw new IllegalStateException("El codec escribió " + (bloque.position() - inicio)
+                            + " bytes, se esperaban " + ancho);
+                }
+                cantidad++;
+            }
+            vaciar(canal, bloque);
+
+            long offsetDiccionario = canal.position();
+            List<String> cadenas = diccionario.getCadenas();
+            for (String cadena : cadenas) {
+                byte[] bytes = DiccionarioCadenas.utf8(cadena);
+                if (bloque.remaining() < bytes.length + 4) {
+                    vaciar(canal, bloque);
+                    if (bloque.capacity() < bytes.length + 4) {
+                        bloque = ByteBuffer.allocate(bytes.length + 4);
+                    }
+                }
+                bloque.putInt(bytes.length).put(bytes);
+            }
+            vaciar(canal, bloque);
+
+            ByteBuffer cabecera = ByteBuffer.allocate(CABECERA);
+            cabecera.putInt(MAGIC)
+                    .putShort(VERSION)
+                    .put(codec.tipoEntidad())
+                    .put((byte) 0)
+                    .putInt(ancho)
+                    .putInt(cantidad)
+                    .putLong(offsetDiccionario)
+                    .putInt(cadenas.size())
+                    .putInt(0)
+                    .flip();
+            long posicion = 0;
+            while (cabecera.hasRemaining()) {
+                posicion += canal.write(cabecera, posicion);
+            }
+            canal.force(true);
+        }
+
+        try {
+            Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Lee todos los registros del snapshot. El diccionario se decodifica una sola vez y
+     * los registros se reconstruyen en paralelo directamente desde el buffer mapeado.
+     */
+    public static <T> List<T> leer(Path origen, CodecBinario<T> codec) throws IOException {
+        try (FileChannel canal = FileChannel.open(origen, StandardOpenOption.READ)) {
+            long tamano = canal.size();
+            if (tamano > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot demasiado grande para mapearse en un solo buffer: " + tamano + " bytes");
+            }
+            if (tamano < CABECERA) {
+                throw new IOException("Snapshot binario truncado: " + origen);
+            }
+            MappedByteBuffer buffer = canal.map(FileChannel.MapMode.READ_ONLY, 0, tamano);
+
+            if (buffer.getInt(0) != MAGIC) {
+                throw new IOException("Archivo no es un snapshot binario: " + origen);
+            }
+            short version = buffer.getShort(4);
+            if (version != VERSION) {
+                throw new IOException("Versión de snapshot no soportada: " + version);
+            }
+            if (buffer.get(6) != codec.tipoEntidad()) {
+                throw new IOException("El snapshot " + origen + " no corresponde a la entidad esperada");
+            }
+            int ancho = buffer.getInt(8);
+            if (ancho != codec.anchoRegistro()) {
+                throw new IOException("Ancho de registro inesperado: " + ancho + " (se esperaba " + codec.anchoRegistro() + ")");
+            }
+            int cantidad = buffer.getInt(12);
+            long offsetDiccionario = buffer.getLong(16);
+            int cantidadCadenas = buffer.getInt(24);
+            if (offsetDiccionario != CABECERA + (long) cantidad * ancho || offsetDiccionario > tamano) {
+                throw new IOException("Snapshot binario corrupto: " + origen);
+            }
+
+            String[] diccionario = leerDiccionario(buffer, (int) offsetDiccionario, cantidadCadenas);
+
+            @SuppressWarnings("unchecked")
+            T[] registros = (T[]) new Object[cantidad];
+            IntStream.range(0, cantidad).parallel()
+                    .forEach(i -> registros[i] = codec.leer(buffer, CABECERA + i * ancho, diccionario));
+            return Arrays.asList(registros);
+        }
+    }
+
+    /**
+     * Primero recorre las longitudes para ubicar cada cadena y luego las decodifica en paralelo.
+     */
+    private static String[] leerDiccionario(ByteBuffer buffer, int offset, int cantidad) {
+        int[] offsets = new int[cantidad];
+        int posicion = offset;
+        for (int i = 0; i < cantidad; i++) {
+            offsets[i] = posicion;
+            posicion += 4 + buffer.getInt(posicion);
+        }
+        String[] cadenas = new String[cantidad];
+        IntStream.range(0, cantidad).parallel().forEach(i -> {
+            int inicio = offsets[i];
+            byte[] bytes = new byte[buffer.getInt(inicio)];
+            buffer.get(inicio + 4, bytes);
+            cadenas[i] = new String(bytes, StandardCharsets.UTF_8);
+        });
+        return cadenas;
+    }
+
+    private static void vaciar(FileChannel canal, ByteBuffer bloque) throws IOException {
+        bloque.flip();
+        while (bloque.hasRemaining()) {
+            canal.write(bloque);
+        }
+        bloque.clear();
+    }
+}
@@ -1,21 +1,48 @@
 package cal.example.POCEmpleado.service;
 
 import cal.example.POCEmpleado.model.Carro;
-import cal.example.POCEmpleado.model.Mantenimiento;
-import com.fasterxml.jackson.core.type.TypeReference;
+import cal.example.POCEmpleado.model.EventoCambio;
+import cal.example.POCEmpleado.model.Pagina;
+import cal.example.POCEmpleado.model.ResultadoImportacion;
+import cal.example.POCEmpleado.persistence.CargadorJsonStreaming;
+import cal.example.POCEmpleado.persistence.CarroPersistenciaMixin;
+import cal.example.POCEmpleado.persistence.CodecCarro;
+import cal.example.POCEmpleado.persistence.EntradaJournalCarro;
+import cal.example.POCEmpleado.persistence.FormatoSnapshot;
+import cal.example.POCEmpleado.persistence.JournalAppendOnly;
+import cal.example.POCEmpleado.persistence.SnapshotBinario;
+import cal.example.POCEmpleado.store.CacheFragmentos;
+import cal.example.POCEmpleado.store.CacheResultados;
+import cal.example.POCEmpleado.store.IndiceAgregado;
+import cal.example.POCEmpleado.store.IndiceBitmap;
+import cal.example.POCEmpleado.store.IndiceOrdenado;
+import cal.example.POCEmpleado.store.IndiceRango;
+import cal.example.POCEmpleado.store.IndiceTexto;
+import cal.example.POCEmpleado.store.TablaIndexada;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
+import jakarta.validation.Validator;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongPredicate;
+import java.util.stream.Stream;
 
 /**
  * Implementación del servicio de Carros
@@ -25,216 +52,588 @@ import java.util.stream.Collectors;
  * - LSP: Sustituible por cualquier implementación de ICarroService
  * - ISP: Interfaz segregada con operaciones específicas
  * - DIP: Depende de abstracciones (ICarroService)
+ *
+ * Persistencia: snapshot completo (carros.json o, en formato BINARIO, carros.snapshot.bin)
+ * + journal de solo-anexado (carros.journal).
+ * Cada guardado o eliminación anexa una entrada al journal; el snapshot solo se reescribe
+ * en saveToJson() (checkpoint), al cerrar la aplicación o cuando el journal crece demasiado.
  */
 @Service
 public class CarroService implements ICarroService {
 
-    private final List<Carro> carros = new ArrayList<>();
+    // Índice hash por placa (sin distinguir mayúsculas): búsquedas, upserts y eliminaciones en O(1)
+    private final TablaIndexada<Carro> carros = new TablaIndexada<>(Carro::getPlaca);
+
+    // Índices ordenados para filtros por rango (precio_min/precio_max, anio)
+    private final IndiceRango<Carro> porPrecio = carros.registrarIndice(new IndiceRango<>(Carro::getPrecio));
+    private final IndiceRango<Carro> porAnio = carros.registrarIndice(new IndiceRango<>(Carro::getAnio));
+
+    // Conteo y suma de precios mantenidos en cada mutación (action=estadisticas en O(1))
+    private final IndiceAgregado<Carro> estadisticasPrecio = carros.registrarIndice(new IndiceAgregado<>(Carro::getPrecio));
+
+    // Índices de trigramas para los filtros "contiene" de texto libre
+    private final IndiceTexto<Carro> porMarca = carros.registrarIndice(new IndiceTexto<>(Carro::getMarca));
+    private final IndiceTexto<Carro> porModelo = carros.registrarIndice(new IndiceTexto<>(Carro::getModelo));
+    private final IndiceTexto<Carro> porColor = carros.registrarIndice(new IndiceTexto<>(Carro::getColor));
+
+    // Índices de bitmap para los campos de pocos valores posibles
+    private final IndiceBitmap<Carro, String> porEstado = carros.registrarIndice(new IndiceBitmap<>(Carro::getEstado));
+    private final IndiceBitmap<Carro, String> porCombustible =
+            carros.registrarIndice(new IndiceBitmap<>(Carro::getCombustible));
+    private final IndiceBitmap<Carro, String> porTransmision =
+            carros.registrarIndice(new IndiceBitmap<>(Carro::getTipoTransmision));
+    private final IndiceBitmap<Carro, Integer> porNumeroPuertas =
+            carros.registrarIndice(new IndiceBitmap<>(Carro::getNumeroPuertas));
+    private final IndiceBitmap<Carro, Boolean> porAireAcondicionado =
+            carros.registrarIndice(new IndiceBitmap<>(Carro::isTieneAireAcondicionado));
+
+    // Índices ordenados (valor, placa) para la paginación por keyset: sort=placa|precio|anio|fechaRegistro
+    private final Paginador<Carro> paginador = new Paginador<Carro>("placa")
+            .campo("placa", carros.registrarIndice(new IndiceOrdenado<>(Carro::getPlaca, Carro::getPlaca)),
+                    texto -> texto)
+            .campo("precio", carros.registrarIndice(new IndiceOrdenado<>(Carro::getPrecio, Carro::getPlaca)),
+                    Double::valueOf)
+            .campo("anio", carros.registrarIndice(new IndiceOrdenado<>(Carro::getAnio, Carro::getPlaca)),
+                    Integer::valueOf)
+            .campo("fechaRegistro", carros.registrarIndice(new IndiceOrdenado<>(Carro::getFechaRegistro, Carro::getPlaca)),
+                    LocalDateTime::parse);
+
+    // Resultados de los listados filtrados, válidos mientras la tabla no cambie de versión
+    private CacheResultados<Carro> cacheConsultas;
+
+    // Bytes JSON de cada registro para armar los listados sin volver a serializar
+    private CacheFragmentos<Carro> fragmentosJson;
+
+    private final ReentrantLock bloqueoCheckpoint = new ReentrantLock();
     private final ObjectMapper objectMapper;
-    private final String JSON_FILE_PATH = "carros.json";
+    private final ObjectMapper journalMapper;
+    private JournalAppendOnly<EntradaJournalCarro> journal;
+
+    @Value("${carros.archivo:carros.json}")
+    private String jsonFilePath;
+
+    @Value("${persistencia.snapshot.formato:JSON}")
+    private FormatoSnapshot formatoSnapshot;
+
+    @Value("${carros.snapshot.binario:carros.snapshot.bin}")
+    private String snapshotBinarioPath;
+
+    @Value("${carros.journal.archivo:carros.journal}")
+    private String journalPath;
+
+    @Value("${carros.journal.fsync:true}")
+    private boolean journalFsync;
+
+    @Value("${carros.journal.max-entradas:10000}")
+    private long journalMaxEntradas;
+
+    @Value("${importacion.max-registros:100000}")
+    private int importacionMaxRegistros;
+
+    @Value("${paginacion.limite-defecto:100}")
+    private int limitePorDefecto;
+
+    @Value("${paginacion.limite-maximo:1000}")
+    private int limiteMaximo;
+
+    @Value("${cache.consultas.max-entradas:256}")
+    private int cacheMaxEntradas;
+
+    @Value("${cache.consultas.max-peso:500000}")
+    private long cacheMaxPeso;
+
+    @Value("${cache.fragmentos.max-bytes:67108864}")
+    private long fragmentosMaxBytes;
     
     @Autowired
     private MantenimientoService mantenimientoService;
 
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private FeedCambios feed;
+
+    // ObjectMapper de Spring: el mismo con el que se escriben las respuestas HTTP
+    @Autowired
+    private ObjectMapper mapperHttp;
+
     public CarroService() {
         this.objectMapper = new ObjectMapper();
         this.objectMapper.registerModule(new JavaTimeModule());
+        this.journalMapper = objectMapper.copy().addMixIn(Carro.class, CarroPersistenciaMixin.class);
     }
 
     @PostConstruct
     public void init() {
+        cacheConsultas = new CacheResultados<>(cacheMaxEntradas, cacheMaxPeso);
+        ObjectWriter escritorJson = mapperHttp.writerFor(Carro.class);
+        fragmentosJson = carros.registrarIndice(new CacheFragmentos<>(Carro::getPlaca, carros::versionDe, registro -> {
+            try {
+                return escritorJson.writeValueAsBytes(registro);
+            } catch (JsonProcessingException e) {
+                throw new RuntimeException("Error al serializar el carro: " + e.getMessage(), e);
+            }
+        }, fragmentosMaxBytes));
+        journal = new JournalAppendOnly<>(Paths.get(journalPath), journalMapper, EntradaJournalCarro.class, journalFsync);
         loadFromJson();
     }
 
     @PreDestroy
     public void cleanup() {
         saveToJson();
+        try {
+            journal.close();
+        } catch (IOException e) {
+            System.err.println("Error al cerrar el journal de carros: " + e.getMessage());
+        }
     }
 
     @Override
     public Carro save(Carro carro) {
-        // Verificar si ya existe un carro con esa placa
-        Map<String, Object> filtroPlaca = new HashMap<>();
-        filtroPlaca.put("placa", carro.getPlaca());
-        List<Carro> existentes = listar(filtroPlaca);
+        saveSiVersion(carro, version -> true);
+        return carro;
+    }
 
-        if (!existentes.isEmpty()) {
-            // Actualizar existente
-            carros.removeIf(c -> c.getPlaca().equalsIgnoreCase(carro.getPlaca()));
+    @Override
+    public long saveSiVersion(Carro carro, LongPredicate condicion) {
+        long version;
+        // Journal y mutación bajo el mismo lock: el orden del journal es el orden en memoria
+        carros.bloqueoEscritura().lock();
+        try {
+            // La condición se evalúa bajo el lock de la escritura: nadie puede cambiar el carro en medio
+            long actual = carros.versionDe(carro.getPlaca());
+            if (!condicion.test(actual)) {
+                return -1;
+            }
+            registrarEnJournal(EntradaJournalCarro.guardar(carro)); // Persistir el cambio antes de aplicarlo
+            aplicarGuardado(carro);
+            version = carros.versionDe(carro.getPlaca());
+            feed.publicar(FeedCambios.CARRO, actual < 0 ? EventoCambio.CREADO : EventoCambio.ACTUALIZADO,
+                    TablaIndexada.normalizar(carro.getPlaca()), () -> fragmentosJson.fragmento(carro));
+        } finally {
+            carros.bloqueoEscritura().unlock();
         }
-        carros.add(carro);
-        saveToJson(); // Persistir cambios inmediatamente
-        return carro;
+        compactarJournalSiEsNecesario();
+        return version;
     }
     
     @Override
     public boolean deleteByPlaca(String placa) {
-        boolean removed = carros.removeIf(carro -> carro.getPlaca().equalsIgnoreCase(placa));
+        return deleteByPlacaSiVersion(placa, version -> true);
+    }
+
+    @Override
+    public boolean deleteByPlacaSiVersion(String placa, LongPredicate condicion) {
+        boolean removed;
+        carros.bloqueoEscritura().lock();
+        try {
+            if (!carros.contiene(placa) || !condicion.test(carros.versionDe(placa))) {
+                return false;
+            }
+            registrarEnJournal(EntradaJournalCarro.eliminar(placa));
+            removed = aplicarEliminacion(placa);
+            if (removed) {
+                feed.publicar(FeedCambios.CARRO, EventoCambio.ELIMINADO, TablaIndexada.normalizar(placa), null);
+            }
+        } finally {
+            carros.bloqueoEscritura().unlock();
+        }
         if (removed) {
             // Eliminar mantenimientos asociados en cascada
             if (mantenimientoService != null) {
-                List<Mantenimiento> mantenimientos = mantenimientoService.getMantenimientosPorCarro(placa);
-                for (Mantenimiento m : mantenimientos) {
-                    mantenimientoService.deleteById(m.getId());
-                }
-                System.out.println("✅ Eliminados " + mantenimientos.size() + " mantenimientos del carro " + placa);
+                int eliminados = mantenimientoService.deleteByPlacaCarro(placa);
+                System.out.println("✅ Eliminados " + eliminados + " mantenimientos del carro " + placa);
             }
-            saveToJson(); // Persistir cambios
+            compactarJournalSiEsNecesario();
         }
         return removed;
     }
 
+    @Override
+    public Set<String> placasExistentes(Collection<String> placas) {
+        // Todas las búsquedas bajo un solo lock de lectura
+        Set<String> existentes = new HashSet<>();
+        carros.bloqueoLectura().lock();
+        try {
+            for (String placa : placas) {
+                if (placa != null && carros.contiene(placa)) {
+                    existentes.add(TablaIndexada.normalizar(placa));
+                }
+            }
+        } finally {
+            carros.bloqueoLectura().unlock();
+        }
+        return existentes;
+    }
+
+    @Override
+    public ResultadoImportacion importar(InputStream entrada) {
+        LectorLote<Carro> lote = LectorLote.leer(entrada, objectMapper, Carro.class, validator, importacionMaxRegistros);
+        ResultadoImportacion resultado = new ResultadoImportacion(lote.tamano());
+
+        List<EntradaJournalCarro> entradas = new ArrayList<>();
+        for (int i = 0; i < lote.tamano(); i++) {
+            if (lote.errores(i) == null) {
+                entradas.add(EntradaJournalCarro.guardar(lote.registro(i)));
+            }
+        }
+
+        // Un solo anexado al journal para todo el lote y los upserts por el índice de placas,
+        // bajo el mismo lock: el orden del journal sigue siendo el orden en memoria
+        carros.bloqueoEscritura().lock();
+        try {
+            try {
+                journal.appendAll(entradas);
+            } catch (IOException e) {
+                throw new RuntimeException("Error al escribir el lote en el journal de carros: " + e.getMessage(), e);
+            }
+            for (int i = 0; i < lote.tamano(); i++) {
+                Carro carro = lote.registro(i);
+                Map<String, String> errores = lote.errores(i);
+                if (errores != null) {
+                    resultado.agregar(new ResultadoImportacion.ResultadoRegistro(i,
+                            carro == null ? null : carro.getPlaca(), ResultadoImportacion.RECHAZADO, errores));
+                    continue;
+                }
+                boolean existia = carros.contiene(carro.getPlaca());
+                aplicarGuardado(carro);
+                feed.publicar(FeedCambios.CARRO, existia ? EventoCambio.ACTUALIZADO : EventoCambio.CREADO,
+                        TablaIndexada.normalizar(carro.getPlaca()), () -> fragmentosJson.fragmento(carro));
+                resultado.agregar(new ResultadoImportacion.ResultadoRegistro(i, carro.getPlaca(),
+                        existia ? ResultadoImportacion.ACTUALIZADO : ResultadoImportacion.CREADO, null));
+            }
+        } finally {
+            carros.bloqueoEscritura().unlock();
+        }
+        compactarJournalSiEsNecesario();
+        System.out.println("✅ Importación de carros: " + resultado.getCreados() + " creados, "
+                + resultado.getActualizados() + " actualizados, " + resultado.getRechazados() + " rechazados");
+        return resultado;
+    }
+
+    private void aplicarGuardado(Carro carro) {
+        // Si ya existe un carro con esa placa se reemplaza en su misma fila
+        carros.guardar(carro);
+    }
+
+    private boolean aplicarEliminacion(String placa) {
+        return carros.eliminar(placa) != null;
+    }
+
+    private void aplicarEntradaJournal(EntradaJournalCarro entrada) {
+        if (EntradaJournalCarro.GUARDAR.equals(entrada.getOperacion()) && entrada.getCarro() != null) {
+            aplicarGuardado(entrada.getCarro());
+        } else if (EntradaJournalCarro.ELIMINAR.equals(entrada.getOperacion()) && entrada.getPlaca() != null) {
+            aplicarEliminacion(entrada.getPlaca());
+        }
+    }
+
+    private void registrarEnJournal(EntradaJournalCarro entrada) {
+        try {
+            journal.append(entrada);
+        } catch (IOException e) {
+            throw new RuntimeException("Error al escribir en el journal de carros: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reescribe el snapshot y vacía el journal cuando este supera el máximo de entradas configurado,
+     * para acotar el tiempo de reproducción al arrancar.
+     */
+    private void compactarJournalSiEsNecesario() {
+        if (journalMaxEntradas <= 0 || journal.getEntradas() < journalMaxEntradas) {
+            return;
+        }
+        // Si otro hilo ya está compactando no hace falta un segundo checkpoint
+        if (bloqueoCheckpoint.tryLock()) {
+            try {
+                if (journal.getEntradas() >= journalMaxEntradas) {
+                    saveToJson();
+                }
+            } finally {
+                bloqueoCheckpoint.unlock();
+            }
+        }
+    }
+
     /**
      * MÉTODO UNIFICADO - Único método de consulta que maneja todos los casos:
      * - Sin filtros: retorna todos los carros
      * - Con placa: retorna un carro específico (como lista de 1 elemento)
      * - Con otros filtros: retorna carros filtrados
+     *
+     * Los filtros se compilan una vez (ConsultaCarro); un valor inválido lanza IllegalArgumentException.
+     * Los resultados filtrados se cachean por la forma canónica de la consulta hasta la siguiente mutación.
      */
     @Override
     public List<Carro> listar(Map<String, Object> filtros) {
-        if (filtros == null || filtros.isEmpty()) {
-            return new ArrayList<>(carros);
+        ConsultaCarro consulta = ConsultaCarro.compilar(filtros);
+        if (consulta.esVacia()) {
+            // Versión inmutable actual del inventario: O(1), sin lock y sin copiar
+            return carros.filas();
         }
 
-        return carros.stream()
-                .filter(carro -> aplicarFiltros(carro, filtros))
-                .collect(Collectors.toList());
-    }
-    
-    private boolean aplicarFiltros(Carro carro, Map<String, Object> filtros) {
-        for (Map.Entry<String, Object> filtro : filtros.entrySet()) {
-            String campo = filtro.getKey().toLowerCase();
-            Object valor = filtro.getValue();
+        // Con placa: búsqueda puntual en el índice y el resto de filtros sobre ese único carro
+        if (consulta.getPlaca() != null) {
+            Carro carro = carros.buscar(consulta.getPlaca());
+            List<Carro> resultado = new ArrayList<>(1);
+            if (carro != null && consulta.test(carro)) {
+                resultado.add(carro);
+            }
+            return resultado;
+        }
 
-            if (valor == null) continue;
+        // La versión se lee antes de consultar: si hay una escritura en medio, la entrada ya nace vieja
+        List<String> clave = CacheResultados.clave("listar", consulta.getClave());
+        long version = carros.version();
+        List<Carro> cacheado = cacheConsultas.obtener(clave, version);
+        if (cacheado != null) {
+            return cacheado;
+        }
+        return cacheConsultas.guardar(clave, version, consultar(consulta));
+    }
 
-            switch (campo) {
-                case "placa":
-                    if (!carro.getPlaca().equalsIgnoreCase(valor.toString())) {
-                        return false;
-                    }
-                    break;
-                case "marca":
-                    if (!carro.getMarca().toLowerCase().contains(valor.toString().toLowerCase())) {
-                        return false;
-                    }
-                    break;
-                case "anio":
-                    if (carro.getAnio() != (Integer) valor) {
-                        return false;
-                    }
-                    break;
-                case "precio_min":
-                    if (carro.getPrecio() < (Double) valor) {
-                        return false;
-                    }
-                    break;
-                case "precio_max":
-                    if (carro.getPrecio() > (Double) valor) {
-                        return false;
-                    }
-                    break;
-                case "precio":
-                    if (carro.getPrecio() != (Double) valor) {
-                        return false;
-                    }
-                    break;
-                case "transmision":
-                case "tipotransmision":
-                    if (!carro.getTipoTransmision().equalsIgnoreCase(valor.toString())) {
-                        return false;
-                    }
-                    break;
-                case "aire_acondicionado":
-                case "tieneaireacondicicionado":
-                    if (carro.isTieneAireAcondicionado() != (Boolean) valor) {
-                        return false;
-                    }
-                    break;
-                case "numeropuertas":
-                case "numero_puertas":
-                    if (carro.getNumeroPuertas() != (Integer) valor) {
-                        return false;
-                    }
-                    break;
-                case "color":
-                    if (!carro.getColor().toLowerCase().contains(valor.toString().toLowerCase())) {
-                        return false;
-                    }
-                    break;
-                case "modelo":
-                    if (!carro.getModelo().toLowerCase().contains(valor.toString().toLowerCase())) {
-                        return false;
-                    }
-                    break;
-                case "estado":
-                    if (!carro.getEstado().toLowerCase().contains(valor.toString().toLowerCase())) {
-                        return false;
-                    }
-                    break;
-                case "combustible":
-                    if (!carro.getCombustible().toLowerCase().contains(valor.toString().toLowerCase())) {
-                        return false;
-                    }
-                    break;
-                case "fechadesde":
-                    try {
-                        LocalDateTime fechaDesde = LocalDateTime.parse(valor.toString(), DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
-                        LocalDateTime fechaRegistro = carro.getFechaRegistro(); // Ya es LocalDateTime, no necesita parsing
-                        if (fechaRegistro.isBefore(fechaDesde)) {
-                            return false;
-                        }
-                    } catch (Exception e) {
-                        return false;
+    private List<Carro> consultar(ConsultaCarro consulta) {
+        List<Carro> resultado = new ArrayList<>();
+        carros.bloqueoLectura().lock();
+        try {
+            BitSet candidatos = candidatosPorIndice(consulta);
+            if (candidatos != null) {
+                // Los índices ya resolvieron sus filtros: solo se verifican los residuales
+                List<Carro> filas = carros.filas();
+                for (int fila = candidatos.nextSetBit(0); fila >= 0; fila = candidatos.nextSetBit(fila + 1)) {
+                    Carro carro = filas.get(fila);
+                    if (consulta.testResiduales(carro)) {
+                        resultado.add(carro);
                     }
-                    break;
-                case "fechahasta":
-                    try {
-                        LocalDateTime fechaHasta = LocalDateTime.parse(valor.toString(), DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
-                        LocalDateTime fechaRegistro = carro.getFechaRegistro(); // Ya es LocalDateTime, no necesita parsing
-                        if (fechaRegistro.isAfter(fechaHasta)) {
-                            return false;
-                        }
-                    } catch (Exception e) {
-                        return false;
+                }
+                return resultado;
+            }
+        } finally {
+            carros.bloqueoLectura().unlock();
+        }
+
+        // Sin índices aplicables: recorrido de la versión actual, fuera del lock
+        for (Carro carro : carros.filas()) {
+            if (consulta.test(carro)) {
+                resultado.add(carro);
+            }
+        }
+        return resultado;
+    }
+
+    @Override
+    public Pagina<Carro> listarPagina(Map<String, Object> filtros, String sort, String cursor, Integer limite) {
+        ConsultaCarro consulta = ConsultaCarro.compilar(filtros);
+        Paginador.Solicitud<Carro, ?> solicitud =
+                paginador.solicitud(sort, cursor, limite, limitePorDefecto, limiteMaximo);
+
+        if (consulta.getPlaca() != null) {
+            return solicitud.paginar(new ArrayList<>(listar(filtros)));
+        }
+
+        carros.bloqueoLectura().lock();
+        try {
+            BitSet candidatos = candidatosPorIndice(consulta);
+            // Pocos candidatos: se ordenan solo ellos. Si no, se recorre el índice ordenado
+            // desde el cursor y se corta al completar la página
+            if (candidatos != null && candidatos.cardinality() <= carros.tamano() / 4) {
+                List<Carro> filas = carros.filas();
+                List<Carro> resultado = new ArrayList<>(candidatos.cardinality());
+                for (int fila = candidatos.nextSetBit(0); fila >= 0; fila = candidatos.nextSetBit(fila + 1)) {
+                    Carro carro = filas.get(fila);
+                    if (consulta.testResiduales(carro)) {
+                        resultado.add(carro);
                     }
-                    break;
+                }
+                return solicitud.paginar(resultado);
             }
+            return solicitud.recorrer(consulta);
+        } finally {
+            carros.bloqueoLectura().unlock();
         }
-        return true;
+    }
+
+    @Override
+    public Stream<Carro> exportar(Map<String, Object> filtros) {
+        ConsultaCarro consulta = ConsultaCarro.compilar(filtros);
+        if (consulta.getPlaca() != null) {
+            return listar(filtros).stream();
+        }
+        // Versión inmutable y candidatos tomados bajo el mismo lock: las filas del BitSet
+        // corresponden exactamente a esa versión, que luego se recorre sin lock
+        List<Carro> version;
+        BitSet candidatos;
+        carros.bloqueoLectura().lock();
+        try {
+            version = carros.filas();
+            candidatos = consulta.esVacia() ? null : candidatosPorIndice(consulta);
+        } finally {
+            carros.bloqueoLectura().unlock();
+        }
+        if (candidatos == null) {
+            return version.stream().filter(consulta);
+        }
+        return candidatos.stream().mapToObj(version::get).filter(consulta::testResiduales);
+    }
+
+    /**
+     * Intersección (AND) de las filas que devuelven los índices de la consulta, o null si
+     * ningún filtro de la consulta tiene índice (recorrido completo).
+     */
+    private BitSet candidatosPorIndice(ConsultaCarro consulta) {
+        BitSet candidatos = null;
+        if (consulta.getMarca() != null) {
+            candidatos = intersectar(candidatos, porMarca.filasQueContienen(consulta.getMarca()));
+        }
+        if (consulta.getModelo() != null) {
+            candidatos = intersectar(candidatos, porModelo.filasQueContienen(consulta.getModelo()));
+        }
+        if (consulta.getColor() != null) {
+            candidatos = intersectar(candidatos, porColor.filasQueContienen(consulta.getColor()));
+        }
+        if (consulta.getEstado() != null) {
+            candidatos = intersectar(candidatos, porEstado.filasDonde(consulta.getEstado()));
+        }
+        if (consulta.getCombustible() != null) {
+            candidatos = intersectar(candidatos, porCombustible.filasDonde(consulta.getCombustible()));
+        }
+        if (consulta.getTransmision() != null) {
+            candidatos = intersectar(candidatos, porTransmision.filasDonde(consulta.getTransmision()));
+        }
+        if (consulta.getNumeroPuertas() != null) {
+            candidatos = intersectar(candidatos, porNumeroPuertas.filasDonde(consulta.getNumeroPuertas()));
+        }
+        if (consulta.getAireAcondicionado() != null) {
+            candidatos = intersectar(candidatos, porAireAcondicionado.filasDonde(consulta.getAireAcondicionado()));
+        }
+        if (consulta.tieneRangoPrecio()) {
+            candidatos = intersectar(candidatos, porPrecio.filasEntre(consulta.getPrecioMin(), consulta.getPrecioMax()));
+        }
+        if (consulta.tieneRangoAnio()) {
+            candidatos = intersectar(candidatos, porAnio.filasEntre(consulta.getAnioMin(), consulta.getAnioMax()));
+        }
+        return candidatos;
+    }
+
+    private static BitSet intersectar(BitSet acumulado, BitSet filas) {
+        if (acumulado == null) {
+            return filas;
+        }
+        acumulado.and(filas);
+        return acumulado;
+    }
+
+    @Override
+    public Optional<Carro> findByPlaca(String placa) {
+        if (placa == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(carros.buscar(placa));
     }
 
     @Override
     public long count() {
-        return carros.size();
+        return estadisticasPrecio.cantidad();
     }
 
     @Override
     public double getPrecioPromedio() {
-        return carros.stream()
-                .mapToDouble(Carro::getPrecio)
-                .average()
-                .orElse(0.0);
+        return estadisticasPrecio.promedio();
+    }
+
+    @Override
+    public long getVersion() {
+        return carros.version();
+    }
+
+    @Override
+    public long getVersion(String placa) {
+        return carros.versionDe(placa);
+    }
+
+    @Override
+    public Map<String, Object> getMetricasCache() {
+        Map<String, Object> metricas = cacheConsultas.metricas();
+        metricas.put("fragmentosJson", fragmentosJson.metricas());
+        return metricas;
+    }
+
+    @Override
+    public byte[] serializarJson(List<Carro> registros) {
+        return fragmentosJson.arreglo(registros);
     }
 
+    /**
+     * Checkpoint: escribe el snapshot completo (archivo temporal + renombrado atómico) y vacía el journal.
+     * Si el proceso cae entre ambos pasos, reproducir el journal sobre el nuevo snapshot es idempotente.
+     * Se hace con el lock de lectura: las lecturas siguen, pero ninguna escritura puede anexar al
+     * journal entre el snapshot y el truncado (se perdería).
+     */
     @Override
     public void saveToJson() {
+        // Un solo checkpoint a la vez: comparten el archivo temporal
+        bloqueoCheckpoint.lock();
+        carros.bloqueoLectura().lock();
         try {
-            objectMapper.writeValue(new File(JSON_FILE_PATH), carros);
+            if (formatoSnapshot == FormatoSnapshot.BINARIO) {
+                SnapshotBinario.escribir(Paths.get(snapshotBinarioPath), carros.filas(), new CodecCarro());
+            } else {
+                Path destino = Paths.get(jsonFilePath);
+                Path temporal = Paths.get(jsonFilePath + ".tmp");
+                objectMapper.writeValue(temporal.toFile(), carros.filas());
+                try {
+                    Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            journal.truncate();
         } catch (IOException e) {
             throw new RuntimeException("Error al guardar carros en JSON: " + e.getMessage(), e);
+        } finally {
+            carros.bloqueoLectura().unlock();
+            bloqueoCheckpoint.unlock();
         }
     }
 
     @Override
     public void loadFromJson() {
-        File file = new File(JSON_FILE_PATH);
-        if (file.exists()) {
+        carros.bloqueoEscritura().lock();
+        try {
+            cargarSnapshotYJournal();
+        } finally {
+            carros.bloqueoEscritura().unlock();
+        }
+    }
+
+    private void cargarSnapshotYJournal() {
+        File file = new File(jsonFilePath);
+        Path binario = Paths.get(snapshotBinarioPath);
+        carros.limpiar();
+        if (formatoSnapshot == FormatoSnapshot.BINARIO && Files.exists(binario)) {
+            try {
+                long inicio = System.nanoTime();
+                // Carga masiva: vector de filas e índices armados de una vez
+                carros.cargar(SnapshotBinario.leer(binario, new CodecCarro()));
+                System.out.println("✅ Carros cargados desde snapshot binario: " + carros.tamano() + " registros en "
+                        + (System.nanoTime() - inicio) / 1_000_000 + " ms");
+            } catch (IOException e) {
+                System.err.println("Error al cargar carros desde snapshot binario: " + e.getMessage());
+                inicializarDatosPorDefecto();
+            }
+        } else if (file.exists()) {
             try {
-                List<Carro> carrosCargados = objectMapper.readValue(file, new TypeReference<>() {});
-                carros.clear();
-                carros.addAll(carrosCargados);
+                // Lectura en streaming: los bloques decodificados se agregan directamente a la lista
+                new CargadorJsonStreaming<>(objectMapper, Carro.class).cargar(file.toPath(), bloque -> bloque.forEach(carros::guardar));
+                if (formatoSnapshot == FormatoSnapshot.BINARIO) {
+                    // Conversión inicial: a partir de ahora el snapshot se lee en formato binario
+                    SnapshotBinario.escribir(binario, carros.filas(), new CodecCarro());
+                    System.out.println("✅ carros.json convertido a snapshot binario: " + binario);
+                }
             } catch (IOException e) {
+                carros.limpiar();
                 System.err.println("Error al cargar carros desde JSON: " + e.getMessage());
                 // Inicializar con datos por defecto si hay error
                 inicializarDatosPorDefecto();
@@ -242,6 +641,18 @@ public class CarroService implements ICarroService {
         } else {
             inicializarDatosPorDefecto();
         }
+
+        // Reproducir las operaciones registradas después del último snapshot
+        try {
+            long aplicadas = journal.replay(this::aplicarEntradaJournal);
+            if (aplicadas > 0) {
+                System.out.println("✅ Journal de carros reproducido: " + aplicadas + " operaciones");
+            }
+        } catch (IOException e) {
+            // Arrancar sin las operaciones perdidas divergiría del inventario real, y el siguiente
+            // checkpoint borraría el journal: se detiene el arranque
+            throw new RuntimeException("Error al reproducir el journal de carros: " + e.getMessage(), e);
+        }
     }
 
     private void inicializarDatosPorDefecto() {
@@ -0,0 +1,305 @@
+package cal.example.POCEmpleado.service;
+
+import cal.example.POCEmpleado.model.Carro;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Consulta de carros compilada a partir del mapa de filtros.
+ *
+ * El mapa se interpreta una sola vez: claves normalizadas, valores convertidos y validados
+ * (un valor inválido lanza IllegalArgumentException) y cada filtro queda como un predicado
+ * tipado. Evaluar la consulta sobre un carro no crea objetos.
+ *
+ * Los filtros que un índice del servicio resuelve por completo (rangos numéricos y campos
+ * de baja cardinalidad) se separan del resto: cuando las filas candidatas salen de los
+ * índices basta con verificar las condiciones residuales.
+ */
+public final class ConsultaCarro implements Predicate<Carro> {
+
+    private static final ConsultaCarro VACIA = new ConsultaCarro();
+
+    @SuppressWarnings("unchecked")
+    private Predicate<Carro>[] condiciones = new Predicate[0];
+    @SuppressWarnings("unchecked")
+    private Predicate<Carro>[] condicionesIndexadas = new Predicate[0];
+    // Condiciones en forma canónica para la clave de la caché de resultados
+    private final List<String> clave = new ArrayList<>();
+    private String placa;
+
+    // Límites para los índices de rango (null = sin límite)
+    private Double precioMin;
+    private Double precioMax;
+    private Double anioMin;
+    private Double anioMax;
+
+    // Texto buscado para los índices de trigramas (null = sin filtro)
+    private String marca;
+    private String modelo;
+    private String color;
+
+    // Criterios para los índices de bitmap (null = sin filtro)
+    private Predicate<String> estado;
+    private Predicate<String> combustible;
+    private Predicate<String> transmision;
+    private Predicate<Integer> numeroPuertas;
+    private Predicate<Boolean> aireAcondicionado;
+
+    private ConsultaCarro() {
+    }
+
+    public static ConsultaCarro compilar(Map<String, Object> filtros) {
+        if (filtros == null || filtros.isEmpty()) {
+            return VACIA;
+        }
+
+        List<Predicate<Carro>> condiciones = new ArrayList<>();
+        List<Predicate<Carro>> indexadas = new ArrayList<>();
+        ConsultaCarro consulta = new ConsultaCarro();
+
+        for (Map.Entry<String, Object> filtro : filtros.entrySet()) {
+            Object valor = filtro.getValue();
+            if (valor == null || valor.toString().trim().isEmpty()) continue;
+
+            switch (filtro.getKey().toLowerCase()) {
+                case "placa": {
+                    String buscada = ValoresFiltro.texto(valor);
+                    consulta.parte("placa", buscada);
+                    consulta.placa = buscada;
+                    condiciones.add(c -> buscada.equalsIgnoreCase(c.getPlaca()));
+                    break;
+                }
+                case "marca": {
+                    String buscado = ValoresFiltro.texto(valor);
+                    consulta.parte("marca", buscado);
+                    consulta.marca = buscado;
+                    indexadas.add(c -> ValoresFiltro.contiene(c.getMarca(), buscado));
+                    break;
+                }
+                case "modelo": {
+                    String buscado = ValoresFiltro.texto(valor);
+                    consulta.parte("modelo", buscado);
+                    consulta.modelo = buscado;
+                    indexadas.add(c -> ValoresFiltro.contiene(c.getModelo(), buscado));
+                    break;
+                }
+                case "color": {
+                    String buscado = ValoresFiltro.texto(valor);
+                    consulta.parte("color", buscado);
+                    consulta.color = buscado;
+                    indexadas.add(c -> ValoresFiltro.contiene(c.getColor(), buscado));
+                    break;
+                }
+                case "estado": {
+                    String buscado = ValoresFiltro.texto(valor);
+                    consulta.parte("estado", buscado);
+                    consulta.estado = y(consulta.estado, v -> ValoresFiltro.contiene(v, buscado));
+                    indexadas.add(c -> ValoresFiltro.contiene(c.getEstado(), buscado));
+                    break;
+                }
+                case "combustible": {
+                    String buscado = ValoresFiltro.texto(valor);
+                    consulta.parte("combustible", buscado);
+                    consulta.combustible = y(consulta.combustible, v -> ValoresFiltro.contiene(v, buscado));
+                    indexadas.add(c -> ValoresFiltro.contiene(c.getCombustible(), buscado));
+                    break;
+                }
+                case "anio": {
+                    int anio = ValoresFiltro.entero(valor, "año");
+                    consulta.parte("anio", anio);
+                    consulta.anioMin = max(consulta.anioMin, anio);
+                    consulta.anioMax = min(consulta.anioMax, anio);
+                    indexadas.add(c -> c.getAnio() == anio);
+                    break;
+                }
+                case "precio": {
+                    double precio = ValoresFiltro.decimal(valor, "precio");
+                    consulta.parte("precio", precio);
+                    consulta.precioMin = max(consulta.precioMin, precio);
+                    consulta.precioMax = min(consulta.precioMax, precio);
+                    indexadas.add(c -> c.getPrecio() == precio);
+                    break;
+                }
+                case "precio_min": {
+                    double minimo = ValoresFiltro.decimal(valor, "precio");
+                    consulta.parte("precio_min", minimo);
+                    consulta.precioMin = max(consulta.precioMin, minimo);
+                    indexadas.add(c -> c.getPrecio() >= minimo);
+                    break;
+                }
+                case "precio_max": {
+                    double maximo = ValoresFiltro.decimal(valor, "precio");
+                    consulta.parte("precio_max", maximo);
+                    consulta.precioMax = min(consulta.precioMax, maximo);
+                    indexadas.add(c -> c.getPrecio() <= maximo);
+                    break;
+                }
+                case "transmision":
+                case "tipotransmision": {
+                    String buscada = ValoresFiltro.texto(valor);
+                    consulta.parte("transmision", buscada);
+                    consulta.transmision = y(consulta.transmision, buscada::equalsIgnoreCase);
+                    indexadas.add(c -> buscada.equalsIgnoreCase(c.getTipoTransmision()));
+                    break;
+                }
+                case "aire_acondicionado":
+                case "tieneaireacondicionado":
+                case "tieneaireacondicicionado": {
+                    boolean aire = ValoresFiltro.booleano(valor, "aire acondicionado");
+                    consulta.parte("aire_acondicionado", aire);
+                    consulta.aireAcondicionado = y(consulta.aireAcondicionado, v -> v == aire);
+                    indexadas.add(c -> c.isTieneAireAcondicionado() == aire);
+                    break;
+                }
+                case "numeropuertas":
+                case "numero_puertas": {
+                    int puertas = ValoresFiltro.entero(valor, "número de puertas");
+                    consulta.parte("numero_puertas", puertas);
+                    consulta.numeroPuertas = y(consulta.numeroPuertas, v -> v == puertas);
+                    indexadas.add(c -> c.getNumeroPuertas() == puertas);
+                    break;
+                }
+                case "fechadesde": {
+                    LocalDateTime desde = ValoresFiltro.fecha(valor, false);
+                    consulta.parte("fechaDesde", desde);
+                    condiciones.add(c -> c.getFechaRegistro() != null && !c.getFechaRegistro().isBefore(desde));
+                    break;
+                }
+                case "fechahasta": {
+                    LocalDateTime hasta = ValoresFiltro.fecha(valor, true);
+                    consulta.parte("fechaHasta", hasta);
+                    condiciones.add(c -> c.getFechaRegistro() != null && !c.getFechaRegistro().isAfter(hasta));
+                    break;
+                }
+                default:
+                    // Parámetros desconocidos se ignoran, como antes
+                    break;
+            }
+        }
+        consulta.condiciones = condiciones.toArray(consulta.condiciones);
+        Collections.sort(consulta.clave);
+        consulta.condicionesIndexadas = indexadas.toArray(consulta.condicionesIndexadas);
+        return consulta;
+    }
+
+    @Override
+    public boolean test(Carro carro) {
+        return testResiduales(carro) && cumple(condicionesIndexadas, carro);
+    }
+
+    /**
+     * Evalúa solo las condiciones que ningún índice resuelve. Válido únicamente para
+     * filas que ya salieron de la intersección de todos los índices de la consulta.
+     */
+    public boolean testResiduales(Carro carro) {
+        return cumple(condiciones, carro);
+    }
+
+    private static boolean cumple(Predicate<Carro>[] condiciones, Carro carro) {
+        for (Predicate<Carro> condicion : condiciones) {
+            if (!condicion.test(carro)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Condiciones de la consulta como "campo=valor", con el nombre canónico del filtro (sin
+     * importar el alias ni las mayúsculas usadas) y el valor ya convertido, ordenadas.
+     * Dos mapas de filtros que piden lo mismo (otro orden, otro alias, "50000" y "50000.00",
+     * "2024-01-01" y "2024-01-01 00:00:00") dan la misma clave; los parámetros ignorados no cuentan.
+     */
+    public List<String> getClave() {
+        return Collections.unmodifiableList(clave);
+    }
+
+    public boolean esVacia() {
+        return condiciones.length == 0 && condicionesIndexadas.length == 0;
+    }
+
+    /**
+     * Placa exacta pedida, si la hay: permite resolver la consulta con el índice por placa.
+     */
+    public String getPlaca() {
+        return placa;
+    }
+
+    public boolean tieneRangoPrecio() {
+        return precioMin != null || precioMax != null;
+    }
+
+    public Double getPrecioMin() {
+        return precioMin;
+    }
+
+    public Double getPrecioMax() {
+        return precioMax;
+    }
+
+    public boolean tieneRangoAnio() {
+        return anioMin != null || anioMax != null;
+    }
+
+    public Double getAnioMin() {
+        return anioMin;
+    }
+
+    public Double getAnioMax() {
+        return anioMax;
+    }
+
+    public String getMarca() {
+        return marca;
+    }
+
+    public String getModelo() {
+        return modelo;
+    }
+
+    public String getColor() {
+        return color;
+    }
+
+    public Predicate<String> getEstado() {
+        return estado;
+    }
+
+    public Predicate<String> getCombustible() {
+        return combustible;
+    }
+
+    public Predicate<String> getTransmision() {
+        return transmision;
+    }
+
+    public Predicate<Integer> getNumeroPuertas() {
+        return numeroPuertas;
+    }
+
+    public Predicate<Boolean> getAireAcondicionado() {
+        return aireAcondicionado;
+    }
+
+    // Un mismo campo puede llegar por varios alias (transmision / tipotransmision)
+    private static <V> Predicate<V> y(Predicate<V> actual, Predicate<V> nuevo) {
+        return actual == null ? nuevo : actual.and(nuevo);
+    }
+
+    private void parte(String campo, Object valor) {
+        clave.add(campo + "=" + valor);
+    }
+
+    private static Double max(Double actual, double nuevo) {
+        return actual == null ? nuevo : Math.max(actual, nuevo);
+    }
+
+    private static Double min(Double actual, double nuevo) {
+        return actual == null ? nuevo : Math.min(actual, nuevo);
+    }
+}
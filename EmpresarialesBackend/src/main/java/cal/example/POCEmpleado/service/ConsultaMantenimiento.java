@@ -0,0 +1,239 @@
+package cal.example.POCEmpleado.service;
+
+import cal.example.POCEmpleado.model.Mantenimiento;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Consulta de mantenimientos compilada a partir del mapa de filtros.
+ *
+ * El mapa se interpreta una sola vez: claves normalizadas, valores convertidos y validados
+ * (un valor inválido lanza IllegalArgumentException) y cada filtro queda como un predicado
+ * tipado. Evaluar la consulta sobre un registro no crea objetos.
+ */
+public final class ConsultaMantenimiento implements Predicate<Mantenimiento> {
+
+    private static final ConsultaMantenimiento VACIA = new ConsultaMantenimiento();
+
+    @SuppressWarnings("unchecked")
+    private Predicate<Mantenimiento>[] condiciones = new Predicate[0];
+    // Condiciones en forma canónica para la clave de la caché de resultados
+    private final List<String> clave = new ArrayList<>();
+    private String id;
+    private String placaCarro;
+    private String tipoMantenimiento;
+
+    // Límites para los índices de rango (null = sin límite)
+    private Double kilometrajeMin;
+    private Double kilometrajeMax;
+    private Double costoMin;
+    private Double costoMax;
+
+    private ConsultaMantenimiento() {
+    }
+
+    public static ConsultaMantenimiento compilar(Map<String, Object> filtros) {
+        if (filtros == null || filtros.isEmpty()) {
+            return VACIA;
+        }
+
+        List<Predicate<Mantenimiento>> condiciones = new ArrayList<>();
+        ConsultaMantenimiento consulta = new ConsultaMantenimiento();
+
+        for (Map.Entry<String, Object> filtro : filtros.entrySet()) {
+            Object valor = filtro.getValue();
+            if (valor == null || valor.toString().trim().isEmpty()) continue;
+
+            switch (filtro.getKey().toLowerCase()) {
+                case "id": {
+                    String buscado = ValoresFiltro.texto(valor);
+                    consulta.parte("id", buscado);
+                    consulta.id = buscado;
+                    condiciones.add(m -> buscado.equalsIgnoreCase(m.getId()));
+                    break;
+                }
+                case "placacarro":
+                case "placa_carro":
+                case "placa": {
+                    String buscada = ValoresFiltro.texto(valor);
+                    consulta.parte("placaCarro", buscada);
+                    consulta.placaCarro = buscada;
+                    condiciones.add(m -> buscada.equalsIgnoreCase(m.getPlacaCarro()));
+                    break;
+                }
+                case "tipomantenimiento":
+                case "tipo_mantenimiento":
+                case "tipo": {
+                    String buscado = ValoresFiltro.texto(valor);
+                    consulta.parte("tipoMantenimiento", buscado);
+                    consulta.tipoMantenimiento = buscado;
+                    condiciones.add(m -> ValoresFiltro.contiene(m.getTipoMantenimiento(), buscado));
+                    break;
+                }
+                case "kilometraje": {
+                    int kilometraje = ValoresFiltro.entero(valor, "kilometraje");
+                    consulta.parte("kilometraje", kilometraje);
+                    consulta.kilometrajeMin = max(consulta.kilometrajeMin, kilometraje);
+                    consulta.kilometrajeMax = min(consulta.kilometrajeMax, kilometraje);
+                    condiciones.add(m -> m.getKilometraje() == kilometraje);
+                    break;
+                }
+                case "kilometraje_min": {
+                    int minimo = ValoresFiltro.entero(valor, "kilometraje");
+                    consulta.parte("kilometraje_min", minimo);
+                    consulta.kilometrajeMin = max(consulta.kilometrajeMin, minimo);
+                    condiciones.add(m -> m.getKilometraje() >= minimo);
+                    break;
+                }
+                case "kilometraje_max": {
+                    int maximo = ValoresFiltro.entero(valor, "kilometraje");
+                    consulta.parte("kilometraje_max", maximo);
+                    consulta.kilometrajeMax = min(consulta.kilometrajeMax, maximo);
+                    condiciones.add(m -> m.getKilometraje() <= maximo);
+                    break;
+                }
+                case "costo": {
+                    double costo = ValoresFiltro.decimal(valor, "costo");
+                    consulta.parte("costo", costo);
+                    consulta.costoMin = max(consulta.costoMin, costo);
+                    consulta.costoMax = min(consulta.costoMax, costo);
+                    condiciones.add(m -> m.getCosto() == costo);
+                    break;
+                }
+                case "costo_min": {
+                    double minimo = ValoresFiltro.decimal(valor, "costo");
+                    consulta.parte("costo_min", minimo);
+                    consulta.costoMin = max(consulta.costoMin, minimo);
+                    condiciones.add(m -> m.getCosto() >= minimo);
+                    break;
+                }
+                case "costo_max": {
+                    double maximo = ValoresFiltro.decimal(valor, "costo");
+                    consulta.parte("costo_max", maximo);
+                    consulta.costoMax = min(consulta.costoMax, maximo);
+                    condiciones.add(m -> m.getCosto() <= maximo);
+                    break;
+                }
+                case "completado": {
+                    boolean completado = ValoresFiltro.booleano(valor, "completado");
+                    consulta.parte("completado", completado);
+                    condiciones.add(m -> m.isCompletado() == completado);
+                    break;
+                }
+                case "urgente": {
+                    // Solo urgente=true restringe el resultado
+                    if (ValoresFiltro.booleano(valor, "urgente")) {
+                        consulta.parte("urgente", true);
+                        // esUrgente lo mantiene al día el barrido de MantenimientoService
+                        condiciones.add(m -> Boolean.TRUE.equals(m.getEsUrgente()));
+                    }
+                    break;
+                }
+                case "fecha_desde": {
+                    LocalDateTime desde = ValoresFiltro.fecha(valor, false);
+                    consulta.parte("fecha_desde", desde);
+                    condiciones.add(m -> m.getFechaMantenimiento() != null && !m.getFechaMantenimiento().isBefore(desde));
+                    break;
+                }
+                case "fecha_hasta": {
+                    LocalDateTime hasta = ValoresFiltro.fecha(valor, true);
+                    consulta.parte("fecha_hasta", hasta);
+                    condiciones.add(m -> m.getFechaMantenimiento() != null && !m.getFechaMantenimiento().isAfter(hasta));
+                    break;
+                }
+                default:
+                    // Parámetros desconocidos se ignoran, como antes
+                    break;
+            }
+        }
+        consulta.condiciones = condiciones.toArray(consulta.condiciones);
+        Collections.sort(consulta.clave);
+        return consulta;
+    }
+
+    @Override
+    public boolean test(Mantenimiento mantenimiento) {
+        for (Predicate<Mantenimiento> condicion : condiciones) {
+            if (!condicion.test(mantenimiento)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Condiciones de la consulta como "campo=valor", con el nombre canónico del filtro (sin
+     * importar el alias ni las mayúsculas usadas) y el valor ya convertido, ordenadas.
+     * Dos mapas de filtros que piden lo mismo (otro orden, otro alias, "50000" y "50000.00",
+     * "2024-01-01" y "2024-01-01 00:00:00") dan la misma clave; los parámetros ignorados no cuentan.
+     */
+    public List<String> getClave() {
+        return Collections.unmodifiableList(clave);
+    }
+
+    public boolean esVacia() {
+        return condiciones.length == 0;
+    }
+
+    /**
+     * Id exacto pedido, si lo hay: permite resolver la consulta con el índice por id.
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Placa exacta pedida, si la hay: permite resolver la consulta con el índice por placa.
+     */
+    public String getPlacaCarro() {
+        return placaCarro;
+    }
+
+    /**
+     * Texto buscado en el tipo de mantenimiento, para el índice de trigramas.
+     */
+    public String getTipoMantenimiento() {
+        return tipoMantenimiento;
+    }
+
+    public boolean tieneRangoKilometraje() {
+        return kilometrajeMin != null || kilometrajeMax != null;
+    }
+
+    public Double getKilometrajeMin() {
+        return kilometrajeMin;
+    }
+
+    public Double getKilometrajeMax() {
+        return kilometrajeMax;
+    }
+
+    public boolean tieneRangoCosto() {
+        return costoMin != null || costoMax != null;
+    }
+
+    public Double getCostoMin() {
+        return costoMin;
+    }
+
+    public Double getCostoMax() {
+        return costoMax;
+    }
+
+    private void parte(String campo, Object valor) {
+        clave.add(campo + "=" + valor);
+    }
+
+    private static Double max(Double actual, double nuevo) {
+        return actual == null ? nuevo : Math.max(actual, nuevo);
+    }
+
+    private static Double min(Double actual, double nuevo) {
+        return actual == null ? nuevo : Math.min(actual, nuevo);
+    }
+}
@@ -0,0 +1,217 @@
+package cal.example.POCEmpleado.service;
+
+import cal.example.POCEmpleado.model.EventoCambio;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Supplier;
+
+/**
+ * Feed de cambios de carros y mantenimientos para los suscriptores SSE.
+ *
+ * Los servicios publican cada creación, actualización, eliminación y cambio de estado con el
+ * lock de escritura de su tabla tomado, así que la secuencia sigue el orden de las mutaciones.
+ * Los datos no se serializan al publicar sino al primer envío, desde el hilo que transmite:
+ * las escrituras no pagan el JSON con el lock tomado, y sin suscriptores solo lo pagan los
+ * eventos que se reenvíen del historial. El registro publicado es la instancia guardada, que no
+ * se modifica, así que el evento muestra el estado que anuncia.
+ * Los últimos eventos quedan en un historial circular para reanudar desde Last-Event-ID; si el
+ * cliente pide eventos que ya salieron del historial (o de otra ejecución del servidor) recibe
+ * RESINCRONIZAR y debe volver a pedir los listados.
+ *
+ * Cada suscriptor tiene una cola acotada. Publicar nunca espera: si la cola de un suscriptor
+ * está llena, ese suscriptor se descarta (el cliente puede reconectar con su último id).
+ * Tampoco hay hilos esperando en las colas: cada entrega avisa a la suscripción (alRecibir) y
+ * quien transmite la drena sin bloquear. El número de suscripciones está acotado.
+ */
+@Component
+public class FeedCambios {
+
+    public static final String CARRO = "carro";
+    public static final String MANTENIMIENTO = "mantenimiento";
+
+    // Marca de fin de una suscripción: al sacarla de la cola el Transmisor cierra la conexión
+    private static final EventoCambio FIN = new EventoCambio(null, -1, null, null, null, null, null);
+
+    private static final String ARRANQUE = Long.toString(System.currentTimeMillis(), 36);
+
+    /**
+     * Suscripción de un cliente: la cola de eventos pendientes de enviar.
+     */
+    public final class Suscripcion {
+
+        private final String entidad;
+        private final BlockingQueue<EventoCambio> cola;
+        private volatile boolean activa = true;
+        private volatile boolean descartada;
+        private volatile Runnable aviso = () -> { };
+
+        private Suscripcion(String entidad, int capacidad) {
+            this.entidad = entidad;
+            this.cola = new LinkedBlockingQueue<>(capacidad);
+        }
+
+        // Con el lock del feed tomado. false si la cola está llena
+        private boolean entregar(EventoCambio evento) {
+            if (entidad != null && evento.getEntidad() != null && !entidad.equals(evento.getEntidad())) {
+                return true;
+            }
+            if (!cola.offer(evento)) {
+                return false;
+            }
+            aviso.run();
+            return true;
+        }
+
+        private void terminar() {
+            activa = false;
+            cola.clear();
+            cola.offer(FIN);
+            aviso.run();
+        }
+
+        /**
+         * Acción que se ejecuta cada vez que llega un evento o la suscripción termina. Se llama con
+         * el lock del feed tomado: solo debe programar el envío, no hacerlo.
+         */
+        public void alRecibir(Runnable aviso) {
+            this.aviso = aviso;
+        }
+
+        /**
+         * Siguiente evento sin esperar, o null si no hay ninguno o si la suscripción terminó.
+         */
+        public EventoCambio siguiente() {
+            EventoCambio evento = cola.poll();
+            return evento == FIN ? null : evento;
+        }
+
+        public boolean hayPendientes() {
+            return !cola.isEmpty();
+        }
+
+        public boolean isActiva() {
+            return activa;
+        }
+
+        /**
+         * true si se terminó por no consumir los eventos a tiempo (cola llena).
+         */
+        public boolean isDescartada() {
+            return descartada;
+        }
+
+        /**
+         * El cliente se desconectó: deja de recibir eventos.
+         */
+        public void cancelar() {
+            synchronized (FeedCambios.this) {
+                suscripciones.remove(this);
+            }
+            terminar();
+        }
+    }
+
+    private final List<Suscripcion> suscripciones = new ArrayList<>();
+    private EventoCambio[] historial;
+    private long secuencia;
+
+    @Value("${feed.historial:10000}")
+    private int tamanoHistorial;
+
+    @Value("${feed.buffer-suscriptor:256}")
+    private int capacidadSuscriptor;
+
+    @Value("${feed.max-suscriptores:1000}")
+    private int maxSuscriptores;
+
+    @PostConstruct
+    public void init() {
+        historial = new EventoCambio[tamanoHistorial];
+    }
+
+    public void publicar(String entidad, String operacion, String clave, Supplier<byte[]> datosJson) {
+        publicar(entidad, operacion, clave, datosJson, null);
+    }
+
+    /**
+     * @param datosJson serializa el registro en JSON (UTF-8) al primer envío del evento, o null en
+     *                  las eliminaciones. Debe serializar la instancia guardada, no una que cambie
+     */
+    public synchronized void publicar(String entidad, String operacion, String clave, Supplier<byte[]> datosJson,
+                                      String estadoAnterior) {
+        secuencia++;
+        EventoCambio evento = new EventoCambio(id(secuencia), secuencia, entidad, operacion, clave, estadoAnterior,
+                datosJson);
+        historial[(int) (secuencia % historial.length)] = evento;
+        for (int i = suscripciones.size() - 1; i >= 0; i--) {
+            Suscripcion suscripcion = suscripciones.get(i);
+            if (!suscripcion.entregar(evento)) {
+                suscripciones.remove(i);
+                suscripcion.descartada = true;
+                suscripcion.terminar();
+                System.err.println("⚠️ Suscriptor del feed de cambios descartado: " + capacidadSuscriptor
+                        + " eventos sin consumir");
+            }
+        }
+    }
+
+    /**
+     * Nueva suscripción, opcionalmente filtrada por entidad (carro o mantenimiento).
+     * Con ultimoId (Last-Event-ID) primero recibe los eventos posteriores que sigan en el
+     * historial, o RESINCRONIZAR si ya no están todos.
+     *
+     * @throws IllegalArgumentException si la entidad no es carro ni mantenimiento
+     * @throws IllegalStateException si ya hay feed.max-suscriptores suscripciones activas
+     */
+    public synchronized Suscripcion suscribir(String entidad, String ultimoId) {
+        if (entidad != null && !CARRO.equals(entidad) && !MANTENIMIENTO.equals(entidad)) {
+            throw new IllegalArgumentException("Entidad no soportada: " + entidad + " (carro o mantenimiento)");
+        }
+        if (suscripciones.size() >= maxSuscriptores) {
+            throw new IllegalStateException("Límite de suscriptores del feed alcanzado (" + maxSuscriptores + ")");
+        }
+        Suscripcion suscripcion = new Suscripcion(entidad, capacidadSuscriptor);
+        if (ultimoId != null && !ultimoId.trim().isEmpty()) {
+            long desde = secuenciaDe(ultimoId.trim());
+            long masAntigua = Math.max(1, secuencia - historial.length + 1);
+            boolean completo = desde >= masAntigua - 1 && desde <= secuencia;
+            for (long s = desde + 1; completo && s <= secuencia; s++) {
+                completo = suscripcion.entregar(historial[(int) (s % historial.length)]);
+            }
+            if (!completo) {
+                suscripcion.cola.clear();
+                suscripcion.cola.offer(new EventoCambio(id(secuencia), secuencia, null,
+                        EventoCambio.RESINCRONIZAR, null, null, null));
+            }
+        }
+        suscripciones.add(suscripcion);
+        return suscripcion;
+    }
+
+    public synchronized int suscriptores() {
+        return suscripciones.size();
+    }
+
+    private static String id(long secuencia) {
+        return ARRANQUE + "-" + secuencia;
+    }
+
+    // -1 si el id no es de esta ejecución del servidor (obliga a resincronizar)
+    private static long secuenciaDe(String id) {
+        String prefijo = ARRANQUE + "-";
+        if (!id.startsWith(prefijo)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(id.substring(prefijo.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
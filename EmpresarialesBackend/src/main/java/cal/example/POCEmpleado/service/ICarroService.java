@@ -1,9 +1,17 @@
 package cal.example.POCEmpleado.service;
 
 import cal.example.POCEmpleado.model.Carro;
+import cal.example.POCEmpleado.model.Pagina;
+import cal.example.POCEmpleado.model.ResultadoImportacion;
 
+import java.io.InputStream;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.LongPredicate;
+import java.util.stream.Stream;
 
 /**
  * Interfaz del servicio de Carros - Principio de Segregación de Interfaces (ISP)
@@ -15,16 +23,47 @@ public interface ICarroService {
     Carro save(Carro carro);
     boolean deleteByPlaca(String placa);
 
+    // Escrituras condicionales (If-Match): la condición recibe la versión actual del carro (-1 si
+    // no existe) y se evalúa bajo el mismo lock que la escritura.
+    // saveSiVersion retorna la versión nueva, o -1 si la condición no se cumple
+    long saveSiVersion(Carro carro, LongPredicate condicion);
+    boolean deleteByPlacaSiVersion(String placa, LongPredicate condicion);
+
+    // Importación masiva (arreglo JSON o NDJSON): valida, hace upsert por placa y persiste el lote una vez
+    ResultadoImportacion importar(InputStream entrada);
+
     // MÉTODO UNIFICADO - Único método de consulta que maneja todos los casos
     // - Sin filtros: retorna todos los carros
     // - Con placa: retorna un carro específico (como lista de 1 elemento)
     // - Con otros filtros: retorna carros filtrados
     List<Carro> listar(Map<String, Object> filtros);
 
+    // Listado paginado por keyset con los mismos filtros: sort=campo|-campo, cursor opaco y limit
+    Pagina<Carro> listarPagina(Map<String, Object> filtros, String sort, String cursor, Integer limite);
+
+    // Recorrido perezoso con los mismos filtros para exportaciones (sin armar la lista completa)
+    Stream<Carro> exportar(Map<String, Object> filtros);
+
+    // Búsqueda puntual por placa (sin distinguir mayúsculas) sobre el índice hash
+    Optional<Carro> findByPlaca(String placa);
+
+    // Cuáles de las placas indicadas existen (normalizadas en mayúsculas), en una sola consulta
+    Set<String> placasExistentes(Collection<String> placas);
+
     // Operaciones de estadísticas
     long count();
     double getPrecioPromedio();
 
+    // Versión del inventario y de un carro (-1 si no existe): cambian con cada mutación (ETags)
+    long getVersion();
+    long getVersion(String placa);
+
+    // Aciertos, fallos y ocupación de la caché de listados filtrados
+    Map<String, Object> getMetricasCache();
+
+    // Arreglo JSON (UTF-8) de los carros, armado con los bytes ya serializados de cada uno
+    byte[] serializarJson(List<Carro> carros);
+
     // Persistencia JSON
     void saveToJson();
     void loadFromJson();
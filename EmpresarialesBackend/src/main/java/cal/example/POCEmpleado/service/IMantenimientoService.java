@@ -1,9 +1,19 @@
 package cal.example.POCEmpleado.service;
 
 import cal.example.POCEmpleado.model.Mantenimiento;
+import cal.example.POCEmpleado.model.Pagina;
+import cal.example.POCEmpleado.model.ResultadoImportacion;
+import cal.example.POCEmpleado.model.ResumenMantenimientos;
 
+import java.io.InputStream;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.LongPredicate;
+import java.util.stream.Stream;
 
 /**
  * Interfaz del servicio de Mantenimientos - Principio de Segregación de Interfaces (ISP)
@@ -14,6 +24,17 @@ public interface IMantenimientoService {
     // Operaciones CRUD básicas
     Mantenimiento save(Mantenimiento mantenimiento);
     boolean deleteById(String id);
+    int deleteByPlacaCarro(String placaCarro);
+
+    // Escrituras condicionales (If-Match): la condición recibe la versión actual del registro (-1 si
+    // no existe) y se evalúa bajo el mismo lock que la escritura.
+    // saveSiVersion retorna la versión nueva, o -1 si la condición no se cumple
+    long saveSiVersion(Mantenimiento mantenimiento, LongPredicate condicion);
+    boolean deleteByIdSiVersion(String id, LongPredicate condicion);
+
+    // Importación masiva (arreglo JSON o NDJSON). placasExistentes resuelve en una sola consulta
+    // cuáles de las placas referenciadas existen; el lote se persiste con una sola escritura
+    ResultadoImportacion importar(InputStream entrada, Function<Set<String>, Set<String>> placasExistentes);
 
     // MÉTODO UNIFICADO - Único método de consulta que maneja todos los casos
     // - Sin filtros: retorna todos los mantenimientos
@@ -22,15 +43,39 @@ public interface IMantenimientoService {
     // - Con otros filtros: retorna mantenimientos filtrados
     List<Mantenimiento> listar(Map<String, Object> filtros);
 
+    // Listado paginado por keyset con los mismos filtros: sort=campo|-campo, cursor opaco y limit
+    Pagina<Mantenimiento> listarPagina(Map<String, Object> filtros, String sort, String cursor, Integer limite);
+
+    // Recorrido perezoso con los mismos filtros para exportaciones (sin armar la lista completa)
+    Stream<Mantenimiento> exportar(Map<String, Object> filtros);
+
+    // Búsqueda puntual por id sobre el índice hash
+    Optional<Mantenimiento> findById(String id);
+
     // Operaciones específicas
     List<Mantenimiento> getMantenimientosPorCarro(String placaCarro);
     List<Mantenimiento> getMantenimientosUrgentes();
 
+    // Resumen de costos por vehículo, mantenido incrementalmente
+    ResumenMantenimientos getResumenPorPlaca(String placaCarro);
+    // Con placas null o vacío retorna el resumen de todas las placas con mantenimientos
+    List<ResumenMantenimientos> getResumenesPorPlaca(Collection<String> placas);
+
     // Operaciones de estadísticas
     long count();
     double getCostoTotal();
     double getCostoPromedio();
 
+    // Versión de la colección y de un mantenimiento (-1 si no existe): cambian con cada mutación (ETags)
+    long getVersion();
+    long getVersion(String id);
+
+    // Aciertos, fallos y ocupación de la caché de listados filtrados y urgentes
+    Map<String, Object> getMetricasCache();
+
+    // Arreglo JSON (UTF-8) de los mantenimientos, armado con los bytes ya serializados de cada uno
+    byte[] serializarJson(List<Mantenimiento> mantenimientos);
+
     // Persistencia JSON
     void saveToJson() throws Exception;
     void loadFromJson() throws Exception;
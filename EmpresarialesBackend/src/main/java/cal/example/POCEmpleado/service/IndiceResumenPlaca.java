@@ -0,0 +1,220 @@
+package cal.example.POCEmpleado.service;
+
+import cal.example.POCEmpleado.model.Mantenimiento;
+import cal.example.POCEmpleado.model.ResumenMantenimientos;
+import cal.example.POCEmpleado.store.IndiceSecundario;
+import cal.example.POCEmpleado.store.Ordenados;
+import cal.example.POCEmpleado.store.TablaIndexada;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Resumen por placa (cantidad, costo total, costo mínimo/máximo y último servicio)
+ * mantenido en cada mutación de la tabla de mantenimientos.
+ * Leer el resumen de una placa no recorre ni ordena sus mantenimientos.
+ */
+class IndiceResumenPlaca implements IndiceSecundario<Mantenimiento> {
+
+    // Último servicio = mayor fechaMantenimiento (sin fecha cuenta como el más antiguo)
+    private static final Comparator<Mantenimiento> POR_FECHA =
+            Comparator.comparing(Mantenimiento::getFechaMantenimiento, Comparator.nullsFirst(Comparator.naturalOrder()))
+                    .thenComparing(Mantenimiento::getId);
+
+    private static class Acumulado {
+        final String placa;
+        double costoTotal;
+        // Multiconjunto de costos: mínimo y máximo siguen siendo correctos al eliminar
+        final TreeMap<Double, Integer> costos;
+        final TreeSet<Mantenimiento> porFecha;
+
+        Acumulado(String placa) {
+            this(placa, new TreeMap<>(), new TreeSet<>(POR_FECHA));
+        }
+
+        Acumulado(String placa, TreeMap<Double, Integer> costos, TreeSet<Mantenimiento> porFecha) {
+            this.placa = placa;
+            this.costos = costos;
+            this.porFecha = porFecha;
+        }
+
+        /**
+         * Acumulado de los mantenimientos de una placa, ordenando una vez en lugar de insertar
+         * uno por uno en los árboles.
+         */
+        static Acumulado de(List<Mantenimiento> mantenimientos) {
+            double costoTotal = 0;
+            double[] costos = new double[mantenimientos.size()];
+            for (int i = 0; i < costos.length; i++) {
+                costos[i] = mantenimientos.get(i).getCosto();
+                costoTotal += costos[i];
+            }
+            Arrays.sort(costos);
+            List<Map.Entry<Double, Integer>> conteos = new ArrayList<>();
+            for (int i = 0; i < costos.length; ) {
+                int j = i;
+                while (j < costos.length && Double.compare(costos[j], costos[i]) == 0) {
+                    j++;
+                }
+                conteos.add(Map.entry(costos[i], j - i));
+                i = j;
+            }
+            List<Mantenimiento> porFecha = new ArrayList<>(mantenimientos);
+            porFecha.sort(POR_FECHA);
+            Acumulado acumulado = new Acumulado(mantenimientos.get(0).getPlacaCarro(),
+                    Ordenados.mapa(null, conteos), Ordenados.conjunto(POR_FECHA, porFecha));
+            acumulado.costoTotal = costoTotal;
+            return acumulado;
+        }
+    }
+
+    private final Map<String, Acumulado> porPlaca = new HashMap<>();
+
+    @Override
+    public void agregar(int fila, Mantenimiento mantenimiento) {
+        String clave = TablaIndexada.normalizar(mantenimiento.getPlacaCarro());
+        if (clave == null) {
+            return;
+        }
+        Acumulado acumulado = porPlaca.computeIfAbsent(clave, c -> new Acumulado(mantenimiento.getPlacaCarro()));
+        acumulado.costoTotal += mantenimiento.getCosto();
+        acumulado.costos.merge(mantenimiento.getCosto(), 1, Integer::sum);
+        acumulado.porFecha.add(mantenimiento);
+    }
+
+    @Override
+    public void quitar(int fila, Mantenimiento mantenimiento) {
+        String clave = TablaIndexada.normalizar(mantenimiento.getPlacaCarro());
+        Acumulado acumulado = clave == null ? null : porPlaca.get(clave);
+        if (acumulado == null || !acumulado.porFecha.remove(mantenimiento)) {
+            return;
+        }
+        if (acumulado.porFecha.isEmpty()) {
+            porPlaca.remove(clave);
+            return;
+        }
+        acumulado.costoTotal -= mantenimiento.getCosto();
+        acumulado.costos.computeIfPresent(mantenimiento.getCosto(), (costo, n) -> n == 1 ? null : n - 1);
+    }
+
+    @Override
+    public void mover(int desde, int hasta, Mantenimiento mantenimiento) {
+        // No guarda números de fila
+    }
+
+    @Override
+    public void limpiar() {
+        porPlaca.clear();
+    }
+
+    @Override
+    public void cargar(List<Mantenimiento> mantenimientos) {
+        Map<String, List<Mantenimiento>> porClave = new HashMap<>();
+        for (Mantenimiento mantenimiento : mantenimientos) {
+            String clave = TablaIndexada.normalizar(mantenimiento.getPlacaCarro());
+            if (clave != null) {
+                porClave.computeIfAbsent(clave, c -> new ArrayList<>()).add(mantenimiento);
+            }
+        }
+        Map<String, Acumulado> acumulados = porClave.entrySet().parallelStream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entrada -> Acumulado.de(entrada.getValue())));
+        porPlaca.putAll(acumulados);
+    }
+
+    /**
+     * Resumen de la placa indicada; una placa sin mantenimientos tiene cantidad y costo 0.
+     */
+    public ResumenMantenimientos resumen(String placa) {
+        Acumulado acumulado = placa == null ? null : porPlaca.get(TablaIndexada.normalizar(placa));
+        return acumulado == null ? new ResumenMantenimientos(placa) : aResumen(placa, acumulado);
+    }
+
+    /**
+     * Lo mismo que resumen(placa), recorriendo las filas: mientras el índice se carga
+     * (TablaIndexada.indicesListos).
+     */
+    public ResumenMantenimientos resumen(List<Mantenimiento> filas, String placa) {
+        String clave = TablaIndexada.normalizar(placa);
+        List<Mantenimiento> mantenimientos = new ArrayList<>();
+        if (clave != null) {
+            for (Mantenimiento mantenimiento : filas) {
+                if (clave.equals(TablaIndexada.normalizar(mantenimiento.getPlacaCarro()))) {
+                    mantenimientos.add(mantenimiento);
+                }
+            }
+        }
+        return mantenimientos.isEmpty() ? new ResumenMantenimientos(placa) : calcular(placa, mantenimientos);
+    }
+
+    /**
+     * Resumen de todas las placas con al menos un mantenimiento.
+     */
+    public List<ResumenMantenimientos> todos() {
+        List<ResumenMantenimientos> resumenes = new ArrayList<>(porPlaca.size());
+        for (Acumulado acumulado : porPlaca.values()) {
+            resumenes.add(aResumen(acumulado.placa, acumulado));
+        }
+        return resumenes;
+    }
+
+    /**
+     * Lo mismo que todos(), recorriendo las filas: mientras el índice se carga.
+     */
+    public List<ResumenMantenimientos> todos(List<Mantenimiento> filas) {
+        Map<String, List<Mantenimiento>> porClave = new HashMap<>();
+        for (Mantenimiento mantenimiento : filas) {
+            String clave = TablaIndexada.normalizar(mantenimiento.getPlacaCarro());
+            if (clave != null) {
+                porClave.computeIfAbsent(clave, c -> new ArrayList<>()).add(mantenimiento);
+            }
+        }
+        List<ResumenMantenimientos> resumenes = new ArrayList<>(porClave.size());
+        for (List<Mantenimiento> mantenimientos : porClave.values()) {
+            resumenes.add(calcular(mantenimientos.get(0).getPlacaCarro(), mantenimientos));
+        }
+        return resumenes;
+    }
+
+    // Una pasada sobre los mantenimientos de una placa, sin armar los árboles del acumulado
+    private static ResumenMantenimientos calcular(String placa, List<Mantenimiento> mantenimientos) {
+        double costoTotal = 0;
+        double costoMinimo = Double.POSITIVE_INFINITY;
+        double costoMaximo = Double.NEGATIVE_INFINITY;
+        Mantenimiento ultimo = null;
+        for (Mantenimiento mantenimiento : mantenimientos) {
+            costoTotal += mantenimiento.getCosto();
+            costoMinimo = Math.min(costoMinimo, mantenimiento.getCosto());
+            costoMaximo = Math.max(costoMaximo, mantenimiento.getCosto());
+            if (ultimo == null || POR_FECHA.compare(mantenimiento, ultimo) > 0) {
+                ultimo = mantenimiento;
+            }
+        }
+        ResumenMantenimientos resumen = new ResumenMantenimientos(placa);
+        resumen.setCantidadMantenimientos(mantenimientos.size());
+        resumen.setCostoTotal(costoTotal);
+        resumen.setCostoMinimo(costoMinimo);
+        resumen.setCostoMaximo(costoMaximo);
+        resumen.setUltimoMantenimiento(ultimo.getFechaMantenimiento());
+        resumen.setUltimoKilometraje(ultimo.getKilometraje());
+        return resumen;
+    }
+
+    private static ResumenMantenimientos aResumen(String placa, Acumulado acumulado) {
+        ResumenMantenimientos resumen = new ResumenMantenimientos(placa);
+        Mantenimiento ultimo = acumulado.porFecha.last();
+        resumen.setCantidadMantenimientos(acumulado.porFecha.size());
+        resumen.setCostoTotal(acumulado.costoTotal);
+        resumen.setCostoMinimo(acumulado.costos.firstKey());
+        resumen.setCostoMaximo(acumulado.costos.lastKey());
+        resumen.setUltimoMantenimiento(ultimo.getFechaMantenimiento());
+        resumen.setUltimoKilometraje(ultimo.getKilometraje());
+        return resumen;
+    }
+}
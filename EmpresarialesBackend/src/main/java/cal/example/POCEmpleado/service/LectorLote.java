@@ -0,0 +1,114 @@
+package cal.example.POCEmpleado.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Lectura y validación de los lotes de las importaciones masivas.
+ *
+ * La entrada se lee en streaming y acepta un arreglo JSON o NDJSON (un objeto por línea).
+ * Un registro que no se puede convertir al tipo queda rechazado sin detener el lote; un JSON
+ * mal formado sí lo detiene (IllegalArgumentException). La validación Bean Validation de los
+ * registros convertidos corre en paralelo.
+ */
+final class LectorLote<T> {
+
+    private final List<T> registros;
+    private final Map<Integer, Map<String, String>> errores;
+
+    private LectorLote(List<T> registros, Map<Integer, Map<String, String>> errores) {
+        this.registros = registros;
+        this.errores = errores;
+    }
+
+    static <T> LectorLote<T> leer(InputStream entrada, ObjectMapper mapper, Class<T> tipo, Validator validator,
+                                  int maxRegistros) {
+        List<T> registros = new ArrayList<>();
+        Map<Integer, Map<String, String>> errores = new HashMap<>();
+        try (MappingIterator<JsonNode> nodos = mapper.readerFor(JsonNode.class).readValues(entrada)) {
+            while (nodos.hasNextValue()) {
+                JsonNode nodo = nodos.nextValue();
+                if (registros.size() >= maxRegistros) {
+                    throw new IllegalArgumentException("El lote supera el máximo de " + maxRegistros + " registros");
+                }
+                try {
+                    registros.add(mapper.treeToValue(nodo, tipo));
+                } catch (JsonProcessingException e) {
+                    errores.put(registros.size(), error("registro", "No se pudo leer el registro: "
+                            + e.getOriginalMessage()));
+                    registros.add(null);
+                }
+            }
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("JSON inválido en el registro " + registros.size() + ": "
+                    + e.getOriginalMessage());
+        } catch (IOException e) {
+            throw new RuntimeException("Error al leer el lote: " + e.getMessage(), e);
+        }
+
+        // Validación en paralelo; cada tarea escribe solo su posición
+        List<Map<String, String>> violaciones = new ArrayList<>(registros.size());
+        for (int i = 0; i < registros.size(); i++) {
+            violaciones.add(null);
+        }
+        IntStream.range(0, registros.size()).parallel().forEach(i -> {
+            T registro = registros.get(i);
+            if (registro != null) {
+                violaciones.set(i, validar(validator, registro));
+            }
+        });
+        for (int i = 0; i < violaciones.size(); i++) {
+            if (violaciones.get(i) != null) {
+                errores.put(i, violaciones.get(i));
+            }
+        }
+        return new LectorLote<>(registros, errores);
+    }
+
+    private static <T> Map<String, String> validar(Validator validator, T registro) {
+        Map<String, String> errores = null;
+        for (ConstraintViolation<T> violacion : validator.validate(registro)) {
+            if (errores == null) {
+                errores = new HashMap<>();
+            }
+            errores.put(violacion.getPropertyPath().toString(), violacion.getMessage());
+        }
+        return errores;
+    }
+
+    static Map<String, String> error(String campo, String mensaje) {
+        Map<String, String> error = new HashMap<>();
+        error.put(campo, mensaje);
+        return error;
+    }
+
+    int tamano() {
+        return registros.size();
+    }
+
+    /**
+     * Registro en la posición indicada; null si no se pudo leer.
+     */
+    T registro(int indice) {
+        return registros.get(indice);
+    }
+
+    /**
+     * Errores del registro en la posición indicada; null si es válido.
+     */
+    Map<String, String> errores(int indice) {
+        return errores.get(indice);
+    }
+}
@@ -1,29 +1,165 @@
 package cal.example.POCEmpleado.service;
 
+import cal.example.POCEmpleado.model.EventoCambio;
 import cal.example.POCEmpleado.model.Mantenimiento;
-import com.fasterxml.jackson.core.type.TypeReference;
+import cal.example.POCEmpleado.model.Pagina;
+import cal.example.POCEmpleado.model.ResultadoImportacion;
+import cal.example.POCEmpleado.model.ResumenMantenimientos;
+import cal.example.POCEmpleado.persistence.CargadorJsonStreaming;
+import cal.example.POCEmpleado.persistence.CodecMantenimiento;
+import cal.example.POCEmpleado.persistence.EscritorGroupCommit;
+import cal.example.POCEmpleado.persistence.FormatoSnapshot;
+import cal.example.POCEmpleado.persistence.SnapshotBinario;
+import cal.example.POCEmpleado.store.CacheFragmentos;
+import cal.example.POCEmpleado.store.CacheResultados;
+import cal.example.POCEmpleado.store.IndiceAgregado;
+import cal.example.POCEmpleado.store.IndiceAgrupado;
+import cal.example.POCEmpleado.store.IndiceOrdenado;
+import cal.example.POCEmpleado.store.IndiceRango;
+import cal.example.POCEmpleado.store.IndiceTemporal;
+import cal.example.POCEmpleado.store.IndiceTexto;
+import cal.example.POCEmpleado.store.TablaIndexada;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
+import jakarta.validation.Validator;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.LongPredicate;
+import java.util.stream.Stream;
 
 /**
  * Implementación del servicio de Mantenimientos
  * Alineado con los clientes React y C# existentes
+ *
+ * La persistencia se delega en un EscritorGroupCommit: según mantenimientos.persistencia.modo
+ * (SYNC, GROUP_COMMIT o ASYNC) los cambios se escriben en el hilo de la petición o se agrupan
+ * en un único flush por intervalo o por tamaño de lote. El snapshot se escribe en JSON o,
+ * con persistencia.snapshot.formato=BINARIO, en mantenimientos.snapshot.bin.
+ *
+ * El snapshot se carga en un hilo aparte para no demorar el arranque. Las peticiones que llegan
+ * antes esperan a que se publiquen las filas; mientras se arman los índices (indicesListos) las
+ * consultas recorren las filas en lugar de usarlos.
  */
 @Service
 public class MantenimientoService implements IMantenimientoService {
 
-    private final List<Mantenimiento> mantenimientos = new ArrayList<>();
+    // Índice hash por id: lecturas puntuales, upserts y eliminaciones en O(1)
+    private final TablaIndexada<Mantenimiento> mantenimientos = new TablaIndexada<>(Mantenimiento::getId);
+
+    // Índice secundario placaCarro → mantenimientos del vehículo, del más reciente al más antiguo
+    private final IndiceAgrupado<Mantenimiento> porPlaca = mantenimientos.registrarIndice(new IndiceAgrupado<>(
+            Mantenimiento::getPlacaCarro,
+            Comparator.comparing(Mantenimiento::getFechaMantenimiento, Comparator.nullsLast(Comparator.reverseOrder()))
+                    .thenComparing(Mantenimiento::getId)));
+
+    // Índice de trigramas para el filtro "contiene" sobre el tipo de mantenimiento
+    private final IndiceTexto<Mantenimiento> porTipo =
+            mantenimientos.registrarIndice(new IndiceTexto<>(Mantenimiento::getTipoMantenimiento));
+
+    // Índices ordenados para filtros por rango (kilometraje_min/max, costo_min/max)
+    private final IndiceRango<Mantenimiento> porKilometraje = mantenimientos.registrarIndice(new IndiceRango<>(Mantenimiento::getKilometraje));
+    private final IndiceRango<Mantenimiento> porCosto = mantenimientos.registrarIndice(new IndiceRango<>(Mantenimiento::getCosto));
+
+    // Conteo y costo total mantenidos en cada mutación (action=estadisticas en O(1))
+    private final IndiceAgregado<Mantenimiento> estadisticasCosto =
+            mantenimientos.registrarIndice(new IndiceAgregado<>(Mantenimiento::getCosto));
+
+    // Resumen por placa (costo-total-placa y reporte de la flota)
+    private final IndiceResumenPlaca resumenPorPlaca = mantenimientos.registrarIndice(new IndiceResumenPlaca());
+
+    // Mantenimientos pendientes ordenados por proximoMantenimiento (urgentes y barrido de estados)
+    private final IndiceTemporal<Mantenimiento> pendientes = mantenimientos.registrarIndice(
+            new IndiceTemporal<>(Mantenimiento::getProximoMantenimiento, m -> !m.isCompletado()));
+
+    // Índices ordenados (valor, id) para la paginación por keyset:
+    // sort=fechaMantenimiento|fechaRegistro|kilometraje|costo
+    private final Paginador<Mantenimiento> paginador = new Paginador<Mantenimiento>("fechaMantenimiento")
+            .campo("fechaMantenimiento", mantenimientos.registrarIndice(
+                    new IndiceOrdenado<>(Mantenimiento::getFechaMantenimiento, Mantenimiento::getId)), LocalDateTime::parse)
+            .campo("fechaRegistro", mantenimientos.registrarIndice(
+                    new IndiceOrdenado<>(Mantenimiento::getFechaRegistro, Mantenimiento::getId)), LocalDateTime::parse)
+            .campo("kilometraje", mantenimientos.registrarIndice(
+                    new IndiceOrdenado<>(Mantenimiento::getKilometraje, Mantenimiento::getId)), Integer::valueOf)
+            .campo("costo", mantenimientos.registrarIndice(
+                    new IndiceOrdenado<>(Mantenimiento::getCosto, Mantenimiento::getId)), Double::valueOf);
+
+    // Resultados de los listados filtrados y de urgentes, válidos mientras la tabla no cambie de versión
+    private CacheResultados<Mantenimiento> cacheConsultas;
+
+    // Bytes JSON de cada registro para armar los listados sin volver a serializar
+    private CacheFragmentos<Mantenimiento> fragmentosJson;
+
+    private final ReentrantLock bloqueoSnapshot = new ReentrantLock();
     private final ObjectMapper objectMapper;
-    private final String JSON_FILE_PATH = "mantenimientos.json";
+    private EscritorGroupCommit escritor;
+
+    // Instante del último barrido de estados; protegido por el lock de escritura de la tabla
+    private LocalDateTime ultimoBarrido;
+
+    @Value("${mantenimientos.archivo:mantenimientos.json}")
+    private String jsonFilePath;
+
+    @Value("${persistencia.snapshot.formato:JSON}")
+    private FormatoSnapshot formatoSnapshot;
+
+    @Value("${mantenimientos.snapshot.binario:mantenimientos.snapshot.bin}")
+    private String snapshotBinarioPath;
+
+    @Value("${mantenimientos.persistencia.modo:GROUP_COMMIT}")
+    private EscritorGroupCommit.ModoDurabilidad modoPersistencia;
+
+    @Value("${mantenimientos.persistencia.intervalo-ms:50}")
+    private long intervaloFlushMs;
+
+    @Value("${mantenimientos.persistencia.max-lote:500}")
+    private int maxLote;
+
+    @Value("${importacion.max-registros:100000}")
+    private int importacionMaxRegistros;
+
+    @Value("${paginacion.limite-defecto:100}")
+    private int limitePorDefecto;
+
+    @Value("${paginacion.limite-maximo:1000}")
+    private int limiteMaximo;
+
+    @Value("${cache.consultas.max-entradas:256}")
+    private int cacheMaxEntradas;
+
+    @Value("${cache.consultas.max-peso:500000}")
+    private long cacheMaxPeso;
+
+    @Value("${cache.fragmentos.max-bytes:67108864}")
+    private long fragmentosMaxBytes;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private FeedCambios feed;
+
+    // ObjectMapper de Spring: el mismo con el que se escriben las respuestas HTTP
+    @Autowired
+    private ObjectMapper mapperHttp;
 
     public MantenimientoService() {
         this.objectMapper = new ObjectMapper();
@@ -32,35 +168,131 @@ public class MantenimientoService implements IMantenimientoService {
 
     @PostConstruct
     public void init() {
+        cacheConsultas = new CacheResultados<>(cacheMaxEntradas, cacheMaxPeso);
+        ObjectWriter escritorJson = mapperHttp.writerFor(Mantenimiento.class);
+        fragmentosJson = mantenimientos.registrarIndice(new CacheFragmentos<>(Mantenimiento::getId, mantenimientos::versionDe, registro -> {
+            try {
+                return escritorJson.writeValueAsBytes(registro);
+            } catch (JsonProcessingException e) {
+                throw new RuntimeException("Error al serializar el mantenimiento: " + e.getMessage(), e);
+            }
+        }, fragmentosMaxBytes));
+        escritor = new EscritorGroupCommit("mantenimientos", modoPersistencia, intervaloFlushMs, maxLote, this::saveToJson);
+        // La carga no bloquea el arranque: las operaciones esperan solo hasta que se publiquen las
+        // filas, y después se atienden recorriéndolas hasta que los índices estén listos
+        mantenimientos.reservarCarga();
+        Thread hilo = new Thread(this::cargaInicial, "carga-mantenimientos");
+        hilo.setDaemon(true);
+        hilo.start();
+    }
+
+    private void cargaInicial() {
         try {
             loadFromJson();
         } catch (Exception e) {
             System.err.println("Error al inicializar mantenimientos: " + e.getMessage());
+        } finally {
+            if (mantenimientos.cargaReservada()) {
+                // Nada que cargar o error antes de publicar: se libera la tabla vacía
+                mantenimientos.cargar(Collections.emptyList());
+            }
         }
+        recalcularEstados();
     }
 
     @PreDestroy
     public void cleanup() {
+        // close() persiste los cambios pendientes del lote: no hace falta otra escritura
+        escritor.close();
+    }
+
+    @Override
+    public Mantenimiento save(Mantenimiento mantenimiento) {
+        saveSiVersion(mantenimiento, version -> true);
+        return mantenimiento;
+    }
+
+    @Override
+    public long saveSiVersion(Mantenimiento mantenimiento, LongPredicate condicion) {
+        long version;
+        mantenimientos.bloqueoEscritura().lock();
         try {
-            saveToJson();
-        } catch (Exception e) {
-            System.err.println("Error al guardar al cerrar: " + e.getMessage());
+            // La condición se evalúa bajo el lock de la escritura: nadie puede cambiar el registro en medio
+            long actual = mantenimientos.versionDe(mantenimiento.getId());
+            if (!condicion.test(actual)) {
+                return -1;
+            }
+            aplicarGuardado(mantenimiento);
+            version = mantenimientos.versionDe(mantenimiento.getId());
+            feed.publicar(FeedCambios.MANTENIMIENTO, actual < 0 ? EventoCambio.CREADO : EventoCambio.ACTUALIZADO,
+                    mantenimiento.getId(), () -> fragmentosJson.fragmento(mantenimiento));
+        } finally {
+            mantenimientos.bloqueoEscritura().unlock();
         }
+        persistirCambio("Error al guardar en JSON: ");
+        return version;
     }
 
     @Override
-    public Mantenimiento save(Mantenimiento mantenimiento) {
-        // Verificar si ya existe un mantenimiento con ese ID
-        if (mantenimiento.getId() != null && !mantenimiento.getId().isEmpty()) {
-            Map<String, Object> filtroId = new HashMap<>();
-            filtroId.put("id", mantenimiento.getId());
-            List<Mantenimiento> existentes = listar(filtroId);
+    public ResultadoImportacion importar(InputStream entrada, Function<Set<String>, Set<String>> placasExistentes) {
+        LectorLote<Mantenimiento> lote = LectorLote.leer(entrada, objectMapper, Mantenimiento.class, validator,
+                importacionMaxRegistros);
 
-            if (!existentes.isEmpty()) {
-                // Actualizar existente
-                mantenimientos.removeIf(m -> m.getId().equals(mantenimiento.getId()));
+        // Todas las placas referenciadas por el lote se resuelven en una sola consulta
+        Set<String> placas = new HashSet<>();
+        for (int i = 0; i < lote.tamano(); i++) {
+            if (lote.errores(i) == null) {
+                placas.add(TablaIndexada.normalizar(lote.registro(i).getPlacaCarro()));
+            }
+        }
+        Set<String> existentes = placasExistentes.apply(placas);
+
+        ResultadoImportacion resultado = new ResultadoImportacion(lote.tamano());
+        Map<String, Integer> idsDelLote = new HashMap<>();
+        mantenimientos.bloqueoEscritura().lock();
+        try {
+            for (int i = 0; i < lote.tamano(); i++) {
+                Mantenimiento mantenimiento = lote.registro(i);
+                Map<String, String> errores = lote.errores(i);
+                if (errores == null && !existentes.contains(TablaIndexada.normalizar(mantenimiento.getPlacaCarro()))) {
+                    errores = LectorLote.error("placaCarro", "No existe un carro con la placa: "
+                            + mantenimiento.getPlacaCarro());
+                }
+                boolean conId = mantenimiento != null && mantenimiento.getId() != null && !mantenimiento.getId().isEmpty();
+                if (errores == null && conId) {
+                    Integer previo = idsDelLote.putIfAbsent(TablaIndexada.normalizar(mantenimiento.getId()), i);
+                    if (previo != null) {
+                        errores = LectorLote.error("id", "Id repetido en el lote (registro " + previo + ")");
+                    }
+                }
+                if (errores != null) {
+                    resultado.agregar(new ResultadoImportacion.ResultadoRegistro(i,
+                            mantenimiento == null ? null : mantenimiento.getId(), ResultadoImportacion.RECHAZADO, errores));
+                    continue;
+                }
+                // Sin id se asigna un UUID; con un id que ya existe se reemplaza (sincronización idempotente)
+                boolean existia = conId && mantenimientos.contiene(mantenimiento.getId());
+                aplicarGuardado(mantenimiento);
+                feed.publicar(FeedCambios.MANTENIMIENTO, existia ? EventoCambio.ACTUALIZADO : EventoCambio.CREADO,
+                        mantenimiento.getId(), () -> fragmentosJson.fragmento(mantenimiento));
+                resultado.agregar(new ResultadoImportacion.ResultadoRegistro(i, mantenimiento.getId(),
+                        existia ? ResultadoImportacion.ACTUALIZADO : ResultadoImportacion.CREADO, null));
             }
-        } else {
+        } finally {
+            mantenimientos.bloqueoEscritura().unlock();
+        }
+        if (resultado.getCreados() + resultado.getActualizados() > 0) {
+            // Una sola escritura para todo el lote
+            persistirCambio("Error al guardar la importación en JSON: ");
+        }
+        System.out.println("✅ Importación de mantenimientos: " + resultado.getCreados() + " creados, "
+                + resultado.getActualizados() + " actualizados, " + resultado.getRechazados() + " rechazados");
+        return resultado;
+    }
+
+    private void aplicarGuardado(Mantenimiento mantenimiento) {
+        // Sin ID se asigna uno nuevo; con ID existente se reemplaza en su misma fila
+        if (mantenimiento.getId() == null || mantenimiento.getId().isEmpty()) {
             // Asignar nuevo ID
             mantenimiento.setId(UUID.randomUUID().toString());
         }
@@ -68,170 +300,522 @@ public class MantenimientoService implements IMantenimientoService {
         if (mantenimiento.getFechaRegistro() == null) {
             mantenimiento.setFechaRegistro(LocalDateTime.now());
         }
-        
-        mantenimientos.add(mantenimiento);
-        
-        try {
-            saveToJson();
-        } catch (Exception e) {
-            System.err.println("Error al guardar en JSON: " + e.getMessage());
-        }
-        
-        return mantenimiento;
+
+        // Estado y urgencia se fijan al guardar; después solo los cambia el barrido
+        mantenimiento.actualizarEstado(LocalDateTime.now());
+        mantenimientos.guardar(mantenimiento);
     }
 
     @Override
     public boolean deleteById(String id) {
-        boolean removed = mantenimientos.removeIf(mantenimiento -> mantenimiento.getId().equals(id));
-        if (removed) {
-            try {
-                saveToJson();
-            } catch (Exception e) {
-                System.err.println("Error al guardar después de eliminar: " + e.getMessage());
+        return deleteByIdSiVersion(id, version -> true);
+    }
+
+    @Override
+    public boolean deleteByIdSiVersion(String id, LongPredicate condicion) {
+        boolean removed;
+        mantenimientos.bloqueoEscritura().lock();
+        try {
+            boolean cumple = id != null && mantenimientos.contiene(id) && condicion.test(mantenimientos.versionDe(id));
+            Mantenimiento eliminado = cumple ? mantenimientos.eliminar(id) : null;
+            removed = eliminado != null;
+            if (removed) {
+                feed.publicar(FeedCambios.MANTENIMIENTO, EventoCambio.ELIMINADO, eliminado.getId(), null);
             }
+        } finally {
+            mantenimientos.bloqueoEscritura().unlock();
+        }
+        if (removed) {
+            persistirCambio("Error al guardar después de eliminar: ");
         }
         return removed;
     }
 
+    /**
+     * Elimina todos los mantenimientos de un vehículo en una sola pasada sobre el índice por placa
+     * y con una sola escritura de persistencia.
+     */
     @Override
-    public List<Mantenimiento> listar(Map<String, Object> filtros) {
-        if (filtros == null || filtros.isEmpty()) {
-            return new ArrayList<>(mantenimientos);
+    public int deleteByPlacaCarro(String placaCarro) {
+        int eliminados = 0;
+        mantenimientos.bloqueoEscritura().lock();
+        try {
+            for (Mantenimiento m : delCarro(placaCarro)) {
+                if (mantenimientos.eliminar(m.getId()) != null) {
+                    feed.publicar(FeedCambios.MANTENIMIENTO, EventoCambio.ELIMINADO, m.getId(), null);
+                    eliminados++;
+                }
+            }
+        } finally {
+            mantenimientos.bloqueoEscritura().unlock();
         }
+        if (eliminados > 0) {
+            persistirCambio("Error al guardar después de eliminar: ");
+        }
+        return eliminados;
+    }
 
-        return mantenimientos.stream()
-                .filter(mantenimiento -> aplicarFiltros(mantenimiento, filtros))
-                .collect(Collectors.toList());
+    // Se llama fuera del lock de escritura: en GROUP_COMMIT espera al flush, que toma el de lectura.
+    // En SYNC y GROUP_COMMIT un fallo llega al llamador (500): el cambio no quedó en disco.
+    // En ASYNC la petición ya no espera al disco y solo se registra el error
+    private void persistirCambio(String mensajeError) {
+        try {
+            escritor.registrarCambio();
+        } catch (RuntimeException e) {
+            if (escritor.getModo() != EscritorGroupCommit.ModoDurabilidad.ASYNC) {
+                throw new RuntimeException(mensajeError + e.getMessage(), e);
+            }
+            System.err.println(mensajeError + e.getMessage());
+        }
     }
 
-    private boolean aplicarFiltros(Mantenimiento mantenimiento, Map<String, Object> filtros) {
-        for (Map.Entry<String, Object> filtro : filtros.entrySet()) {
-            String campo = filtro.getKey().toLowerCase();
-            Object valor = filtro.getValue();
+    /**
+     * Los filtros se compilan una vez (ConsultaMantenimiento); un valor inválido lanza IllegalArgumentException.
+     * Los resultados filtrados se cachean por la forma canónica de la consulta hasta la siguiente mutación.
+     */
+    @Override
+    public List<Mantenimiento> listar(Map<String, Object> filtros) {
+        ConsultaMantenimiento consulta = ConsultaMantenimiento.compilar(filtros);
+        if (consulta.esVacia()) {
+            // Versión inmutable actual de la tabla: O(1), sin lock y sin copiar
+            return mantenimientos.filas();
+        }
 
-            if (valor == null) continue;
+        // Con id: búsqueda puntual en el índice y el resto de filtros sobre ese único registro
+        if (consulta.getId() != null) {
+            Mantenimiento mantenimiento = mantenimientos.buscar(consulta.getId());
+            List<Mantenimiento> resultado = new ArrayList<>(1);
+            if (mantenimiento != null && consulta.test(mantenimiento)) {
+                resultado.add(mantenimiento);
+            }
+            return resultado;
+        }
 
-            switch (campo) {
-                case "id":
-                    if (!mantenimiento.getId().equalsIgnoreCase(valor.toString())) {
-                        return false;
-                    }
-                    break;
-                case "placacarro":
-                case "placa_carro":
-                case "placa":
-                    if (!mantenimiento.getPlacaCarro().equalsIgnoreCase(valor.toString())) {
-                        return false;
-                    }
-                    break;
-                case "tipomantenimiento":
-                case "tipo_mantenimiento":
-                case "tipo":
-                    if (!mantenimiento.getTipoMantenimiento().toLowerCase().contains(valor.toString().toLowerCase())) {
-                        return false;
-                    }
-                    break;
-                case "kilometraje":
-                    if (valor instanceof Integer && mantenimiento.getKilometraje() != (Integer) valor) {
-                        return false;
-                    }
-                    break;
-                case "kilometraje_min":
-                    if (valor instanceof Integer && mantenimiento.getKilometraje() < (Integer) valor) {
-                        return false;
-                    }
-                    break;
-                case "kilometraje_max":
-                    if (valor instanceof Integer && mantenimiento.getKilometraje() > (Integer) valor) {
-                        return false;
-                    }
-                    break;
-                case "costo_min":
-                    if (valor instanceof Double && mantenimiento.getCosto() < (Double) valor) {
-                        return false;
+        // La versión se lee antes de consultar: si hay una escritura en medio, la entrada ya nace vieja
+        List<String> clave = CacheResultados.clave("listar", consulta.getClave());
+        long version = mantenimientos.version();
+        List<Mantenimiento> cacheado = cacheConsultas.obtener(clave, version);
+        if (cacheado != null) {
+            return cacheado;
+        }
+        return cacheConsultas.guardar(clave, version, consultar(consulta));
+    }
+
+    private List<Mantenimiento> consultar(ConsultaMantenimiento consulta) {
+        List<Mantenimiento> resultado = new ArrayList<>();
+        mantenimientos.bloqueoLectura().lock();
+        try {
+            // Con placa: solo se recorren los mantenimientos de ese vehículo
+            if (consulta.getPlacaCarro() != null) {
+                for (Mantenimiento mantenimiento : delCarro(consulta.getPlacaCarro())) {
+                    if (consulta.test(mantenimiento)) {
+                        resultado.add(mantenimiento);
                     }
-                    break;
-                case "costo_max":
-                    if (valor instanceof Double && mantenimiento.getCosto() > (Double) valor) {
-                        return false;
+                }
+                return resultado;
+            }
+
+            BitSet candidatos = candidatosPorIndice(consulta);
+            if (candidatos != null) {
+                // Solo se verifican las filas que devolvieron los índices
+                List<Mantenimiento> filas = mantenimientos.filas();
+                for (int fila = candidatos.nextSetBit(0); fila >= 0; fila = candidatos.nextSetBit(fila + 1)) {
+                    Mantenimiento mantenimiento = filas.get(fila);
+                    if (consulta.test(mantenimiento)) {
+                        resultado.add(mantenimiento);
                     }
-                    break;
-                case "completado":
-                    if (valor instanceof Boolean && mantenimiento.isCompletado() != (Boolean) valor) {
-                        return false;
+                }
+                return resultado;
+            }
+        } finally {
+            mantenimientos.bloqueoLectura().unlock();
+        }
+
+        // Sin índices aplicables: recorrido de la versión actual, fuera del lock
+        for (Mantenimiento mantenimiento : mantenimientos.filas()) {
+            if (consulta.test(mantenimiento)) {
+                resultado.add(mantenimiento);
+            }
+        }
+        return resultado;
+    }
+
+    @Override
+    public Pagina<Mantenimiento> listarPagina(Map<String, Object> filtros, String sort, String cursor, Integer limite) {
+        ConsultaMantenimiento consulta = ConsultaMantenimiento.compilar(filtros);
+        Paginador.Solicitud<Mantenimiento, ?> solicitud =
+                paginador.solicitud(sort, cursor, limite, limitePorDefecto, limiteMaximo);
+
+        // Con id o placa el resultado ya es pequeño: se ordena completo
+        if (consulta.getId() != null || consulta.getPlacaCarro() != null) {
+            return solicitud.paginar(new ArrayList<>(listar(filtros)));
+        }
+
+        mantenimientos.bloqueoLectura().lock();
+        try {
+            if (!mantenimientos.indicesListos()) {
+                // Índices ordenados todavía en carga: se filtra y se ordena la versión actual
+                List<Mantenimiento> resultado = new ArrayList<>();
+                for (Mantenimiento mantenimiento : mantenimientos.filas()) {
+                    if (consulta.test(mantenimiento)) {
+                        resultado.add(mantenimiento);
                     }
-                    break;
-                case "urgente":
-                    if (valor instanceof Boolean && (Boolean) valor && !mantenimiento.calcularEsUrgente()) {
-                        return false;
+                }
+                return solicitud.paginar(resultado);
+            }
+            BitSet candidatos = candidatosPorIndice(consulta);
+            // Pocos candidatos: se ordenan solo ellos. Si no, se recorre el índice ordenado
+            // desde el cursor y se corta al completar la página
+            if (candidatos != null && candidatos.cardinality() <= mantenimientos.tamano() / 4) {
+                List<Mantenimiento> filas = mantenimientos.filas();
+                List<Mantenimiento> resultado = new ArrayList<>(candidatos.cardinality());
+                for (int fila = candidatos.nextSetBit(0); fila >= 0; fila = candidatos.nextSetBit(fila + 1)) {
+                    Mantenimiento mantenimiento = filas.get(fila);
+                    if (consulta.test(mantenimiento)) {
+                        resultado.add(mantenimiento);
                     }
-                    break;
+                }
+                return solicitud.paginar(resultado);
             }
+            return solicitud.recorrer(consulta);
+        } finally {
+            mantenimientos.bloqueoLectura().unlock();
+        }
+    }
+
+    @Override
+    public Stream<Mantenimiento> exportar(Map<String, Object> filtros) {
+        ConsultaMantenimiento consulta = ConsultaMantenimiento.compilar(filtros);
+        if (consulta.getId() != null || consulta.getPlacaCarro() != null) {
+            return listar(filtros).stream();
+        }
+        // Versión inmutable y candidatos tomados bajo el mismo lock: las filas del BitSet
+        // corresponden exactamente a esa versión, que luego se recorre sin lock
+        List<Mantenimiento> version;
+        BitSet candidatos;
+        mantenimientos.bloqueoLectura().lock();
+        try {
+            version = mantenimientos.filas();
+            candidatos = consulta.esVacia() ? null : candidatosPorIndice(consulta);
+        } finally {
+            mantenimientos.bloqueoLectura().unlock();
+        }
+        if (candidatos == null) {
+            return version.stream().filter(consulta);
+        }
+        return candidatos.stream().mapToObj(version::get).filter(consulta);
+    }
+
+    /**
+     * Intersección de las filas que devuelven los índices aplicables, o null si ningún
+     * filtro de la consulta tiene índice o si los índices todavía se están cargando
+     * (recorrido completo). Con el lock de lectura tomado.
+     */
+    private BitSet candidatosPorIndice(ConsultaMantenimiento consulta) {
+        BitSet candidatos = null;
+        if (!mantenimientos.indicesListos()) {
+            return null;
+        }
+        if (consulta.getTipoMantenimiento() != null) {
+            candidatos = intersectar(candidatos, porTipo.filasQueContienen(consulta.getTipoMantenimiento()));
         }
-        return true;
+        if (consulta.tieneRangoKilometraje()) {
+            candidatos = intersectar(candidatos,
+                    porKilometraje.filasEntre(consulta.getKilometrajeMin(), consulta.getKilometrajeMax()));
+        }
+        if (consulta.tieneRangoCosto()) {
+            candidatos = intersectar(candidatos, porCosto.filasEntre(consulta.getCostoMin(), consulta.getCostoMax()));
+        }
+        return candidatos;
+    }
+
+    // Con el lock tomado: por el índice o, mientras se carga, recorriendo las filas
+    private List<Mantenimiento> delCarro(String placaCarro) {
+        return mantenimientos.indicesListos() ? porPlaca.buscar(placaCarro)
+                : porPlaca.buscar(mantenimientos.filas(), placaCarro);
+    }
+
+    private static BitSet intersectar(BitSet acumulado, BitSet filas) {
+        if (acumulado == null) {
+            return filas;
+        }
+        acumulado.and(filas);
+        return acumulado;
+    }
+
+    @Override
+    public Optional<Mantenimiento> findById(String id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(mantenimientos.buscar(id));
     }
 
     @Override
     public List<Mantenimiento> getMantenimientosPorCarro(String placaCarro) {
-        return mantenimientos.stream()
-                .filter(m -> m.getPlacaCarro().equalsIgnoreCase(placaCarro))
-                .sorted(Comparator.comparing(Mantenimiento::getFechaMantenimiento).reversed())
-                .collect(Collectors.toList());
+        mantenimientos.bloqueoLectura().lock();
+        try {
+            return delCarro(placaCarro);
+        } finally {
+            mantenimientos.bloqueoLectura().unlock();
+        }
     }
 
+    /**
+     * Se cachea como los listados: un mantenimiento que entra en la ventana de urgencia pasa a
+     * URGENTE en el siguiente barrido, que cambia la versión de la tabla. El resultado puede
+     * retrasarse como máximo un intervalo de barrido, igual que estadoMantenimiento.
+     */
     @Override
     public List<Mantenimiento> getMantenimientosUrgentes() {
-        return mantenimientos.stream()
-                .filter(Mantenimiento::calcularEsUrgente)
-                .sorted(Comparator.comparing(Mantenimiento::getProximoMantenimiento))
-                .collect(Collectors.toList());
+        List<String> clave = CacheResultados.clave("urgentes", Collections.emptyList());
+        long version = mantenimientos.version();
+        List<Mantenimiento> cacheado = cacheConsultas.obtener(clave, version);
+        if (cacheado != null) {
+            return cacheado;
+        }
+        // Lectura de rango sobre el índice: ya viene ordenada por proximoMantenimiento
+        LocalDateTime limite = LocalDateTime.now().plusDays(Mantenimiento.DIAS_URGENCIA);
+        List<Mantenimiento> urgentes;
+        mantenimientos.bloqueoLectura().lock();
+        try {
+            urgentes = mantenimientos.indicesListos() ? pendientes.antesDe(limite)
+                    : pendientes.antesDe(mantenimientos.filas(), limite);
+        } finally {
+            mantenimientos.bloqueoLectura().unlock();
+        }
+        return cacheConsultas.guardar(clave, version, urgentes);
+    }
+
+    @Override
+    public ResumenMantenimientos getResumenPorPlaca(String placaCarro) {
+        mantenimientos.bloqueoLectura().lock();
+        try {
+            return mantenimientos.indicesListos() ? resumenPorPlaca.resumen(placaCarro)
+                    : resumenPorPlaca.resumen(mantenimientos.filas(), placaCarro);
+        } finally {
+            mantenimientos.bloqueoLectura().unlock();
+        }
+    }
+
+    @Override
+    public List<ResumenMantenimientos> getResumenesPorPlaca(Collection<String> placas) {
+        mantenimientos.bloqueoLectura().lock();
+        try {
+            boolean listos = mantenimientos.indicesListos();
+            if (placas == null || placas.isEmpty()) {
+                return listos ? resumenPorPlaca.todos() : resumenPorPlaca.todos(mantenimientos.filas());
+            }
+            List<ResumenMantenimientos> resumenes = new ArrayList<>(placas.size());
+            for (String placa : placas) {
+                resumenes.add(listos ? resumenPorPlaca.resumen(placa)
+                        : resumenPorPlaca.resumen(mantenimientos.filas(), placa));
+            }
+            return resumenes;
+        } finally {
+            mantenimientos.bloqueoLectura().unlock();
+        }
+    }
+
+    /**
+     * Barrido periódico de estados: aplica las transiciones PENDIENTE → URGENTE → VENCIDO
+     * ocurridas desde el barrido anterior, de modo que las lecturas usan estadoMantenimiento
+     * y esUrgente ya calculados. Solo visita los pendientes cuya fecha cruzó un umbral
+     * (ahora o ahora + DIAS_URGENCIA) en el intervalo, no la colección completa.
+     */
+    @Scheduled(fixedDelayString = "${mantenimientos.barrido.intervalo-ms:60000}",
+            initialDelayString = "${mantenimientos.barrido.intervalo-ms:60000}")
+    public void barrerEstados() {
+        LocalDateTime ahora = LocalDateTime.now();
+        List<Mantenimiento> cambiados = new ArrayList<>();
+        mantenimientos.bloqueoEscritura().lock();
+        try {
+            // Sin el índice de pendientes (todavía en carga) también se recorre todo
+            if (ultimoBarrido == null || ahora.isBefore(ultimoBarrido) || !mantenimientos.indicesListos()) {
+                recalcularTodos(ahora, cambiados);
+            } else {
+                List<Mantenimiento> afectados = pendientes.entre(ultimoBarrido, ahora);
+                afectados.addAll(pendientes.entre(ultimoBarrido.plusDays(Mantenimiento.DIAS_URGENCIA),
+                        ahora.plusDays(Mantenimiento.DIAS_URGENCIA)));
+                for (Mantenimiento mantenimiento : afectados) {
+                    Mantenimiento actualizado = actualizarEstado(mantenimiento, ahora);
+                    if (actualizado != null) {
+                        cambiados.add(actualizado);
+                    }
+                }
+            }
+            ultimoBarrido = ahora;
+        } finally {
+            mantenimientos.bloqueoEscritura().unlock();
+        }
+        if (!cambiados.isEmpty()) {
+            System.out.println("🔄 Barrido de mantenimientos: " + cambiados.size() + " cambios de estado");
+        }
+    }
+
+    /**
+     * Recalcula el estado de todos los registros (al cargar: los valores guardados pueden estar desfasados).
+     */
+    private void recalcularEstados() {
+        LocalDateTime ahora = LocalDateTime.now();
+        List<Mantenimiento> cambiados = new ArrayList<>();
+        mantenimientos.bloqueoEscritura().lock();
+        try {
+            recalcularTodos(ahora, cambiados);
+            ultimoBarrido = ahora;
+        } finally {
+            mantenimientos.bloqueoEscritura().unlock();
+        }
+    }
+
+    private void recalcularTodos(LocalDateTime ahora, List<Mantenimiento> cambiados) {
+        // Se recorre la versión tomada al empezar: los reemplazos publican versiones nuevas
+        for (Mantenimiento mantenimiento : mantenimientos.filas()) {
+            Mantenimiento actualizado = actualizarEstado(mantenimiento, ahora);
+            if (actualizado != null) {
+                cambiados.add(actualizado);
+            }
+        }
+    }
+
+    /**
+     * Con el lock de escritura tomado. Si el estado cambió, reemplaza el registro por una copia
+     * con el estado nuevo y la devuelve; si no, null. El registro guardado no se modifica: los
+     * lectores sin lock (recorridos, exportaciones, snapshot, fragmentos JSON) pueden estar usándolo.
+     */
+    private Mantenimiento actualizarEstado(Mantenimiento mantenimiento, LocalDateTime ahora) {
+        String anterior = mantenimiento.getEstadoMantenimiento();
+        if (mantenimiento.calcularEstadoMantenimiento(ahora).equals(anterior)
+                && Boolean.valueOf(mantenimiento.calcularEsUrgente(ahora)).equals(mantenimiento.getEsUrgente())) {
+            return null;
+        }
+        Mantenimiento copia = new Mantenimiento(mantenimiento);
+        copia.actualizarEstado(ahora);
+        mantenimientos.guardar(copia);
+        if (!copia.getEstadoMantenimiento().equals(anterior)) {
+            // Transición de urgencia para el feed de cambios
+            feed.publicar(FeedCambios.MANTENIMIENTO, EventoCambio.CAMBIO_ESTADO, copia.getId(),
+                    () -> fragmentosJson.fragmento(copia), anterior);
+        }
+        return copia;
     }
 
     @Override
     public long count() {
-        return mantenimientos.size();
+        return mantenimientos.tamano();
+    }
+
+    @Override
+    public long getVersion() {
+        return mantenimientos.version();
+    }
+
+    @Override
+    public long getVersion(String id) {
+        return mantenimientos.versionDe(id);
+    }
+
+    @Override
+    public Map<String, Object> getMetricasCache() {
+        Map<String, Object> metricas = cacheConsultas.metricas();
+        metricas.put("fragmentosJson", fragmentosJson.metricas());
+        return metricas;
+    }
+
+    @Override
+    public byte[] serializarJson(List<Mantenimiento> registros) {
+        return fragmentosJson.arreglo(registros);
     }
 
     @Override
     public double getCostoTotal() {
-        return mantenimientos.stream()
-                .mapToDouble(Mantenimiento::getCosto)
-                .sum();
+        // Mientras se carga el índice, la suma se recorre sobre la versión actual
+        return mantenimientos.indicesListos() ? estadisticasCosto.suma() : estadisticasCosto.suma(mantenimientos.filas());
     }
 
     @Override
     public double getCostoPromedio() {
-        if (mantenimientos.isEmpty()) {
-            return 0.0;
+        if (mantenimientos.indicesListos()) {
+            return estadisticasCosto.promedio();
         }
-        return getCostoTotal() / mantenimientos.size();
+        List<Mantenimiento> filas = mantenimientos.filas();
+        return filas.isEmpty() ? 0.0 : estadisticasCosto.suma(filas) / filas.size();
     }
 
     @Override
     public void saveToJson() throws Exception {
-        File file = new File(JSON_FILE_PATH);
-        objectMapper.writerWithDefaultPrettyPrinter().writeValue(file, mantenimientos);
-        System.out.println("✅ Mantenimientos guardados en JSON: " + mantenimientos.size() + " registros");
+        // Un solo snapshot a la vez (flush del escritor, cierre o guardado manual): comparten el temporal
+        bloqueoSnapshot.lock();
+        try {
+            escribirSnapshot();
+        } finally {
+            bloqueoSnapshot.unlock();
+        }
+    }
+
+    private void escribirSnapshot() throws Exception {
+        // Versión inmutable: se serializa sin copiar y sin bloquear a los escritores
+        List<Mantenimiento> copia = mantenimientos.filas();
+        if (formatoSnapshot == FormatoSnapshot.BINARIO) {
+            SnapshotBinario.escribir(Paths.get(snapshotBinarioPath), copia, new CodecMantenimiento());
+            System.out.println("✅ Mantenimientos guardados en snapshot binario: " + copia.size() + " registros");
+            return;
+        }
+        Path destino = Paths.get(jsonFilePath);
+        Path temporal = Paths.get(jsonFilePath + ".tmp");
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(temporal.toFile(), copia);
+        try {
+            Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING);
+        }
+        System.out.println("✅ Mantenimientos guardados en JSON: " + copia.size() + " registros");
     }
 
     @Override
     public void loadFromJson() throws Exception {
         try {
-            File file = new File(JSON_FILE_PATH);
-            if (file.exists()) {
-                List<Mantenimiento> loaded = objectMapper.readValue(
-                        file,
-                        new TypeReference<List<Mantenimiento>>() {}
-                );
-                mantenimientos.clear();
-                mantenimientos.addAll(loaded);
-                
-                System.out.println("✅ Mantenimientos cargados desde JSON: " + mantenimientos.size() + " registros");
+            File file = new File(jsonFilePath);
+            Path binario = Paths.get(snapshotBinarioPath);
+            if (formatoSnapshot == FormatoSnapshot.BINARIO && Files.exists(binario)) {
+                long inicio = System.nanoTime();
+                List<Mantenimiento> loaded = SnapshotBinario.leer(binario, new CodecMantenimiento());
+                // El estado no se guarda en el snapshot: se calcula antes de publicar los registros,
+                // así el recálculo inicial no tiene que reemplazarlos uno por uno
+                LocalDateTime ahora = LocalDateTime.now();
+                loaded.parallelStream().forEach(m -> m.actualizarEstado(ahora));
+                System.out.println("✅ Mantenimientos leídos del snapshot binario: " + loaded.size()
+                        + " registros en " + (System.nanoTime() - inicio) / 1_000_000 + " ms");
+                // Carga masiva: publica el vector de filas y arma los índices de una vez
+                mantenimientos.cargar(loaded);
+                System.out.println("✅ Índices de mantenimientos listos: " + mantenimientos.tamano()
+                        + " registros en " + (System.nanoTime() - inicio) / 1_000_000 + " ms");
+            } else if (file.exists()) {
+                // Lectura en streaming: los bloques decodificados se acumulan y se cargan de una vez
+                List<Mantenimiento> loaded = new ArrayList<>();
+                new CargadorJsonStreaming<>(objectMapper, Mantenimiento.class).cargar(file.toPath(), bloque -> {
+                    LocalDateTime ahora = LocalDateTime.now();
+                    for (Mantenimiento m : bloque) {
+                        // Aún no publicados: el estado se puede fijar sobre el propio registro
+                        m.actualizarEstado(ahora);
+                        loaded.add(m);
+                    }
+                });
+                mantenimientos.cargar(loaded);
+
+                System.out.println("✅ Mantenimientos cargados desde JSON: " + mantenimientos.tamano() + " registros");
+                if (formatoSnapshot == FormatoSnapshot.BINARIO) {
+                    // Conversión inicial: a partir de ahora el snapshot se lee en formato binario
+                    SnapshotBinario.escribir(binario, mantenimientos.filas(), new CodecMantenimiento());
+                    System.out.println("✅ mantenimientos.json convertido a snapshot binario: " + binario);
+                }
             } else {
                 System.out.println("ℹ️ Archivo JSON no existe, iniciando con lista vacía");
                 // Precarga de datos desactivada - no se llama a inicializarDatosDemo()
             }
         } catch (IOException e) {
+            // cargar y no limpiar: también libera la carga reservada al arrancar
+            mantenimientos.cargar(Collections.emptyList());
             System.err.println("⚠️ Error al cargar mantenimientos desde JSON: " + e.getMessage());
             System.out.println("ℹ️ Iniciando con lista vacía");
             // Precarga de datos desactivada - no se llama a inicializarDatosDemo()
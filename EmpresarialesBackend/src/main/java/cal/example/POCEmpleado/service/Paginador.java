@@ -0,0 +1,208 @@
+package cal.example.POCEmpleado.service;
+
+import cal.example.POCEmpleado.model.Pagina;
+import cal.example.POCEmpleado.store.IndiceOrdenado;
+import cal.example.POCEmpleado.store.IndiceOrdenado.Posicion;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Paginación por keyset sobre los índices ordenados de un servicio.
+ *
+ * sort=campo (ascendente) o sort=-campo (descendente); el cursor es opaco y codifica el
+ * campo, la dirección y la posición (valor, clave) del último registro devuelto. La página
+ * siguiente continúa justo después de esa posición: no hay OFFSET que recorrer ni registros
+ * repetidos u omitidos cuando la colección cambia entre páginas.
+ */
+final class Paginador<T> {
+
+    private static final Base64.Encoder CODIFICADOR = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODIFICADOR = Base64.getUrlDecoder();
+
+    /**
+     * Campo por el que se puede ordenar: su índice y cómo leer el valor guardado en un cursor.
+     */
+    static final class CampoOrden<T, K extends Comparable<? super K>> {
+        private final String nombre;
+        private final IndiceOrdenado<T, K> indice;
+        private final Function<String, K> lector;
+
+        CampoOrden(String nombre, IndiceOrdenado<T, K> indice, Function<String, K> lector) {
+            this.nombre = nombre;
+            this.indice = indice;
+            this.lector = lector;
+        }
+    }
+
+    private final Map<String, CampoOrden<T, ?>> campos = new LinkedHashMap<>();
+    private final String campoPorDefecto;
+
+    Paginador(String campoPorDefecto) {
+        this.campoPorDefecto = campoPorDefecto;
+    }
+
+    <K extends Comparable<? super K>> Paginador<T> campo(String nombre, IndiceOrdenado<T, K> indice,
+                                                        Function<String, K> lector) {
+        campos.put(nombre.toLowerCase(Locale.ROOT), new CampoOrden<>(nombre, indice, lector));
+        return this;
+    }
+
+    /**
+     * Valida sort, cursor y limit antes de tocar los datos (IllegalArgumentException si no son válidos).
+     * Un limit mayor que limiteMaximo se recorta a limiteMaximo.
+     */
+    Solicitud<T, ?> solicitud(String sort, String cursor, Integer limite, int limiteDefecto, int limiteMaximo) {
+        String orden = sort == null || sort.trim().isEmpty() ? campoPorDefecto : sort.trim();
+        boolean descendente = orden.startsWith("-");
+        if (descendente) {
+            orden = orden.substring(1);
+        }
+        CampoOrden<T, ?> campo = campos.get(orden.toLowerCase(Locale.ROOT));
+        if (campo == null) {
+            throw new IllegalArgumentException("Campo de orden no soportado: " + orden
+                    + " (valores permitidos: " + nombresCampos() + ")");
+        }
+        if (limite != null && limite < 1) {
+            throw new IllegalArgumentException("Valor inválido para limit: " + limite);
+        }
+        int tamanoPagina = Math.min(limite == null ? limiteDefecto : limite, limiteMaximo);
+        return nuevaSolicitud(campo, descendente, cursor, tamanoPagina);
+    }
+
+    private static <T, K extends Comparable<? super K>> Solicitud<T, K> nuevaSolicitud(
+            CampoOrden<T, K> campo, boolean descendente, String cursor, int limite) {
+        Posicion<K> despues = null;
+        if (cursor != null && !cursor.trim().isEmpty()) {
+            despues = decodificar(campo, descendente, cursor.trim());
+        }
+        return new Solicitud<>(campo, descendente, despues, limite);
+    }
+
+    private String nombresCampos() {
+        List<String> nombres = new ArrayList<>();
+        for (CampoOrden<T, ?> campo : campos.values()) {
+            nombres.add(campo.nombre);
+        }
+        return String.join(", ", nombres);
+    }
+
+    /**
+     * Una petición de página ya validada.
+     */
+    static final class Solicitud<T, K extends Comparable<? super K>> {
+        private final CampoOrden<T, K> campo;
+        private final boolean descendente;
+        private final Posicion<K> despues;
+        private final int limite;
+
+        private Solicitud(CampoOrden<T, K> campo, boolean descendente, Posicion<K> despues, int limite) {
+            this.campo = campo;
+            this.descendente = descendente;
+            this.despues = despues;
+            this.limite = limite;
+        }
+
+        /**
+         * Recorre el índice ordenado desde el cursor y se detiene al completar la página:
+         * el costo depende del tamaño de página (y de la selectividad del filtro), no de la
+         * colección. Debe llamarse con el lock de lectura de la tabla tomado.
+         */
+        Pagina<T> recorrer(Predicate<T> filtro) {
+            List<T> elementos = new ArrayList<>(limite + 1);
+            for (T registro : campo.indice.despuesDe(despues, descendente)) {
+                if (filtro.test(registro)) {
+                    elementos.add(registro);
+                    if (elementos.size() > limite) {
+                        break;
+                    }
+                }
+            }
+            return armar(elementos);
+        }
+
+        /**
+         * Ordena un conjunto de resultados ya filtrado (pocos candidatos de los índices)
+         * y corta la página a partir del cursor.
+         */
+        Pagina<T> paginar(List<T> resultados) {
+            Comparator<T> comparador = campo.indice.comparador();
+            resultados.sort(descendente ? comparador.reversed() : comparador);
+            List<T> elementos = new ArrayList<>(Math.min(resultados.size(), limite + 1));
+            for (T registro : resultados) {
+                if (despues != null && !esPosterior(campo.indice.posicionDe(registro))) {
+                    continue;
+                }
+                elementos.add(registro);
+                if (elementos.size() > limite) {
+                    break;
+                }
+            }
+            return armar(elementos);
+        }
+
+        private boolean esPosterior(Posicion<K> posicion) {
+            int comparacion = posicion.compareTo(despues);
+            return descendente ? comparacion < 0 : comparacion > 0;
+        }
+
+        private Pagina<T> armar(List<T> elementos) {
+            if (elementos.size() <= limite) {
+                return new Pagina<>(elementos, null);
+            }
+            elementos.remove(limite);
+            T ultimo = elementos.get(limite - 1);
+            return new Pagina<>(elementos, codificar(campo, descendente, campo.indice.posicionDe(ultimo)));
+        }
+    }
+
+    // Cursor: campo, dirección, valor (prefijo "v", vacío si es null) y clave, cada parte en base64url
+    private static <T, K extends Comparable<? super K>> String codificar(CampoOrden<T, K> campo, boolean descendente,
+                                                                        Posicion<K> posicion) {
+        String valor = posicion.getValor() == null ? "" : "v" + posicion.getValor();
+        return parte(campo.nombre) + "." + (descendente ? "d" : "a") + "." + parte(valor) + "." + parte(posicion.getClave());
+    }
+
+    private static <T, K extends Comparable<? super K>> Posicion<K> decodificar(CampoOrden<T, K> campo,
+                                                                               boolean descendente, String cursor) {
+        String[] partes = cursor.split("\\.", -1);
+        String nombre;
+        String valor;
+        String clave;
+        try {
+            if (partes.length != 4) {
+                throw new IllegalArgumentException();
+            }
+            nombre = texto(partes[0]);
+            valor = texto(partes[2]);
+            clave = texto(partes[3]);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor inválido: " + cursor);
+        }
+        if (!campo.nombre.equals(nombre) || !partes[1].equals(descendente ? "d" : "a")) {
+            throw new IllegalArgumentException("El cursor pertenece a otro orden; use el mismo sort de la primera página");
+        }
+        try {
+            K leido = valor.isEmpty() ? null : campo.lector.apply(valor.substring(1));
+            return new Posicion<>(leido, clave);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Cursor inválido: " + cursor);
+        }
+    }
+
+    private static String parte(String texto) {
+        return CODIFICADOR.encodeToString(texto.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String texto(String parte) {
+        return new String(DECODIFICADOR.decode(parte), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,97 @@
+package cal.example.POCEmpleado.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Conversión y validación de los valores de filtro al compilar una consulta.
+ * Acepta tanto valores ya tipados como los String crudos de los parámetros HTTP;
+ * un valor inválido lanza IllegalArgumentException antes de recorrer los datos.
+ */
+final class ValoresFiltro {
+
+    static final DateTimeFormatter FORMATO_FECHA_HORA = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private ValoresFiltro() {
+    }
+
+    static String texto(Object valor) {
+        String texto = valor.toString().trim();
+        return texto.isEmpty() ? null : texto;
+    }
+
+    static int entero(Object valor, String etiqueta) {
+        if (valor instanceof Number) {
+            return ((Number) valor).intValue();
+        }
+        try {
+            return Integer.parseInt(valor.toString().trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Valor inválido para " + etiqueta + ": " + valor);
+        }
+    }
+
+    static double decimal(Object valor, String etiqueta) {
+        if (valor instanceof Number) {
+            return ((Number) valor).doubleValue();
+        }
+        try {
+            return Double.parseDouble(valor.toString().trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Valor inválido para " + etiqueta + ": " + valor);
+        }
+    }
+
+    static boolean booleano(Object valor, String etiqueta) {
+        if (valor instanceof Boolean) {
+            return (Boolean) valor;
+        }
+        String texto = valor.toString().trim();
+        if ("true".equalsIgnoreCase(texto)) {
+            return true;
+        }
+        if ("false".equalsIgnoreCase(texto)) {
+            return false;
+        }
+        throw new IllegalArgumentException("Valor inválido para " + etiqueta + ": " + valor);
+    }
+
+    /**
+     * Acepta "yyyy-MM-dd HH:mm:ss" o solo "yyyy-MM-dd" (inicio o fin del día según finDelDia).
+     */
+    static LocalDateTime fecha(Object valor, boolean finDelDia) {
+        if (valor instanceof LocalDateTime) {
+            return (LocalDateTime) valor;
+        }
+        String texto = valor.toString().trim();
+        try {
+            return LocalDateTime.parse(texto, FORMATO_FECHA_HORA);
+        } catch (DateTimeParseException e) {
+            try {
+                LocalDate dia = LocalDate.parse(texto);
+                return finDelDia ? dia.atTime(23, 59, 59) : dia.atStartOfDay();
+            } catch (DateTimeParseException e2) {
+                throw new IllegalArgumentException("Valor inválido para fecha: " + valor
+                        + " (formato esperado yyyy-MM-dd HH:mm:ss)");
+            }
+        }
+    }
+
+    /**
+     * contains() sin distinguir mayúsculas y sin crear cadenas intermedias.
+     */
+    static boolean contiene(String texto, String buscado) {
+        if (texto == null) {
+            return false;
+        }
+        int limite = texto.length() - buscado.length();
+        for (int i = 0; i <= limite; i++) {
+            if (texto.regionMatches(true, i, buscado, 0, buscado.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,183 @@
+package cal.example.POCEmpleado.store;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Bytes JSON (UTF-8) ya serializados de cada registro, para armar las respuestas de listado
+ * concatenando fragmentos en lugar de recorrer cada objeto con el serializador.
+ *
+ * Un fragmento se sirve solo si se generó a partir de la misma instancia que se está escribiendo
+ * y con la versión actual del registro (TablaIndexada.versionDe): todo cambio reemplaza la instancia
+ * y cambia la versión. La versión se lee antes de serializar, así que un fragmento generado durante
+ * una escritura queda viejo y no se reutiliza.
+ * Como índice secundario, suelta el fragmento cuando el registro se reemplaza o se elimina.
+ *
+ * El tamaño se limita por bytes (JSON más una sobrecarga fija por entrada): al superar el máximo
+ * se desalojan fragmentos en el orden de recorrido del mapa, que no depende del uso (desalojo
+ * aleatorio). Es más barato que un LRU, que obligaría a sincronizar cada lectura, y un listado
+ * que no cabe entero en la caché igual se sirve serializando lo que falte.
+ *
+ * @param <T> tipo de los registros
+ */
+public class CacheFragmentos<T> implements IndiceSecundario<T> {
+
+    private static final class Fragmento<T> {
+        final T registro;
+        final long version;
+        final byte[] bytes;
+
+        Fragmento(T registro, long version, byte[] bytes) {
+            this.registro = registro;
+            this.version = version;
+            this.bytes = bytes;
+        }
+    }
+
+    // Objetos por entrada además del JSON: nodo del mapa, Fragmento, cabecera del byte[] y la clave
+    static final int SOBRECARGA_ENTRADA = 160;
+
+    private final Function<T, String> extractorClave;
+    private final ToLongFunction<String> versionDe;
+    private final Function<T, byte[]> serializador;
+    private final long maxBytes;
+    private final Map<String, Fragmento<T>> fragmentos = new ConcurrentHashMap<>();
+    private final AtomicLong bytes = new AtomicLong();
+
+    private final LongAdder aciertos = new LongAdder();
+    private final LongAdder fallos = new LongAdder();
+    private final LongAdder desalojos = new LongAdder();
+
+    /**
+     * @param maxBytes tope de memoria de la caché (0 = no guarda fragmentos)
+     */
+    public CacheFragmentos(Function<T, String> extractorClave, ToLongFunction<String> versionDe,
+                           Function<T, byte[]> serializador, long maxBytes) {
+        this.extractorClave = extractorClave;
+        this.versionDe = versionDe;
+        this.serializador = serializador;
+        this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public void agregar(int fila, T registro) {
+        // Se serializa al primer uso
+    }
+
+    @Override
+    public void quitar(int fila, T registro) {
+        Fragmento<T> fragmento = fragmentos.remove(TablaIndexada.normalizar(extractorClave.apply(registro)));
+        if (fragmento != null) {
+            bytes.addAndGet(-peso(fragmento));
+        }
+    }
+
+    @Override
+    public void mover(int desde, int hasta, T registro) {
+        // El fragmento no depende de la fila
+    }
+
+    @Override
+    public void limpiar() {
+        // Entrada por entrada: un clear() descontaría mal los fragmentos agregados mientras tanto
+        for (Map.Entry<String, Fragmento<T>> entrada : fragmentos.entrySet()) {
+            quitarSiSigue(entrada.getKey(), entrada.getValue());
+        }
+    }
+
+    /**
+     * Bytes JSON del registro: los cacheados si siguen vigentes o recién serializados.
+     */
+    public byte[] fragmento(T registro) {
+        String clave = TablaIndexada.normalizar(extractorClave.apply(registro));
+        long version = versionDe.applyAsLong(clave);
+        Fragmento<T> fragmento = fragmentos.get(clave);
+        if (fragmento != null && fragmento.registro == registro && fragmento.version == version) {
+            aciertos.increment();
+            return fragmento.bytes;
+        }
+        fallos.increment();
+        byte[] json = serializador.apply(registro);
+        if (version >= 0 && json.length + SOBRECARGA_ENTRADA <= maxBytes) {
+            Fragmento<T> nuevo = new Fragmento<>(registro, version, json);
+            Fragmento<T> anterior = fragmentos.put(clave, nuevo);
+            bytes.addAndGet(peso(nuevo) - (anterior == null ? 0 : peso(anterior)));
+            // Eliminado mientras se serializaba: no debe quedar un fragmento huérfano
+            if (versionDe.applyAsLong(clave) < 0) {
+                quitarSiSigue(clave, nuevo);
+            }
+            if (bytes.get() > maxBytes) {
+                desalojar(clave);
+            }
+        }
+        return json;
+    }
+
+    // Quita fragmentos hasta volver al máximo, sin tocar el que se acaba de guardar
+    private void desalojar(String recienGuardado) {
+        Iterator<Map.Entry<String, Fragmento<T>>> it = fragmentos.entrySet().iterator();
+        while (bytes.get() > maxBytes && it.hasNext()) {
+            Map.Entry<String, Fragmento<T>> entrada = it.next();
+            if (!entrada.getKey().equals(recienGuardado) && quitarSiSigue(entrada.getKey(), entrada.getValue())) {
+                desalojos.increment();
+            }
+        }
+    }
+
+    private boolean quitarSiSigue(String clave, Fragmento<T> fragmento) {
+        if (fragmentos.remove(clave, fragmento)) {
+            bytes.addAndGet(-peso(fragmento));
+            return true;
+        }
+        return false;
+    }
+
+    private static long peso(Fragmento<?> fragmento) {
+        return fragmento.bytes.length + SOBRECARGA_ENTRADA;
+    }
+
+    /**
+     * Arreglo JSON con los fragmentos de los registros, en el orden de la lista.
+     */
+    public byte[] arreglo(List<T> registros) {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream(Math.max(64, registros.size() * 256));
+        salida.write('[');
+        boolean primero = true;
+        for (T registro : registros) {
+            if (!primero) {
+                salida.write(',');
+            }
+            salida.writeBytes(fragmento(registro));
+            primero = false;
+        }
+        salida.write(']');
+        return salida.toByteArray();
+    }
+
+    /**
+     * Métricas de uso: fragmentos cacheados, bytes ocupados, aciertos, fallos, tasa de aciertos
+     * y desalojos por tamaño.
+     */
+    public Map<String, Object> metricas() {
+        long totalAciertos = aciertos.sum();
+        long totalFallos = fallos.sum();
+        long consultas = totalAciertos + totalFallos;
+        Map<String, Object> metricas = new LinkedHashMap<>();
+        metricas.put("fragmentos", fragmentos.size());
+        metricas.put("bytes", bytes.get());
+        metricas.put("maxBytes", maxBytes);
+        metricas.put("aciertos", totalAciertos);
+        metricas.put("fallos", totalFallos);
+        metricas.put("tasaAciertos", consultas == 0 ? 0.0 : (double) totalAciertos / consultas);
+        metricas.put("desalojos", desalojos.sum());
+        return metricas;
+    }
+}
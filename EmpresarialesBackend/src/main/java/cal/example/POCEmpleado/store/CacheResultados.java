@@ -0,0 +1,136 @@
+package cal.example.POCEmpleado.store;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caché acotada de resultados de consultas, invalidada por la versión de la tabla.
+ *
+ * Cada resultado se guarda con la versión de la tabla (TablaIndexada.version()) con la que se
+ * calculó; al leerlo con otra versión se descarta, así que cualquier mutación invalida todas las
+ * entradas sin recorrerlas. La versión debe leerse ANTES de calcular el resultado: si una escritura
+ * ocurre mientras tanto, el resultado queda guardado con una versión ya vieja y nunca se sirve.
+ *
+ * Desalojo LRU por cantidad de entradas y por peso (suma de los tamaños de los resultados):
+ * unos pocos listados enormes no pueden ocupar la memoria que usarían muchos listados chicos.
+ * Un resultado que por sí solo supera el peso máximo no se guarda.
+ *
+ * @param <T> tipo de los registros
+ */
+public class CacheResultados<T> {
+
+    private static final class Entrada<T> {
+        final long version;
+        final List<T> resultado;
+
+        Entrada(long version, List<T> resultado) {
+            this.version = version;
+            this.resultado = resultado;
+        }
+    }
+
+    private final int maxEntradas;
+    private final long maxPeso;
+    // Orden de acceso: el primer elemento es el menos usado recientemente
+    private final LinkedHashMap<List<String>, Entrada<T>> entradas = new LinkedHashMap<>(16, 0.75f, true);
+    private long peso;
+
+    private final LongAdder aciertos = new LongAdder();
+    private final LongAdder fallos = new LongAdder();
+    private final LongAdder desalojos = new LongAdder();
+    private final LongAdder invalidaciones = new LongAdder();
+
+    public CacheResultados(int maxEntradas, long maxPeso) {
+        this.maxEntradas = maxEntradas;
+        this.maxPeso = maxPeso;
+    }
+
+    /**
+     * Clave de una consulta: su nombre seguido de sus condiciones en forma canónica y ordenadas
+     * (ConsultaCarro.getClave / ConsultaMantenimiento.getClave). Así dos peticiones equivalentes
+     * comparten la entrada aunque usen otro alias, otro orden u otra escritura de un valor.
+     */
+    public static List<String> clave(String consulta, List<String> condiciones) {
+        List<String> clave = new ArrayList<>(1 + condiciones.size());
+        clave.add(consulta);
+        clave.addAll(condiciones);
+        return clave;
+    }
+
+    /**
+     * Resultado guardado para la clave, o null si no existe o se calculó con otra versión.
+     */
+    public synchronized List<T> obtener(List<String> clave, long version) {
+        Entrada<T> entrada = entradas.get(clave);
+        if (entrada == null) {
+            fallos.increment();
+            return null;
+        }
+        if (entrada.version != version) {
+            entradas.remove(clave);
+            peso -= pesoDe(entrada);
+            invalidaciones.increment();
+            fallos.increment();
+            return null;
+        }
+        aciertos.increment();
+        return entrada.resultado;
+    }
+
+    /**
+     * Guarda el resultado (como lista no modificable, que es la que se devuelve) y desaloja
+     * las entradas menos usadas hasta volver a los límites.
+     */
+    public synchronized List<T> guardar(List<String> clave, long version, List<T> resultado) {
+        List<T> inmutable = Collections.unmodifiableList(resultado);
+        Entrada<T> nueva = new Entrada<>(version, inmutable);
+        if (pesoDe(nueva) > maxPeso) {
+            return inmutable;
+        }
+        Entrada<T> anterior = entradas.put(clave, nueva);
+        if (anterior != null) {
+            peso -= pesoDe(anterior);
+        }
+        peso += pesoDe(nueva);
+        Iterator<Entrada<T>> menosUsadas = entradas.values().iterator();
+        while ((entradas.size() > maxEntradas || peso > maxPeso) && menosUsadas.hasNext()) {
+            Entrada<T> desalojada = menosUsadas.next();
+            menosUsadas.remove();
+            peso -= pesoDe(desalojada);
+            desalojos.increment();
+        }
+        return inmutable;
+    }
+
+    // Una unidad por registro referenciado más una por la entrada (los resultados vacíos también ocupan)
+    private static long pesoDe(Entrada<?> entrada) {
+        return entrada.resultado.size() + 1L;
+    }
+
+    /**
+     * Métricas de uso: entradas, peso, aciertos, fallos, tasa de aciertos, desalojos e invalidaciones.
+     */
+    public Map<String, Object> metricas() {
+        long totalAciertos = aciertos.sum();
+        long totalFallos = fallos.sum();
+        long consultas = totalAciertos + totalFallos;
+        Map<String, Object> metricas = new LinkedHashMap<>();
+        synchronized (this) {
+            metricas.put("entradas", entradas.size());
+            metricas.put("maxEntradas", maxEntradas);
+            metricas.put("peso", peso);
+            metricas.put("maxPeso", maxPeso);
+        }
+        metricas.put("aciertos", totalAciertos);
+        metricas.put("fallos", totalFallos);
+        metricas.put("tasaAciertos", consultas == 0 ? 0.0 : (double) totalAciertos / consultas);
+        metricas.put("desalojos", desalojos.sum());
+        metricas.put("invalidaciones", invalidaciones.sum());
+        return metricas;
+    }
+}
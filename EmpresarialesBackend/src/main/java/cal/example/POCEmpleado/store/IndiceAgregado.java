@@ -0,0 +1,72 @@
+package cal.example.POCEmpleado.store;
+
+import java.util.List;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Conteo y suma de un campo numérico mantenidos en cada mutación.
+ * Usa sumadores por celdas (LongAdder/DoubleAdder): las estadísticas se leen en O(1)
+ * y sin tomar el lock de la tabla, aunque haya escrituras concurrentes.
+ *
+ * @param <T> tipo de los registros
+ */
+public class IndiceAgregado<T> implements IndiceSecundario<T> {
+
+    private final ToDoubleFunction<T> extractor;
+    private final LongAdder cantidad = new LongAdder();
+    private final DoubleAdder suma = new DoubleAdder();
+
+    public IndiceAgregado(ToDoubleFunction<T> extractor) {
+        this.extractor = extractor;
+    }
+
+    @Override
+    public void agregar(int fila, T registro) {
+        cantidad.increment();
+        suma.add(extractor.applyAsDouble(registro));
+    }
+
+    @Override
+    public void quitar(int fila, T registro) {
+        cantidad.decrement();
+        suma.add(-extractor.applyAsDouble(registro));
+    }
+
+    @Override
+    public void mover(int desde, int hasta, T registro) {
+        // El conteo y la suma no dependen de la fila
+    }
+
+    @Override
+    public void limpiar() {
+        cantidad.reset();
+        suma.reset();
+    }
+
+    public long cantidad() {
+        return cantidad.sum();
+    }
+
+    public double suma() {
+        return suma.sum();
+    }
+
+    /**
+     * Lo mismo que suma(), recorriendo las filas: mientras el índice se carga
+     * (TablaIndexada.indicesListos).
+     */
+    public double suma(List<T> filas) {
+        double total = 0;
+        for (T registro : filas) {
+            total += extractor.applyAsDouble(registro);
+        }
+        return total;
+    }
+
+    public double promedio() {
+        long n = cantidad.sum();
+        return n == 0 ? 0.0 : suma.sum() / n;
+    }
+}
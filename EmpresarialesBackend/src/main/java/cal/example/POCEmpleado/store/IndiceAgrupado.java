@@ -0,0 +1,107 @@
+package cal.example.POCEmpleado.store;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+/**
+ * Índice secundario de agrupación: clave de grupo (normalizada) → registros del grupo,
+ * mantenidos en el orden indicado. Permite leer o eliminar todos los registros de un grupo
+ * sin recorrer la tabla completa.
+ *
+ * El comparador debe ser total (desempatar por clave primaria) y usar campos que no cambien
+ * mientras el registro está en la tabla.
+ *
+ * @param <T> tipo de los registros
+ */
+public class IndiceAgrupado<T> implements IndiceSecundario<T> {
+
+    private final Function<T, String> extractorGrupo;
+    private final Comparator<T> orden;
+    private final Map<String, NavigableSet<T>> grupos = new HashMap<>();
+
+    public IndiceAgrupado(Function<T, String> extractorGrupo, Comparator<T> orden) {
+        this.extractorGrupo = extractorGrupo;
+        this.orden = orden;
+    }
+
+    @Override
+    public void agregar(int fila, T registro) {
+        String grupo = TablaIndexada.normalizar(extractorGrupo.apply(registro));
+        if (grupo != null) {
+            grupos.computeIfAbsent(grupo, g -> new TreeSet<>(orden)).add(registro);
+        }
+    }
+
+    @Override
+    public void quitar(int fila, T registro) {
+        String grupo = TablaIndexada.normalizar(extractorGrupo.apply(registro));
+        NavigableSet<T> registros = grupo == null ? null : grupos.get(grupo);
+        if (registros != null) {
+            registros.remove(registro);
+            if (registros.isEmpty()) {
+                grupos.remove(grupo);
+            }
+        }
+    }
+
+    @Override
+    public void mover(int desde, int hasta, T registro) {
+        // No guarda números de fila
+    }
+
+    @Override
+    public void limpiar() {
+        grupos.clear();
+    }
+
+    @Override
+    public void cargar(List<T> registros) {
+        Map<String, List<T>> porGrupo = new HashMap<>();
+        for (T registro : registros) {
+            String grupo = TablaIndexada.normalizar(extractorGrupo.apply(registro));
+            if (grupo != null) {
+                porGrupo.computeIfAbsent(grupo, g -> new ArrayList<>()).add(registro);
+            }
+        }
+        porGrupo.values().parallelStream().forEach(grupo -> grupo.sort(orden));
+        porGrupo.forEach((grupo, ordenados) -> grupos.put(grupo, Ordenados.conjunto(orden, ordenados)));
+    }
+
+    /**
+     * Copia de los registros del grupo, en el orden del índice.
+     */
+    public List<T> buscar(String grupo) {
+        NavigableSet<T> registros = grupos.get(TablaIndexada.normalizar(grupo));
+        return registros == null ? new ArrayList<>() : new ArrayList<>(registros);
+    }
+
+    /**
+     * Lo mismo que buscar(grupo), recorriendo las filas: mientras el índice se carga
+     * (TablaIndexada.indicesListos).
+     */
+    public List<T> buscar(List<T> filas, String grupo) {
+        String clave = TablaIndexada.normalizar(grupo);
+        List<T> registros = new ArrayList<>();
+        if (clave == null) {
+            return registros;
+        }
+        for (T registro : filas) {
+            if (clave.equals(TablaIndexada.normalizar(extractorGrupo.apply(registro)))) {
+                registros.add(registro);
+            }
+        }
+        registros.sort(orden);
+        return registros;
+    }
+
+    public int contar(String grupo) {
+        NavigableSet<T> registros = grupos.get(TablaIndexada.normalizar(grupo));
+        return registros == null ? 0 : registros.size();
+    }
+}
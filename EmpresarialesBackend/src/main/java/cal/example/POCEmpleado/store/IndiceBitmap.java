@@ -0,0 +1,78 @@
+package cal.example.POCEmpleado.store;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Índice de mapas de bits para campos de baja cardinalidad: valor → BitSet de filas.
+ * Con pocos valores distintos cada bitmap ocupa ~N/8 bytes y una consulta por varios
+ * campos se resuelve con AND de bitmaps en lugar de comparar fila por fila.
+ *
+ * @param <T> tipo de los registros
+ * @param <V> tipo del valor indexado
+ */
+public class IndiceBitmap<T, V> implements IndiceSecundario<T> {
+
+    private final Function<T, V> extractor;
+    private final Map<V, BitSet> bitmaps = new HashMap<>();
+
+    public IndiceBitmap(Function<T, V> extractor) {
+        this.extractor = extractor;
+    }
+
+    @Override
+    public void agregar(int fila, T registro) {
+        bitmaps.computeIfAbsent(extractor.apply(registro), v -> new BitSet()).set(fila);
+    }
+
+    @Override
+    public void quitar(int fila, T registro) {
+        V valor = extractor.apply(registro);
+        BitSet filas = bitmaps.get(valor);
+        if (filas != null) {
+            filas.clear(fila);
+            if (filas.isEmpty()) {
+                bitmaps.remove(valor);
+            }
+        }
+    }
+
+    @Override
+    public void mover(int desde, int hasta, T registro) {
+        BitSet filas = bitmaps.get(extractor.apply(registro));
+        if (filas != null) {
+            filas.clear(desde);
+            filas.set(hasta);
+        }
+    }
+
+    @Override
+    public void limpiar() {
+        bitmaps.clear();
+    }
+
+    /**
+     * Copia del bitmap de filas con exactamente ese valor.
+     */
+    public BitSet filasCon(V valor) {
+        BitSet filas = bitmaps.get(valor);
+        return filas == null ? new BitSet() : (BitSet) filas.clone();
+    }
+
+    /**
+     * Unión de los bitmaps de los valores distintos que cumplen la condición.
+     * La condición se evalúa una vez por valor distinto, no por fila.
+     */
+    public BitSet filasDonde(Predicate<V> condicion) {
+        BitSet resultado = new BitSet();
+        for (Map.Entry<V, BitSet> entrada : bitmaps.entrySet()) {
+            if (condicion.test(entrada.getKey())) {
+                resultado.or(entrada.getValue());
+            }
+        }
+        return resultado;
+    }
+}
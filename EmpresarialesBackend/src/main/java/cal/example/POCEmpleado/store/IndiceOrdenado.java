@@ -0,0 +1,126 @@
+package cal.example.POCEmpleado.store;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Índice que mantiene los registros ordenados por un campo, con la clave única del registro
+ * como desempate. Cada registro ocupa una posición (valor, clave) estable: es la base de la
+ * paginación por keyset, donde la página siguiente empieza justo después de la última
+ * posición devuelta aunque entre páginas se inserten o eliminen registros.
+ *
+ * @param <T> tipo de los registros
+ * @param <K> tipo del campo de orden
+ */
+public class IndiceOrdenado<T, K extends Comparable<? super K>> implements IndiceSecundario<T> {
+
+    /**
+     * Posición de un registro en el orden: valor del campo (null primero) y clave única.
+     */
+    public static final class Posicion<K extends Comparable<? super K>> implements Comparable<Posicion<K>> {
+
+        private final K valor;
+        private final String clave;
+
+        public Posicion(K valor, String clave) {
+            this.valor = valor;
+            this.clave = clave;
+        }
+
+        public K getValor() {
+            return valor;
+        }
+
+        public String getClave() {
+            return clave;
+        }
+
+        @Override
+        public int compareTo(Posicion<K> otra) {
+            if (valor != otra.valor) {
+                if (valor == null) {
+                    return -1;
+                }
+                if (otra.valor == null) {
+                    return 1;
+                }
+                int comparacion = valor.compareTo(otra.valor);
+                if (comparacion != 0) {
+                    return comparacion;
+                }
+            }
+            return clave.compareTo(otra.clave);
+        }
+    }
+
+    private final Function<T, K> extractor;
+    private final Function<T, String> extractorClave;
+    private TreeMap<Posicion<K>, T> orden = new TreeMap<>();
+
+    /**
+     * @param extractor      campo de orden
+     * @param extractorClave clave única del registro (la misma de la tabla)
+     */
+    public IndiceOrdenado(Function<T, K> extractor, Function<T, String> extractorClave) {
+        this.extractor = extractor;
+        this.extractorClave = extractorClave;
+    }
+
+    @Override
+    public void agregar(int fila, T registro) {
+        orden.put(posicionDe(registro), registro);
+    }
+
+    @Override
+    public void quitar(int fila, T registro) {
+        orden.remove(posicionDe(registro));
+    }
+
+    @Override
+    public void mover(int desde, int hasta, T registro) {
+        // No guarda números de fila
+    }
+
+    @Override
+    public void limpiar() {
+        orden.clear();
+    }
+
+    @Override
+    public void cargar(List<T> registros) {
+        List<Map.Entry<Posicion<K>, T>> entradas = registros.parallelStream()
+                .map(registro -> Map.entry(posicionDe(registro), registro))
+                .sorted(Map.Entry.comparingByKey())
+                .toList();
+        orden = Ordenados.mapa(null, entradas);
+    }
+
+    public Posicion<K> posicionDe(T registro) {
+        return new Posicion<>(extractor.apply(registro), TablaIndexada.normalizar(extractorClave.apply(registro)));
+    }
+
+    /**
+     * Registros estrictamente después de la posición indicada (desde el principio si es null),
+     * en orden ascendente o descendente. Es una vista del árbol: solo debe recorrerse con el
+     * lock de lectura de la tabla tomado.
+     */
+    public Iterable<T> despuesDe(Posicion<K> posicion, boolean descendente) {
+        NavigableMap<Posicion<K>, T> vista = descendente ? orden.descendingMap() : orden;
+        if (posicion != null) {
+            vista = vista.tailMap(posicion, false);
+        }
+        return vista.values();
+    }
+
+    public Comparator<T> comparador() {
+        return Comparator.comparing(this::posicionDe);
+    }
+
+    public int tamano() {
+        return orden.size();
+    }
+}
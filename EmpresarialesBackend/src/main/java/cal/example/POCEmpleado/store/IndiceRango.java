@@ -0,0 +1,86 @@
+package cal.example.POCEmpleado.store;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Índice ordenado sobre un campo numérico: valor → filas con ese valor.
+ * Una consulta por rango recorre solo la porción del árbol que cumple los límites.
+ *
+ * @param <T> tipo de los registros
+ */
+public class IndiceRango<T> implements IndiceSecundario<T> {
+
+    private final ToDoubleFunction<T> extractor;
+    private TreeMap<Double, ListaFilas> valores = new TreeMap<>();
+
+    public IndiceRango(ToDoubleFunction<T> extractor) {
+        this.extractor = extractor;
+    }
+
+    @Override
+    public void agregar(int fila, T registro) {
+        valores.computeIfAbsent(extractor.applyAsDouble(registro), v -> new ListaFilas()).agregar(fila);
+    }
+
+    @Override
+    public void quitar(int fila, T registro) {
+        double valor = extractor.applyAsDouble(registro);
+        ListaFilas filas = valores.get(valor);
+        if (filas != null && filas.quitar(fila) && filas.estaVacia()) {
+            valores.remove(valor);
+        }
+    }
+
+    @Override
+    public void mover(int desde, int hasta, T registro) {
+        ListaFilas filas = valores.get(extractor.applyAsDouble(registro));
+        if (filas != null) {
+            filas.reemplazar(desde, hasta);
+        }
+    }
+
+    @Override
+    public void limpiar() {
+        valores.clear();
+    }
+
+    @Override
+    public void cargar(List<T> registros) {
+        // Pocos valores distintos frente a registros: se agrupa por hash y se ordenan solo los valores
+        Map<Double, ListaFilas> porValor = new HashMap<>();
+        for (int fila = 0; fila < registros.size(); fila++) {
+            porValor.computeIfAbsent(extractor.applyAsDouble(registros.get(fila)), v -> new ListaFilas()).agregar(fila);
+        }
+        List<Map.Entry<Double, ListaFilas>> entradas = new ArrayList<>(porValor.entrySet());
+        entradas.sort(Map.Entry.comparingByKey());
+        valores = Ordenados.mapa(null, entradas);
+    }
+
+    /**
+     * Filas cuyo valor está en [minimo, maximo]; un límite null significa sin límite.
+     */
+    public BitSet filasEntre(Double minimo, Double maximo) {
+        BitSet resultado = new BitSet();
+        if (minimo != null && maximo != null && minimo > maximo) {
+            return resultado;
+        }
+        NavigableMap<Double, ListaFilas> rango = valores;
+        if (minimo != null) {
+            rango = rango.tailMap(minimo, true);
+        }
+        if (maximo != null) {
+            rango = rango.headMap(maximo, true);
+        }
+        for (ListaFilas filas : rango.values()) {
+            filas.marcarEn(resultado);
+        }
+        return resultado;
+    }
+}
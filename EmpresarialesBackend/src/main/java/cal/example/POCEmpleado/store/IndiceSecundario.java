@@ -0,0 +1,38 @@
+package cal.example.POCEmpleado.store;
+
+import java.util.List;
+
+/**
+ * Índice secundario mantenido por TablaIndexada en cada mutación.
+ * La tabla lo notifica dentro de la misma operación que modifica los registros,
+ * de modo que el índice nunca queda desfasado respecto de los datos.
+ *
+ * @param <T> tipo de los registros
+ */
+public interface IndiceSecundario<T> {
+
+    void agregar(int fila, T registro);
+
+    void quitar(int fila, T registro);
+
+    /**
+     * El registro cambió de fila (swap-remove). Los índices que no guardan números de fila
+     * pueden ignorarlo.
+     */
+    default void mover(int desde, int hasta, T registro) {
+        quitar(desde, registro);
+        agregar(hasta, registro);
+    }
+
+    void limpiar();
+
+    /**
+     * Carga masiva sobre el índice vacío: el registro i ocupa la fila i. Por defecto agrega
+     * uno por uno; los índices con árboles ordenan una vez y arman el árbol en tiempo lineal.
+     */
+    default void cargar(List<T> registros) {
+        for (int fila = 0; fila < registros.size(); fila++) {
+            agregar(fila, registros.get(fila));
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package cal.example.POCEmpleado.store;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Índice ordenado por fecha sobre los registros que cumplen una condición
+ * (por ejemplo, mantenimientos pendientes ordenados por proximoMantenimiento).
+ * Las consultas "todo lo que vence antes de X" son una lectura de rango del árbol,
+ * ya ordenada, sin recorrer ni ordenar la colección completa.
+ *
+ * @param <T> tipo de los registros
+ */
+public class IndiceTemporal<T> implements IndiceSecundario<T> {
+
+    private final Function<T, LocalDateTime> extractorFecha;
+    private final Predicate<T> incluir;
+    private final TreeMap<LocalDateTime, List<T>> porFecha = new TreeMap<>();
+    private int tamano;
+
+    public IndiceTemporal(Function<T, LocalDateTime> extractorFecha, Predicate<T> incluir) {
+        this.extractorFecha = extractorFecha;
+        this.incluir = incluir;
+    }
+
+    @Override
+    public void agregar(int fila, T registro) {
+        LocalDateTime fecha = extractorFecha.apply(registro);
+        if (fecha == null || !incluir.test(registro)) {
+            return;
+        }
+        porFecha.computeIfAbsent(fecha, f -> new ArrayList<>(1)).add(registro);
+        tamano++;
+    }
+
+    @Override
+    public void quitar(int fila, T registro) {
+        LocalDateTime fecha = extractorFecha.apply(registro);
+        if (fecha == null) {
+            return;
+        }
+        List<T> registros = porFecha.get(fecha);
+        if (registros != null && registros.remove(registro)) {
+            tamano--;
+            if (registros.isEmpty()) {
+                porFecha.remove(fecha);
+            }
+        }
+    }
+
+    @Override
+    public void mover(int desde, int hasta, T registro) {
+        // No guarda números de fila
+    }
+
+    @Override
+    public void limpiar() {
+        porFecha.clear();
+        tamano = 0;
+    }
+
+    /**
+     * Registros con fecha anterior a límite, en orden de fecha.
+     */
+    public List<T> antesDe(LocalDateTime limite) {
+        return copiar(porFecha.headMap(limite, false));
+    }
+
+    /**
+     * Lo mismo que antesDe(limite), recorriendo las filas: mientras el índice se carga
+     * (TablaIndexada.indicesListos).
+     */
+    public List<T> antesDe(List<T> filas, LocalDateTime limite) {
+        List<T> resultado = new ArrayList<>();
+        for (T registro : filas) {
+            LocalDateTime fecha = extractorFecha.apply(registro);
+            if (fecha != null && fecha.isBefore(limite) && incluir.test(registro)) {
+                resultado.add(registro);
+            }
+        }
+        resultado.sort(Comparator.comparing(extractorFecha));
+        return resultado;
+    }
+
+    /**
+     * Registros con fecha en [desde, hasta), en orden de fecha.
+     */
+    public List<T> entre(LocalDateTime desde, LocalDateTime hasta) {
+        if (!desde.isBefore(hasta)) {
+            return new ArrayList<>();
+        }
+        return copiar(porFecha.subMap(desde, true, hasta, false));
+    }
+
+    /**
+     * Todos los registros indexados, en orden de fecha.
+     */
+    public List<T> todos() {
+        return copiar(porFecha);
+    }
+
+    public int tamano() {
+        return tamano;
+    }
+
+    private static <T> List<T> copiar(NavigableMap<LocalDateTime, List<T>> rango) {
+        List<T> resultado = new ArrayList<>();
+        for (List<T> registros : rango.values()) {
+            resultado.addAll(registros);
+        }
+        return resultado;
+    }
+}
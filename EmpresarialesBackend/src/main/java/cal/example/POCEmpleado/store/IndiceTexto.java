@@ -0,0 +1,146 @@
+package cal.example.POCEmpleado.store;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Índice invertido de trigramas para filtros "contiene" sin distinguir mayúsculas.
+ *
+ * Se indexan los valores distintos del campo (una marca o un color se repite en miles de
+ * filas): valor → filas que lo tienen, y trigrama → valores que lo contienen. Una búsqueda
+ * intersecta los conjuntos de sus trigramas y verifica solo los valores candidatos, así
+ * que el costo depende del número de valores distintos que coinciden y no del total de filas.
+ * Búsquedas de menos de tres caracteres recorren los valores distintos.
+ *
+ * @param <T> tipo de los registros
+ */
+public class IndiceTexto<T> implements IndiceSecundario<T> {
+
+    private static final int N = 3;
+
+    private final Function<T, String> extractor;
+    private final Map<String, ListaFilas> filasPorValor = new HashMap<>();
+    private final Map<String, Set<String>> valoresPorTrigrama = new HashMap<>();
+
+    public IndiceTexto(Function<T, String> extractor) {
+        this.extractor = extractor;
+    }
+
+    @Override
+    public void agregar(int fila, T registro) {
+        String valor = extractor.apply(registro);
+        if (valor == null) {
+            return;
+        }
+        ListaFilas filas = filasPorValor.get(valor);
+        if (filas == null) {
+            filas = new ListaFilas();
+            filasPorValor.put(valor, filas);
+            for (String trigrama : trigramas(valor)) {
+                valoresPorTrigrama.computeIfAbsent(trigrama, t -> new HashSet<>()).add(valor);
+            }
+        }
+        filas.agregar(fila);
+    }
+
+    @Override
+    public void quitar(int fila, T registro) {
+        String valor = extractor.apply(registro);
+        if (valor == null) {
+            return;
+        }
+        ListaFilas filas = filasPorValor.get(valor);
+        if (filas == null || !filas.quitar(fila) || !filas.estaVacia()) {
+            return;
+        }
+        // Último registro con ese valor: se retira también de los trigramas
+        filasPorValor.remove(valor);
+        for (String trigrama : trigramas(valor)) {
+            Set<String> valores = valoresPorTrigrama.get(trigrama);
+            if (valores != null) {
+                valores.remove(valor);
+                if (valores.isEmpty()) {
+                    valoresPorTrigrama.remove(trigrama);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void mover(int desde, int hasta, T registro) {
+        String valor = extractor.apply(registro);
+        ListaFilas filas = valor == null ? null : filasPorValor.get(valor);
+        if (filas != null) {
+            filas.reemplazar(desde, hasta);
+        }
+    }
+
+    @Override
+    public void limpiar() {
+        filasPorValor.clear();
+        valoresPorTrigrama.clear();
+    }
+
+    /**
+     * Filas cuyo valor contiene el texto buscado, sin distinguir mayúsculas.
+     */
+    public BitSet filasQueContienen(String buscado) {
+        BitSet resultado = new BitSet();
+        for (String valor : valoresCandidatos(buscado)) {
+            if (contiene(valor, buscado)) {
+                filasPorValor.get(valor).marcarEn(resultado);
+            }
+        }
+        return resultado;
+    }
+
+    private Iterable<String> valoresCandidatos(String buscado) {
+        if (buscado.length() < N) {
+            return filasPorValor.keySet();
+        }
+        // Se parte del trigrama menos frecuente y se descartan los que no tienen los demás
+        Set<String> trigramas = trigramas(buscado);
+        Set<String> menor = null;
+        for (String trigrama : trigramas) {
+            Set<String> valores = valoresPorTrigrama.get(trigrama);
+            if (valores == null) {
+                return Set.of();
+            }
+            if (menor == null || valores.size() < menor.size()) {
+                menor = valores;
+            }
+        }
+        Set<String> candidatos = new HashSet<>(menor);
+        for (String trigrama : trigramas) {
+            Set<String> valores = valoresPorTrigrama.get(trigrama);
+            if (valores != menor) {
+                candidatos.retainAll(valores);
+            }
+        }
+        return candidatos;
+    }
+
+    private static Set<String> trigramas(String texto) {
+        String minusculas = texto.toLowerCase(Locale.ROOT);
+        Set<String> trigramas = new HashSet<>();
+        for (int i = 0; i + N <= minusculas.length(); i++) {
+            trigramas.add(minusculas.substring(i, i + N));
+        }
+        return trigramas;
+    }
+
+    private static boolean contiene(String texto, String buscado) {
+        int limite = texto.length() - buscado.length();
+        for (int i = 0; i <= limite; i++) {
+            if (texto.regionMatches(true, i, buscado, 0, buscado.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,54 @@
+package cal.example.POCEmpleado.store;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Lista compacta de números de fila (int sin boxing) usada como posting list por los índices.
+ * El orden interno no es significativo: quitar() rellena el hueco con el último elemento.
+ */
+public class ListaFilas {
+
+    private int[] filas = new int[4];
+    private int tamano;
+
+    public void agregar(int fila) {
+        if (tamano == filas.length) {
+            filas = Arrays.copyOf(filas, tamano * 2);
+        }
+        filas[tamano++] = fila;
+    }
+
+    public boolean quitar(int fila) {
+        for (int i = 0; i < tamano; i++) {
+            if (filas[i] == fila) {
+                filas[i] = filas[--tamano];
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void reemplazar(int anterior, int nueva) {
+        for (int i = 0; i < tamano; i++) {
+            if (filas[i] == anterior) {
+                filas[i] = nueva;
+                return;
+            }
+        }
+    }
+
+    public int tamano() {
+        return tamano;
+    }
+
+    public boolean estaVacia() {
+        return tamano == 0;
+    }
+
+    public void marcarEn(BitSet destino) {
+        for (int i = 0; i < tamano; i++) {
+            destino.set(filas[i]);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package cal.example.POCEmpleado.store;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Árboles (TreeMap/TreeSet) armados a partir de datos ya ordenados, para la carga masiva de
+ * los índices. TreeMap y TreeSet construyen el árbol balanceado en tiempo lineal cuando reciben
+ * un SortedMap/SortedSet; estas vistas de solo lectura sobre una lista ordenada les dan ese
+ * atajo sin pasar por un árbol intermedio. Ordenar una vez y armar el árbol evita el
+ * rebalanceo y los saltos de memoria de insertar registro por registro.
+ */
+public final class Ordenados {
+
+    private Ordenados() {
+    }
+
+    /**
+     * TreeMap con las entradas indicadas, que deben estar ordenadas por clave según el
+     * comparador (null = orden natural) y sin claves repetidas.
+     */
+    public static <K, V> TreeMap<K, V> mapa(Comparator<? super K> orden, List<? extends Map.Entry<K, V>> entradas) {
+        return new TreeMap<>(new VistaMapa<>(orden, entradas));
+    }
+
+    /**
+     * TreeSet con los elementos indicados, que deben estar ordenados según el comparador
+     * (null = orden natural) y sin repetidos.
+     */
+    public static <T> TreeSet<T> conjunto(Comparator<? super T> orden, List<T> elementos) {
+        return new TreeSet<>(new VistaConjunto<>(orden, elementos));
+    }
+
+    // Solo implementa lo que usa el constructor de TreeMap: comparator, size y entrySet
+    private static final class VistaMapa<K, V> extends AbstractMap<K, V> implements SortedMap<K, V> {
+
+        private final Comparator<? super K> orden;
+        private final List<? extends Map.Entry<K, V>> entradas;
+
+        VistaMapa(Comparator<? super K> orden, List<? extends Map.Entry<K, V>> entradas) {
+            this.orden = orden;
+            this.entradas = entradas;
+        }
+
+        @Override
+        public Comparator<? super K> comparator() {
+            return orden;
+        }
+
+        @Override
+        public int size() {
+            return entradas.size();
+        }
+
+        @Override
+        public Set<Map.Entry<K, V>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public Iterator<Map.Entry<K, V>> iterator() {
+                    return (Iterator<Map.Entry<K, V>>) entradas.iterator();
+                }
+
+                @Override
+                public int size() {
+                    return entradas.size();
+                }
+            };
+        }
+
+        @Override
+        public SortedMap<K, V> subMap(K desde, K hasta) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public SortedMap<K, V> headMap(K hasta) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public SortedMap<K, V> tailMap(K desde) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public K firstKey() {
+            return entradas.get(0).getKey();
+        }
+
+        @Override
+        public K lastKey() {
+            return entradas.get(entradas.size() - 1).getKey();
+        }
+    }
+
+    // Solo implementa lo que usa el constructor de TreeSet: comparator, size e iterator
+    private static final class VistaConjunto<T> extends AbstractSet<T> implements SortedSet<T> {
+
+        private final Comparator<? super T> orden;
+        private final List<T> elementos;
+
+        VistaConjunto(Comparator<? super T> orden, List<T> elementos) {
+            this.orden = orden;
+            this.elementos = elementos;
+        }
+
+        @Override
+        public Comparator<? super T> comparator() {
+            return orden;
+        }
+
+        @Override
+        public int size() {
+            return elementos.size();
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            return elementos.iterator();
+        }
+
+        @Override
+        public SortedSet<T> subSet(T desde, T hasta) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public SortedSet<T> headSet(T hasta) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public SortedSet<T> tailSet(T desde) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public T first() {
+            return elementos.get(0);
+        }
+
+        @Override
+        public T last() {
+            return elementos.get(elementos.size() - 1);
+        }
+    }
+}
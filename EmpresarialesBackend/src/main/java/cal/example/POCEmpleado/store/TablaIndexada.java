@@ -0,0 +1,396 @@
+package cal.example.POCEmpleado.store;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Almacén en memoria con índice hash sobre la clave primaria.
+ *
+ * Los registros se guardan en un vector denso (la posición es el "número de fila") y un
+ * mapa clave normalizada → fila permite buscar, reemplazar y eliminar en O(1).
+ * Al eliminar, el último registro ocupa el hueco (swap-remove) para mantener el arreglo denso.
+ * La clave se compara sin distinguir mayúsculas, igual que los filtros originales (equalsIgnoreCase).
+ * Los índices secundarios registrados se actualizan en cada mutación.
+ *
+ * Concurrencia: un ReentrantReadWriteLock ordena las escrituras y protege los índices. Cada
+ * operación toma el lock que le corresponde; las operaciones compuestas de los servicios
+ * (consultar varios índices, journal + mutación, snapshot) toman bloqueoLectura()/bloqueoEscritura()
+ * alrededor y las llamadas internas reentran. Los índices solo deben leerse con el lock tomado.
+ *
+ * Las filas son un VectorPersistente publicado en un campo volatile (MVCC): cada escritura
+ * construye la versión siguiente compartiendo estructura con la anterior y la publica con
+ * una sola asignación. filas() devuelve la versión actual en O(1); es inmutable, así que se
+ * puede iterar sin lock y sin copiar mientras otros hilos siguen escribiendo.
+ *
+ * Esa garantía también depende de los registros: un registro guardado no se debe modificar.
+ * Los lectores sin lock lo siguen usando y los índices se actualizan con sus valores actuales
+ * al reemplazarlo; para cambiarlo se guarda una instancia nueva (guardar rechaza volver a
+ * guardar la misma instancia).
+ *
+ * version() cuenta las mutaciones: se incrementa después de publicar cada cambio, así que un
+ * resultado calculado tras leer la versión v refleja al menos el estado de v (ver CacheResultados).
+ * versionDe(clave) es la versión de la última mutación de ese registro (ver CacheFragmentos).
+ *
+ * Carga inicial fuera del hilo de arranque: reservarCarga() hace esperar a todas las operaciones
+ * hasta que cargar() publique las filas, en lugar de mostrar la tabla vacía. cargar() arma los
+ * índices después de publicar las filas y sin el lock; mientras tanto indicesListos() es false
+ * y quien consulta un índice debe recorrer filas() en su lugar (ver MantenimientoService).
+ *
+ * @param <T> tipo de los registros
+ */
+public class TablaIndexada<T> {
+
+    private final Function<T, String> extractorClave;
+    private volatile VectorPersistente<T> filas = VectorPersistente.vacio();
+    private final Map<String, Integer> filaPorClave = new HashMap<>();
+    private final List<IndiceSecundario<T>> indices = new ArrayList<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Solo se escribe con el lock de escritura tomado; volatile para leerla sin lock
+    private volatile long version;
+    // Versión de la última mutación de cada registro; concurrente para leerla sin lock
+    private final Map<String, Long> versionPorClave = new ConcurrentHashMap<>();
+
+    // Se completa al publicar las filas de la carga reservada; hasta entonces las operaciones esperan
+    private volatile CompletableFuture<Void> filasPublicadas = CompletableFuture.completedFuture(null);
+    // Una carga (o un registro de índice) a la vez: la siguiente espera a que terminen los índices
+    private final Semaphore cargaEnCurso = new Semaphore(1);
+    // false mientras cargar() arma los índices; se escribe con el lock de escritura tomado
+    private volatile boolean indicesListos = true;
+    // Mutaciones ocurridas mientras se arman los índices, en orden; null si no hay carga en curso
+    private List<Consumer<IndiceSecundario<T>>> cambiosPendientes;
+
+    public TablaIndexada(Function<T, String> extractorClave) {
+        this.extractorClave = extractorClave;
+    }
+
+    /**
+     * Registra un índice secundario y lo llena con los registros actuales.
+     */
+    public <I extends IndiceSecundario<T>> I registrarIndice(I indice) {
+        esperarFilas();
+        cargaEnCurso.acquireUninterruptibly();
+        lock.writeLock().lock();
+        try {
+            indices.add(indice);
+            for (int fila = 0; fila < filas.size(); fila++) {
+                indice.agregar(fila, filas.get(fila));
+            }
+            return indice;
+        } finally {
+            lock.writeLock().unlock();
+            cargaEnCurso.release();
+        }
+    }
+
+    /**
+     * Lock compartido: varias lecturas en paralelo, excluye escrituras.
+     */
+    public Lock bloqueoLectura() {
+        esperarFilas();
+        return lock.readLock();
+    }
+
+    /**
+     * Lock exclusivo para mutaciones. No se puede tomar teniendo solo el de lectura.
+     */
+    public Lock bloqueoEscritura() {
+        esperarFilas();
+        return lock.writeLock();
+    }
+
+    /**
+     * Hasta la próxima cargar(), las demás operaciones esperan: una carga inicial en segundo
+     * plano no deja ver la tabla vacía ni escribir antes que ella. Si la carga falla, cargar()
+     * igual debe llamarse (por ejemplo con una lista vacía) para liberarlas.
+     */
+    public void reservarCarga() {
+        lock.writeLock().lock();
+        try {
+            if (filasPublicadas.isDone()) {
+                filasPublicadas = new CompletableFuture<>();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * true si hay una carga reservada que todavía no publicó las filas.
+     */
+    public boolean cargaReservada() {
+        return !filasPublicadas.isDone();
+    }
+
+    /**
+     * false mientras cargar() arma los índices: sus resultados todavía no reflejan las filas y
+     * hay que recorrer filas(). Leerlo con el lock de lectura tomado, junto con los índices.
+     */
+    public boolean indicesListos() {
+        return indicesListos;
+    }
+
+    private void esperarFilas() {
+        CompletableFuture<Void> publicadas = filasPublicadas;
+        if (!publicadas.isDone()) {
+            publicadas.join();
+        }
+    }
+
+    // Con el lock de escritura tomado: aplica el cambio a los índices, o lo anota si se están armando
+    private void notificar(Consumer<IndiceSecundario<T>> cambio) {
+        if (cambiosPendientes != null) {
+            cambiosPendientes.add(cambio);
+            return;
+        }
+        for (IndiceSecundario<T> indice : indices) {
+            cambio.accept(indice);
+        }
+    }
+
+    public static String normalizar(String clave) {
+        return clave == null ? null : clave.toUpperCase(Locale.ROOT);
+    }
+
+    public T buscar(String clave) {
+        esperarFilas();
+        lock.readLock().lock();
+        try {
+            Integer fila = filaPorClave.get(normalizar(clave));
+            return fila == null ? null : filas.get(fila);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean contiene(String clave) {
+        esperarFilas();
+        lock.readLock().lock();
+        try {
+            return filaPorClave.containsKey(normalizar(clave));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Inserta el registro o reemplaza el existente con la misma clave (en su misma fila).
+     * El reemplazo debe ser una instancia nueva: los índices quitan el registro anterior con los
+     * valores que tiene ahora, así que si se modificó en su lugar quedarían corruptos.
+     *
+     * @return el registro reemplazado, o null si la clave no existía
+     * @throws IllegalArgumentException si el registro es la misma instancia ya guardada
+     */
+    public T guardar(T registro) {
+        esperarFilas();
+        lock.writeLock().lock();
+        try {
+            String clave = normalizar(extractorClave.apply(registro));
+            Integer existente = filaPorClave.get(clave);
+            if (existente != null) {
+                int fila = existente;
+                T anterior = filas.get(fila);
+                if (anterior == registro) {
+                    throw new IllegalArgumentException("El registro " + clave
+                            + " ya está guardado: los cambios se guardan en una instancia nueva");
+                }
+                filas = filas.asignar(fila, registro);
+                notificar(indice -> {
+                    indice.quitar(fila, anterior);
+                    indice.agregar(fila, registro);
+                });
+                versionPorClave.put(clave, ++version);
+                return anterior;
+            }
+            int fila = filas.size();
+            filaPorClave.put(clave, fila);
+            filas = filas.agregar(registro);
+            notificar(indice -> indice.agregar(fila, registro));
+            versionPorClave.put(clave, ++version);
+            return null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Elimina el registro con la clave indicada.
+     *
+     * @return el registro eliminado, o null si no existía
+     */
+    public T eliminar(String clave) {
+        esperarFilas();
+        lock.writeLock().lock();
+        try {
+            Integer existente = filaPorClave.remove(normalizar(clave));
+            if (existente == null) {
+                return null;
+            }
+            int fila = existente;
+            versionPorClave.remove(normalizar(clave));
+            VectorPersistente<T> version = filas;
+            int ultima = version.size() - 1;
+            T eliminado = version.get(fila);
+            notificar(indice -> indice.quitar(fila, eliminado));
+            if (fila != ultima) {
+                T movido = version.get(ultima);
+                version = version.asignar(fila, movido);
+                filaPorClave.put(normalizar(extractorClave.apply(movido)), fila);
+                notificar(indice -> indice.mover(ultima, fila, movido));
+            }
+            // Se publica una sola versión: los lectores nunca ven el registro movido duplicado
+            filas = version.quitarUltimo();
+            this.version++;
+            return eliminado;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Reemplaza todo el contenido por los registros indicados (carga inicial desde un snapshot).
+     * Equivale a limpiar() y guardar() de cada uno, pero arma el vector de filas de una vez y
+     * carga cada índice en bloque (IndiceSecundario.cargar), con los índices en paralelo entre sí.
+     * Con claves repetidas queda el último registro, en la fila del primero (como guardar).
+     *
+     * Las filas se publican primero, con el lock de escritura, y libera una carga reservada.
+     * Los índices se arman después en el hilo que llama, sin el lock: las lecturas y escrituras
+     * siguen mientras tanto. Las mutaciones de ese intervalo quedan anotadas y se aplican a los
+     * índices al terminar, con el lock de escritura, antes de marcarlos listos. Retorna con los
+     * índices listos.
+     */
+    public void cargar(List<T> registros) {
+        cargaEnCurso.acquireUninterruptibly();
+        List<T> unicos;
+        List<IndiceSecundario<T>> aCargar;
+        lock.writeLock().lock();
+        try {
+            String[] normalizadas = new String[registros.size()];
+            Arrays.parallelSetAll(normalizadas, i -> normalizar(extractorClave.apply(registros.get(i))));
+            Map<String, Integer> claves = new HashMap<>(Math.max(16, (int) (registros.size() / 0.75f) + 1));
+            unicos = new ArrayList<>(registros.size());
+            for (int i = 0; i < normalizadas.length; i++) {
+                Integer fila = claves.putIfAbsent(normalizadas[i], unicos.size());
+                if (fila == null) {
+                    unicos.add(registros.get(i));
+                } else {
+                    unicos.set(fila, registros.get(i));
+                }
+            }
+            VectorPersistente<T> nuevas = VectorPersistente.de(unicos);
+            for (IndiceSecundario<T> indice : indices) {
+                indice.limpiar();
+            }
+            aCargar = new ArrayList<>(indices);
+            cambiosPendientes = new ArrayList<>();
+            indicesListos = false;
+            filaPorClave.clear();
+            filaPorClave.putAll(claves);
+            versionPorClave.clear();
+            long nueva = ++version;
+            for (String clave : claves.keySet()) {
+                versionPorClave.put(clave, nueva);
+            }
+            filas = nuevas;
+        } catch (RuntimeException | Error e) {
+            cargaEnCurso.release();
+            throw e;
+        } finally {
+            filasPublicadas.complete(null);
+            lock.writeLock().unlock();
+        }
+
+        boolean cargados = false;
+        try {
+            // Nadie más toca estos índices hasta que queden listos: se llenan sin lock y en paralelo
+            aCargar.parallelStream().forEach(indice -> indice.cargar(unicos));
+            cargados = true;
+        } finally {
+            lock.writeLock().lock();
+            try {
+                if (cargados) {
+                    for (Consumer<IndiceSecundario<T>> cambio : cambiosPendientes) {
+                        for (IndiceSecundario<T> indice : indices) {
+                            cambio.accept(indice);
+                        }
+                    }
+                } else {
+                    // Falló la carga en bloque: se rehacen registro por registro desde las filas actuales
+                    for (IndiceSecundario<T> indice : indices) {
+                        indice.limpiar();
+                        for (int fila = 0; fila < filas.size(); fila++) {
+                            indice.agregar(fila, filas.get(fila));
+                        }
+                    }
+                }
+                cambiosPendientes = null;
+                indicesListos = true;
+            } finally {
+                lock.writeLock().unlock();
+                cargaEnCurso.release();
+            }
+        }
+    }
+
+    public void limpiar() {
+        esperarFilas();
+        lock.writeLock().lock();
+        try {
+            filas = VectorPersistente.vacio();
+            filaPorClave.clear();
+            versionPorClave.clear();
+            notificar(IndiceSecundario::limpiar);
+            version++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Contador de mutaciones (guardar, eliminar y limpiar). No requiere lock.
+     */
+    public long version() {
+        esperarFilas();
+        return version;
+    }
+
+    /**
+     * Versión de la última mutación del registro con esa clave, o -1 si no existe. No requiere lock.
+     */
+    public long versionDe(String clave) {
+        if (clave == null) {
+            return -1;
+        }
+        esperarFilas();
+        Long versionRegistro = versionPorClave.get(normalizar(clave));
+        return versionRegistro == null ? -1 : versionRegistro;
+    }
+
+    public int tamano() {
+        esperarFilas();
+        return filas.size();
+    }
+
+    public boolean estaVacia() {
+        return tamano() == 0;
+    }
+
+    /**
+     * Versión actual (inmutable) de los registros, en orden de fila. No requiere lock;
+     * con el lock de lectura tomado coincide con los índices.
+     */
+    public List<T> filas() {
+        esperarFilas();
+        return filas;
+    }
+}
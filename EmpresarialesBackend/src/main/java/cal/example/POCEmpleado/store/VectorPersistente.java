@@ -0,0 +1,258 @@
+package cal.example.POCEmpleado.store;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+
+/**
+ * Vector persistente (inmutable con estructura compartida): un trie de 32 ramas más una
+ * "cola" con los últimos hasta 32 elementos, al estilo de los vectores de Clojure.
+ *
+ * Cada modificación (agregar, asignar, quitarUltimo) devuelve un vector nuevo copiando solo
+ * el camino de la raíz a la hoja afectada, O(log32 n) ≈ constante; el resto de nodos se
+ * comparte con la versión anterior. Una versión ya publicada nunca cambia, así que puede
+ * leerse e iterarse desde cualquier hilo sin locks ni copias.
+ *
+ * @param <T> tipo de los elementos
+ */
+public final class VectorPersistente<T> extends AbstractList<T> implements RandomAccess {
+
+    private static final int BITS = 5;
+    private static final int ANCHO = 1 << BITS;
+    private static final int MASCARA = ANCHO - 1;
+
+    private static final VectorPersistente<?> VACIO =
+            new VectorPersistente<>(0, BITS, new Object[ANCHO], new Object[0]);
+
+    private final int tamano;
+    private final int nivel;
+    private final Object[] raiz;
+    private final Object[] cola;
+
+    private VectorPersistente(int tamano, int nivel, Object[] raiz, Object[] cola) {
+        this.tamano = tamano;
+        this.nivel = nivel;
+        this.raiz = raiz;
+        this.cola = cola;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> VectorPersistente<T> vacio() {
+        return (VectorPersistente<T>) VACIO;
+    }
+
+    /**
+     * Vector con los elementos de la lista, en orden. Arma las hojas y los niveles de abajo
+     * hacia arriba en una pasada, sin las copias de camino de agregar elemento por elemento.
+     */
+    public static <T> VectorPersistente<T> de(List<? extends T> elementos) {
+        int tamano = elementos.size();
+        if (tamano == 0) {
+            return vacio();
+        }
+        int inicioCola = tamano < ANCHO ? 0 : ((tamano - 1) >>> BITS) << BITS;
+        Object[] cola = elementos.subList(inicioCola, tamano).toArray();
+
+        List<Object[]> nodos = new ArrayList<>(inicioCola >>> BITS);
+        for (int inicio = 0; inicio < inicioCola; inicio += ANCHO) {
+            nodos.add(elementos.subList(inicio, inicio + ANCHO).toArray());
+        }
+        int nivel = BITS;
+        Object[] raiz;
+        while (true) {
+            List<Object[]> padres = new ArrayList<>((nodos.size() + MASCARA) >>> BITS);
+            for (int inicio = 0; inicio < nodos.size(); inicio += ANCHO) {
+                Object[] padre = new Object[ANCHO];
+                List<Object[]> hijos = nodos.subList(inicio, Math.min(inicio + ANCHO, nodos.size()));
+                for (int i = 0; i < hijos.size(); i++) {
+                    padre[i] = hijos.get(i);
+                }
+                padres.add(padre);
+            }
+            if (padres.size() <= 1) {
+                raiz = padres.isEmpty() ? new Object[ANCHO] : padres.get(0);
+                break;
+            }
+            nodos = padres;
+            nivel += BITS;
+        }
+        return new VectorPersistente<>(tamano, nivel, raiz, cola);
+    }
+
+    @Override
+    public int size() {
+        return tamano;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int indice) {
+        if (indice < 0 || indice >= tamano) {
+            throw new IndexOutOfBoundsException("Índice " + indice + " fuera de rango (tamaño " + tamano + ")");
+        }
+        return (T) hojaDe(indice)[indice & MASCARA];
+    }
+
+    /**
+     * Nuevo vector con el elemento agregado al final.
+     */
+    public VectorPersistente<T> agregar(T elemento) {
+        if (tamano - inicioCola() < ANCHO) {
+            Object[] nuevaCola = Arrays.copyOf(cola, cola.length + 1);
+            nuevaCola[cola.length] = elemento;
+            return new VectorPersistente<>(tamano + 1, nivel, raiz, nuevaCola);
+        }
+        // La cola está llena: pasa al árbol como hoja y se empieza una cola nueva
+        Object[] nuevaRaiz;
+        int nuevoNivel = nivel;
+        if ((tamano >>> BITS) > (1 << nivel)) {
+            nuevaRaiz = new Object[ANCHO];
+            nuevaRaiz[0] = raiz;
+            nuevaRaiz[1] = nuevoCamino(nivel, cola);
+            nuevoNivel += BITS;
+        } else {
+            nuevaRaiz = insertarCola(nivel, raiz, cola);
+        }
+        return new VectorPersistente<>(tamano + 1, nuevoNivel, nuevaRaiz, new Object[]{elemento});
+    }
+
+    /**
+     * Nuevo vector con el elemento en la posición indicada reemplazado.
+     */
+    public VectorPersistente<T> asignar(int indice, T elemento) {
+        if (indice < 0 || indice >= tamano) {
+            throw new IndexOutOfBoundsException("Índice " + indice + " fuera de rango (tamaño " + tamano + ")");
+        }
+        if (indice >= inicioCola()) {
+            Object[] nuevaCola = cola.clone();
+            nuevaCola[indice & MASCARA] = elemento;
+            return new VectorPersistente<>(tamano, nivel, raiz, nuevaCola);
+        }
+        return new VectorPersistente<>(tamano, nivel, asignarEn(nivel, raiz, indice, elemento), cola);
+    }
+
+    /**
+     * Nuevo vector sin el último elemento.
+     */
+    public VectorPersistente<T> quitarUltimo() {
+        if (tamano == 0) {
+            throw new IllegalStateException("El vector está vacío");
+        }
+        if (tamano == 1) {
+            return vacio();
+        }
+        if (tamano - inicioCola() > 1) {
+            return new VectorPersistente<>(tamano - 1, nivel, raiz, Arrays.copyOf(cola, cola.length - 1));
+        }
+        // La cola queda vacía: la última hoja del árbol pasa a ser la cola
+        Object[] nuevaCola = hojaDe(tamano - 2);
+        Object[] nuevaRaiz = quitarHoja(nivel, raiz);
+        int nuevoNivel = nivel;
+        if (nuevaRaiz == null) {
+            nuevaRaiz = new Object[ANCHO];
+        }
+        if (nivel > BITS && nuevaRaiz[1] == null) {
+            nuevaRaiz = (Object[]) nuevaRaiz[0];
+            nuevoNivel -= BITS;
+        }
+        return new VectorPersistente<>(tamano - 1, nuevoNivel, nuevaRaiz, nuevaCola);
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        // Recorre hoja por hoja: un descenso por cada 32 elementos en lugar de uno por elemento
+        return new Iterator<T>() {
+            private int indice;
+            private Object[] hoja = tamano > 0 ? hojaDe(0) : null;
+
+            @Override
+            public boolean hasNext() {
+                return indice < tamano;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public T next() {
+                if (indice >= tamano) {
+                    throw new NoSuchElementException();
+                }
+                if (indice > 0 && (indice & MASCARA) == 0) {
+                    hoja = hojaDe(indice);
+                }
+                return (T) hoja[indice++ & MASCARA];
+            }
+        };
+    }
+
+    private int inicioCola() {
+        return tamano < ANCHO ? 0 : ((tamano - 1) >>> BITS) << BITS;
+    }
+
+    private Object[] hojaDe(int indice) {
+        if (indice >= inicioCola()) {
+            return cola;
+        }
+        Object[] nodo = raiz;
+        for (int n = nivel; n > 0; n -= BITS) {
+            nodo = (Object[]) nodo[(indice >>> n) & MASCARA];
+        }
+        return nodo;
+    }
+
+    private Object[] insertarCola(int n, Object[] padre, Object[] hoja) {
+        int sub = ((tamano - 1) >>> n) & MASCARA;
+        Object[] copia = padre.clone();
+        Object insertar;
+        if (n == BITS) {
+            insertar = hoja;
+        } else {
+            Object[] hijo = (Object[]) padre[sub];
+            insertar = hijo != null ? insertarCola(n - BITS, hijo, hoja) : nuevoCamino(n - BITS, hoja);
+        }
+        copia[sub] = insertar;
+        return copia;
+    }
+
+    private static Object[] nuevoCamino(int n, Object[] hoja) {
+        if (n == 0) {
+            return hoja;
+        }
+        Object[] nodo = new Object[ANCHO];
+        nodo[0] = nuevoCamino(n - BITS, hoja);
+        return nodo;
+    }
+
+    private static Object[] asignarEn(int n, Object[] nodo, int indice, Object elemento) {
+        Object[] copia = nodo.clone();
+        if (n == 0) {
+            copia[indice & MASCARA] = elemento;
+        } else {
+            int sub = (indice >>> n) & MASCARA;
+            copia[sub] = asignarEn(n - BITS, (Object[]) nodo[sub], indice, elemento);
+        }
+        return copia;
+    }
+
+    private Object[] quitarHoja(int n, Object[] nodo) {
+        int sub = ((tamano - 2) >>> n) & MASCARA;
+        if (n > BITS) {
+            Object[] hijo = quitarHoja(n - BITS, (Object[]) nodo[sub]);
+            if (hijo == null && sub == 0) {
+                return null;
+            }
+            Object[] copia = nodo.clone();
+            copia[sub] = hijo;
+            return copia;
+        }
+        if (sub == 0) {
+            return null;
+        }
+        Object[] copia = nodo.clone();
+        copia[sub] = null;
+        return copia;
+    }
+}
@@ -0,0 +1,49 @@
+package cal.example.POCEmpleado.controller;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.function.LongPredicate;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * If-None-Match (comparación débil) e If-Match (comparación fuerte) contra la versión vigente.
+ */
+class CondicionalesTests {
+
+	@Test
+	void ifNoneMatch() {
+		String etag = Condicionales.etag(7);
+		assertFalse(Condicionales.noModificado(null, 7));
+		assertTrue(Condicionales.noModificado(etag, 7));
+		assertTrue(Condicionales.noModificado("W/" + etag, 7));
+		assertTrue(Condicionales.noModificado("\"otro\", " + etag, 7));
+		assertTrue(Condicionales.noModificado("*", 7));
+		assertFalse(Condicionales.noModificado(etag, 8));
+		// Misma versión de un arranque anterior
+		assertFalse(Condicionales.noModificado("\"0-7\"", 7));
+	}
+
+	@Test
+	void ifMatch() {
+		LongPredicate sinCabecera = Condicionales.condicionIfMatch(null);
+		assertTrue(sinCabecera.test(-1));
+		assertTrue(Condicionales.condicionIfMatch(" ").test(3));
+
+		LongPredicate cualquiera = Condicionales.condicionIfMatch("*");
+		assertTrue(cualquiera.test(0));
+		assertFalse(cualquiera.test(-1));
+
+		LongPredicate lista = Condicionales.condicionIfMatch(Condicionales.etag(3) + ", " + Condicionales.etag(5));
+		assertTrue(lista.test(3));
+		assertTrue(lista.test(5));
+		assertFalse(lista.test(4));
+		assertFalse(lista.test(-1));
+
+		// Comparación fuerte: los ETags débiles, de otro arranque o mal formados no cumplen
+		assertFalse(Condicionales.condicionIfMatch("W/" + Condicionales.etag(3)).test(3));
+		assertFalse(Condicionales.condicionIfMatch("\"0-3\"").test(3));
+		assertFalse(Condicionales.condicionIfMatch(Condicionales.etag(3).replace("3\"", "x\"")).test(3));
+	}
+}
@@ -0,0 +1,167 @@
+package cal.example.POCEmpleado.persistence;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Disparadores del group commit: el flush por tamaño toma el lote y cancela el flush por
+ * intervalo de ese lote; el lote siguiente programa su propio intervalo completo. En GROUP_COMMIT
+ * un flush fallido llega a quien registró el cambio.
+ * Los temporizadores no dependen del reloj: la prueba decide cuándo vencen.
+ */
+class EscritorGroupCommitTests {
+
+	private static final long INTERVALO_MS = 1000;
+
+	@Test
+	void flushPorTamanoCancelaElTemporizadorDelLote() throws Exception {
+		AtomicInteger flushes = new AtomicInteger();
+		EjecutorManual ejecutor = new EjecutorManual();
+		EscritorGroupCommit escritor = new EscritorGroupCommit(EscritorGroupCommit.ModoDurabilidad.ASYNC,
+				INTERVALO_MS, 3, flushes::incrementAndGet, ejecutor);
+		try {
+			// Lote 1: programa el temporizador y se completa por tamaño
+			for (int i = 0; i < 3; i++) {
+				escritor.registrarCambio();
+			}
+			ejecutor.esperar();
+			assertEquals(1, flushes.get());
+			assertEquals(1, ejecutor.programadas.size());
+			assertTrue(ejecutor.programadas.get(0).futuro().isCancelled());
+
+			// Lote 2: programa su propio temporizador de un intervalo completo
+			escritor.registrarCambio();
+			assertEquals(2, ejecutor.programadas.size());
+			assertEquals(INTERVALO_MS, ejecutor.programadas.get(1).demoraMs());
+			assertFalse(ejecutor.programadas.get(1).futuro().isCancelled());
+			assertEquals(1, flushes.get());
+
+			// Solo vence el del lote 2: el del lote 1 ya no hace un flush vacío ni adelantado
+			assertEquals(1, ejecutor.vencerTemporizadores());
+			assertEquals(2, flushes.get());
+		} finally {
+			escritor.close();
+		}
+		assertEquals(2, flushes.get());
+	}
+
+	@Test
+	void closePersisteLoPendienteUnaSolaVez() {
+		AtomicInteger flushes = new AtomicInteger();
+		EscritorGroupCommit escritor = new EscritorGroupCommit(EscritorGroupCommit.ModoDurabilidad.ASYNC,
+				60_000, 1000, flushes::incrementAndGet, new EjecutorManual());
+		escritor.registrarCambio();
+		escritor.registrarCambio();
+		escritor.close();
+		assertEquals(1, flushes.get());
+	}
+
+	@Test
+	void groupCommitPropagaElFlushFallido() throws Exception {
+		EjecutorManual ejecutor = new EjecutorManual();
+		EscritorGroupCommit escritor = new EscritorGroupCommit(EscritorGroupCommit.ModoDurabilidad.GROUP_COMMIT,
+				INTERVALO_MS, 2, () -> {
+					throw new IOException("disco lleno");
+				}, ejecutor);
+		try {
+			// Flush por intervalo: quien registró el cambio espera al lote y recibe el error
+			CompletableFuture<Void> primero = CompletableFuture.runAsync(escritor::registrarCambio);
+			ejecutor.esperarTemporizador();
+			assertFalse(primero.isDone());
+			ejecutor.vencerTemporizadores();
+			ExecutionException error = assertThrows(ExecutionException.class, primero::get);
+			assertTrue(error.getCause() instanceof RuntimeException);
+			assertTrue(error.getCause().getMessage().contains("disco lleno"));
+
+			// Flush por tamaño: el que completa el lote también recibe el error
+			CompletableFuture<Void> segundo = CompletableFuture.runAsync(escritor::registrarCambio);
+			ejecutor.esperarTemporizador();
+			RuntimeException directo = assertThrows(RuntimeException.class, escritor::registrarCambio);
+			assertTrue(directo.getMessage().contains("disco lleno"));
+			assertThrows(ExecutionException.class, segundo::get);
+		} finally {
+			escritor.close();
+		}
+	}
+
+	/**
+	 * Ejecutor de un hilo cuyas tareas inmediatas corren normalmente, pero cuyos temporizadores
+	 * no vencen solos: quedan registrados y la prueba los hace vencer.
+	 */
+	private static final class EjecutorManual extends ScheduledThreadPoolExecutor {
+
+		record Programada(Runnable tarea, long demoraMs, ScheduledFuture<?> futuro) {
+		}
+
+		final List<Programada> programadas = new ArrayList<>();
+		private int vencidas;
+
+		EjecutorManual() {
+			super(1);
+			// Al cerrar el escritor no queda esperando ningún temporizador que no venció
+			setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+		}
+
+		@Override
+		public ScheduledFuture<?> schedule(Runnable tarea, long demora, TimeUnit unidad) {
+			// execute() y submit() también pasan por aquí, con demora 0
+			if (demora == 0) {
+				return super.schedule(tarea, 0, unidad);
+			}
+			ScheduledFuture<?> futuro = super.schedule(tarea, 1, TimeUnit.DAYS);
+			synchronized (this) {
+				programadas.add(new Programada(tarea, unidad.toMillis(demora), futuro));
+				notifyAll();
+			}
+			return futuro;
+		}
+
+		/**
+		 * Ejecuta los temporizadores programados que no se cancelaron y espera a que terminen.
+		 *
+		 * @return cuántos vencieron
+		 */
+		int vencerTemporizadores() throws Exception {
+			List<Programada> pendientes = new ArrayList<>();
+			synchronized (this) {
+				pendientes.addAll(programadas.subList(vencidas, programadas.size()));
+				vencidas = programadas.size();
+			}
+			int ejecutadas = 0;
+			for (Programada programada : pendientes) {
+				if (programada.futuro().cancel(false)) {
+					execute(programada.tarea());
+					ejecutadas++;
+				}
+			}
+			esperar();
+			return ejecutadas;
+		}
+
+		// Espera a que otro hilo programe un temporizador nuevo
+		synchronized void esperarTemporizador() throws InterruptedException {
+			while (programadas.size() == vencidas) {
+				wait();
+			}
+		}
+
+		// Las tareas corren de a una y en orden: al terminar esta, terminaron las anteriores
+		void esperar() throws Exception {
+			submit(() -> { }).get();
+		}
+	}
+}
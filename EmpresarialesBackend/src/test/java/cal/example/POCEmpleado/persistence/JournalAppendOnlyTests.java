@@ -0,0 +1,87 @@
+package cal.example.POCEmpleado.persistence;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Reproducción del journal: una última línea incompleta (cierre abrupto) se descarta y se
+ * recorta; una línea ilegible seguida de más entradas es corrupción y detiene el arranque.
+ */
+class JournalAppendOnlyTests {
+
+	@TempDir
+	Path directorio;
+
+	@Test
+	void ultimaLineaTruncadaSeDescartaYElJournalSigueUsable() throws IOException {
+		Path archivo = directorio.resolve("carros.journal");
+		try (JournalAppendOnly<EntradaJournalCarro> journal = nuevo(archivo)) {
+			journal.append(EntradaJournalCarro.eliminar("ABC-001"));
+			journal.append(EntradaJournalCarro.eliminar("ABC-002"));
+		}
+		long completo = Files.size(archivo);
+		Files.writeString(archivo, "{\"operacion\":\"ELIM", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+		try (JournalAppendOnly<EntradaJournalCarro> journal = nuevo(archivo)) {
+			assertEquals(List.of("ABC-001", "ABC-002"), reproducir(journal));
+			assertEquals(completo, Files.size(archivo));
+			journal.append(EntradaJournalCarro.eliminar("ABC-003"));
+		}
+		try (JournalAppendOnly<EntradaJournalCarro> journal = nuevo(archivo)) {
+			assertEquals(List.of("ABC-001", "ABC-002", "ABC-003"), reproducir(journal));
+		}
+	}
+
+	@Test
+	void ultimaLineaSinSaltoDeLineaSeConservaYSeCompleta() throws IOException {
+		Path archivo = directorio.resolve("carros.journal");
+		Files.writeString(archivo, "{\"operacion\":\"ELIMINAR\",\"placa\":\"ABC-001\"}", StandardCharsets.UTF_8);
+
+		try (JournalAppendOnly<EntradaJournalCarro> journal = nuevo(archivo)) {
+			assertEquals(List.of("ABC-001"), reproducir(journal));
+			journal.append(EntradaJournalCarro.eliminar("ABC-002"));
+		}
+		try (JournalAppendOnly<EntradaJournalCarro> journal = nuevo(archivo)) {
+			assertEquals(List.of("ABC-001", "ABC-002"), reproducir(journal));
+		}
+	}
+
+	@Test
+	void lineaIlegibleAntesDeLaUltimaEsCorrupcion() throws IOException {
+		Path archivo = directorio.resolve("carros.journal");
+		Files.writeString(archivo, "{\"operacion\":\"ELIMINAR\",\"placa\":\"ABC-001\"}\n"
+				+ "{\"operacion\":\"ELIM\n"
+				+ "{\"operacion\":\"ELIMINAR\",\"placa\":\"ABC-002\"}\n", StandardCharsets.UTF_8);
+		long tamano = Files.size(archivo);
+
+		try (JournalAppendOnly<EntradaJournalCarro> journal = nuevo(archivo)) {
+			IOException error = assertThrows(IOException.class, () -> reproducir(journal));
+			assertTrue(error.getMessage().contains(":2"), error.getMessage());
+		}
+		// No se recorta nada: el archivo queda para revisarlo a mano
+		assertEquals(tamano, Files.size(archivo));
+	}
+
+	private static JournalAppendOnly<EntradaJournalCarro> nuevo(Path archivo) {
+		return new JournalAppendOnly<>(archivo, new ObjectMapper(), EntradaJournalCarro.class, false);
+	}
+
+	private static List<String> reproducir(JournalAppendOnly<EntradaJournalCarro> journal) throws IOException {
+		List<String> placas = new ArrayList<>();
+		journal.replay(entrada -> placas.add(entrada.getPlaca()));
+		return placas;
+	}
+}
@@ -0,0 +1,147 @@
+package cal.example.POCEmpleado.persistence;
+
+import cal.example.POCEmpleado.model.Carro;
+import cal.example.POCEmpleado.model.Mantenimiento;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Ida y vuelta del snapshot binario: cada campo escrito por los codecs se lee igual,
+ * incluidos nulos, cadenas repetidas (diccionario), texto no ASCII y nanosegundos.
+ */
+class SnapshotBinarioTests {
+
+	@TempDir
+	Path directorio;
+
+	@Test
+	void diccionarioReutilizaCadenasYReservaNulo() {
+		DiccionarioCadenas diccionario = new DiccionarioCadenas();
+		assertEquals(0, diccionario.id("Toyota"));
+		assertEquals(1, diccionario.id("Mazda"));
+		assertEquals(0, diccionario.id("Toyota"));
+		assertEquals(DiccionarioCadenas.NULO, diccionario.id(null));
+		assertEquals(List.of("Toyota", "Mazda"), diccionario.getCadenas());
+
+		String[] leidas = diccionario.getCadenas().toArray(new String[0]);
+		assertEquals("Mazda", DiccionarioCadenas.cadena(leidas, 1));
+		assertNull(DiccionarioCadenas.cadena(leidas, DiccionarioCadenas.NULO));
+	}
+
+	@Test
+	void fechasConNanosegundosYNulas() {
+		LocalDateTime fecha = LocalDateTime.of(1969, 12, 31, 23, 59, 59, 123456789);
+		ByteBuffer buffer = ByteBuffer.allocate(24);
+		DiccionarioCadenas.escribirFecha(buffer, fecha);
+		DiccionarioCadenas.escribirFecha(buffer, null);
+		assertEquals(24, buffer.position());
+		assertEquals(fecha, DiccionarioCadenas.leerFecha(buffer, 0));
+		assertNull(DiccionarioCadenas.leerFecha(buffer, 12));
+	}
+
+	@Test
+	void carrosIdaYVuelta() throws IOException {
+		List<Carro> carros = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			Carro carro = new Carro(i % 2 == 0 ? "Toyota" : "Citroën", "Rojo", String.format("ABC-%03d", i),
+					"GASOLINA", "Modelo " + i, 2000 + i % 25, "USADO", 2 + i % 4, i % 3 == 0,
+					1000.5 + i * 37.25, i % 2 == 0 ? "MANUAL" : "AUTOMATICA");
+			carro.setFechaRegistro(LocalDateTime.of(2024, 1, 1, 8, 0).plusSeconds(i).plusNanos(i * 1000L));
+			carros.add(carro);
+		}
+		Carro incompleto = new Carro();
+		incompleto.setPlaca("NUL-000");
+		incompleto.setFechaRegistro(null);
+		carros.add(incompleto);
+
+		Path archivo = directorio.resolve("carros.snapshot.bin");
+		SnapshotBinario.escribir(archivo, carros, new CodecCarro());
+		List<Carro> leidos = SnapshotBinario.leer(archivo, new CodecCarro());
+
+		assertEquals(carros.size(), leidos.size());
+		for (int i = 0; i < carros.size(); i++) {
+			assertCarroIgual(carros.get(i), leidos.get(i));
+		}
+	}
+
+	@Test
+	void mantenimientosIdaYVuelta() throws IOException {
+		List<Mantenimiento> mantenimientos = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			Mantenimiento m = new Mantenimiento(String.format("ABC-%03d", i % 7),
+					LocalDateTime.of(2024, 5, 1, 10, 30).minusDays(i).plusNanos(i), 1000 * i,
+					i % 2 == 0 ? "Preventivo" : "Correctivo", 50.75 + i, "Cambio de aceite y revisión nº " + i,
+					i % 4 == 0 ? null : LocalDateTime.of(2025, 1, 1, 0, 0).plusDays(i));
+			m.setId("id-" + i);
+			m.setCompletado(i % 5 == 0);
+			m.setFechaRegistro(LocalDateTime.of(2024, 6, 1, 12, 0, 0, i));
+			mantenimientos.add(m);
+		}
+		Mantenimiento incompleto = new Mantenimiento();
+		incompleto.setId("sin-datos");
+		incompleto.setFechaRegistro(null);
+		mantenimientos.add(incompleto);
+
+		Path archivo = directorio.resolve("mantenimientos.snapshot.bin");
+		SnapshotBinario.escribir(archivo, mantenimientos, new CodecMantenimiento());
+		List<Mantenimiento> leidos = SnapshotBinario.leer(archivo, new CodecMantenimiento());
+
+		assertEquals(mantenimientos.size(), leidos.size());
+		for (int i = 0; i < mantenimientos.size(); i++) {
+			assertMantenimientoIgual(mantenimientos.get(i), leidos.get(i));
+		}
+	}
+
+	@Test
+	void rechazaOtraEntidadYArchivoTruncado() throws IOException {
+		Path archivo = directorio.resolve("carros.snapshot.bin");
+		SnapshotBinario.escribir(archivo, List.of(new Carro()), new CodecCarro());
+		assertThrows(IOException.class, () -> SnapshotBinario.leer(archivo, new CodecMantenimiento()));
+
+		byte[] bytes = Files.readAllBytes(archivo);
+		Path truncado = directorio.resolve("truncado.snapshot.bin");
+		Files.write(truncado, Arrays.copyOf(bytes, 20));
+		assertThrows(IOException.class, () -> SnapshotBinario.leer(truncado, new CodecCarro()));
+	}
+
+	static void assertCarroIgual(Carro esperado, Carro leido) {
+		assertEquals(esperado.getPlaca(), leido.getPlaca());
+		assertEquals(esperado.getMarca(), leido.getMarca(), esperado.getPlaca());
+		assertEquals(esperado.getColor(), leido.getColor(), esperado.getPlaca());
+		assertEquals(esperado.getCombustible(), leido.getCombustible(), esperado.getPlaca());
+		assertEquals(esperado.getModelo(), leido.getModelo(), esperado.getPlaca());
+		assertEquals(esperado.getAnio(), leido.getAnio(), esperado.getPlaca());
+		assertEquals(esperado.getEstado(), leido.getEstado(), esperado.getPlaca());
+		assertEquals(esperado.getNumeroPuertas(), leido.getNumeroPuertas(), esperado.getPlaca());
+		assertEquals(esperado.isTieneAireAcondicionado(), leido.isTieneAireAcondicionado(), esperado.getPlaca());
+		assertEquals(esperado.getPrecio(), leido.getPrecio(), esperado.getPlaca());
+		assertEquals(esperado.getTipoTransmision(), leido.getTipoTransmision(), esperado.getPlaca());
+		assertEquals(esperado.getFechaRegistro(), leido.getFechaRegistro(), esperado.getPlaca());
+	}
+
+	static void assertMantenimientoIgual(Mantenimiento esperado, Mantenimiento leido) {
+		assertEquals(esperado.getId(), leido.getId());
+		assertEquals(esperado.getPlacaCarro(), leido.getPlacaCarro(), esperado.getId());
+		assertEquals(esperado.getFechaMantenimiento(), leido.getFechaMantenimiento(), esperado.getId());
+		assertEquals(esperado.getKilometraje(), leido.getKilometraje(), esperado.getId());
+		assertEquals(esperado.getTipoMantenimiento(), leido.getTipoMantenimiento(), esperado.getId());
+		assertEquals(esperado.getCosto(), leido.getCosto(), esperado.getId());
+		assertEquals(esperado.getDescripcion(), leido.getDescripcion(), esperado.getId());
+		assertEquals(esperado.getProximoMantenimiento(), leido.getProximoMantenimiento(), esperado.getId());
+		assertEquals(esperado.isCompletado(), leido.isCompletado(), esperado.getId());
+		assertEquals(esperado.getFechaRegistro(), leido.getFechaRegistro(), esperado.getId());
+	}
+}
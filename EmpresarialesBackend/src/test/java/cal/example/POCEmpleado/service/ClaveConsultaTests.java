@@ -0,0 +1,56 @@
+package cal.example.POCEmpleado.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * Clave de caché de las consultas compiladas: los filtros equivalentes comparten clave
+ * (alias, mayúsculas, orden, escritura del número o la fecha, parámetros ignorados) y los
+ * distintos no.
+ */
+class ClaveConsultaTests {
+
+	@Test
+	void carrosEquivalentesCompartenClave() {
+		List<String> clave = ConsultaCarro.compilar(filtros(
+				"precio_min", "50000", "tipoTransmision", "MANUAL", "fechaDesde", "2024-01-01")).getClave();
+		assertEquals(clave, ConsultaCarro.compilar(filtros(
+				"FECHADESDE", "2024-01-01 00:00:00", "transmision", " MANUAL ", "Precio_Min", 50000.00,
+				"desconocido", "x")).getClave());
+
+		assertNotEquals(clave, ConsultaCarro.compilar(filtros(
+				"precio_min", "50001", "tipoTransmision", "MANUAL", "fechaDesde", "2024-01-01")).getClave());
+		assertNotEquals(clave, ConsultaCarro.compilar(filtros(
+				"precio_max", "50000", "tipoTransmision", "MANUAL", "fechaDesde", "2024-01-01")).getClave());
+		// fechaHasta con solo el día es el final del día, no el inicio
+		assertNotEquals(ConsultaCarro.compilar(filtros("fechaHasta", "2024-01-01 00:00:00")).getClave(),
+				ConsultaCarro.compilar(filtros("fechaHasta", "2024-01-01")).getClave());
+	}
+
+	@Test
+	void mantenimientosEquivalentesCompartenClave() {
+		List<String> clave = ConsultaMantenimiento.compilar(filtros(
+				"placa", "ABC-001", "kilometraje_min", "20000", "urgente", "true")).getClave();
+		assertEquals(clave, ConsultaMantenimiento.compilar(filtros(
+				"placa_carro", "ABC-001", "kilometraje_min", 20000, "urgente", "TRUE")).getClave());
+		// urgente=false no restringe: es la misma consulta que sin el parámetro
+		assertEquals(ConsultaMantenimiento.compilar(filtros("placaCarro", "ABC-001")).getClave(),
+				ConsultaMantenimiento.compilar(filtros("placaCarro", "ABC-001", "urgente", "false")).getClave());
+		assertNotEquals(clave, ConsultaMantenimiento.compilar(filtros(
+				"placa", "ABC-002", "kilometraje_min", "20000", "urgente", "true")).getClave());
+	}
+
+	private static Map<String, Object> filtros(Object... pares) {
+		Map<String, Object> filtros = new HashMap<>();
+		for (int i = 0; i < pares.length; i += 2) {
+			filtros.put((String) pares[i], pares[i + 1]);
+		}
+		return filtros;
+	}
+}
@@ -0,0 +1,58 @@
+package cal.example.POCEmpleado.service;
+
+import cal.example.POCEmpleado.model.Mantenimiento;
+import cal.example.POCEmpleado.model.ResumenMantenimientos;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * La carga masiva del resumen por placa da los mismos resúmenes que agregar uno por uno,
+ * incluidos costos repetidos, fechas nulas y eliminaciones posteriores.
+ */
+class IndiceResumenPlacaTests {
+
+	@Test
+	void cargarEquivaleAAgregarUnoPorUno() {
+		List<Mantenimiento> mantenimientos = new ArrayList<>();
+		for (int i = 0; i < 500; i++) {
+			Mantenimiento m = new Mantenimiento(String.format("abc-%03d", i % 13),
+					i % 17 == 0 ? null : LocalDateTime.of(2024, 1, 1, 0, 0).plusDays(i % 40), i * 10,
+					"Preventivo", 100 + i % 9, "Revisión", null);
+			m.setId("id-" + i);
+			mantenimientos.add(m);
+		}
+
+		IndiceResumenPlaca uno = new IndiceResumenPlaca();
+		for (int i = 0; i < mantenimientos.size(); i++) {
+			uno.agregar(i, mantenimientos.get(i));
+		}
+		IndiceResumenPlaca masivo = new IndiceResumenPlaca();
+		masivo.cargar(mantenimientos);
+		assertResumenesIguales(uno, masivo);
+
+		for (int i = 0; i < mantenimientos.size(); i += 4) {
+			uno.quitar(i, mantenimientos.get(i));
+			masivo.quitar(i, mantenimientos.get(i));
+		}
+		assertResumenesIguales(uno, masivo);
+	}
+
+	private static void assertResumenesIguales(IndiceResumenPlaca esperado, IndiceResumenPlaca real) {
+		assertEquals(esperado.todos().size(), real.todos().size());
+		for (ResumenMantenimientos resumen : esperado.todos()) {
+			ResumenMantenimientos otro = real.resumen(resumen.getPlaca());
+			assertEquals(resumen.getPlaca(), otro.getPlaca());
+			assertEquals(resumen.getCantidadMantenimientos(), otro.getCantidadMantenimientos(), resumen.getPlaca());
+			assertEquals(resumen.getCostoTotal(), otro.getCostoTotal(), resumen.getPlaca());
+			assertEquals(resumen.getCostoMinimo(), otro.getCostoMinimo(), resumen.getPlaca());
+			assertEquals(resumen.getCostoMaximo(), otro.getCostoMaximo(), resumen.getPlaca());
+			assertEquals(resumen.getUltimoMantenimiento(), otro.getUltimoMantenimiento(), resumen.getPlaca());
+			assertEquals(resumen.getUltimoKilometraje(), otro.getUltimoKilometraje(), resumen.getPlaca());
+		}
+	}
+}
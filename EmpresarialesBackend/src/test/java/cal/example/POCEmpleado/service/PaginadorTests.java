@@ -0,0 +1,94 @@
+package cal.example.POCEmpleado.service;
+
+import cal.example.POCEmpleado.model.Carro;
+import cal.example.POCEmpleado.model.Pagina;
+import cal.example.POCEmpleado.store.IndiceOrdenado;
+import cal.example.POCEmpleado.store.TablaIndexada;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Ida y vuelta del cursor: recorrer todas las páginas devuelve cada registro una sola vez y en
+ * orden, aunque haya valores repetidos, y un cursor solo vale para el orden que lo generó.
+ */
+class PaginadorTests {
+
+	private final TablaIndexada<Carro> carros = new TablaIndexada<>(Carro::getPlaca);
+	private final Paginador<Carro> paginador = new Paginador<Carro>("placa")
+			.campo("placa", carros.registrarIndice(new IndiceOrdenado<>(Carro::getPlaca, Carro::getPlaca)), s -> s)
+			.campo("precio", carros.registrarIndice(new IndiceOrdenado<>(Carro::getPrecio, Carro::getPlaca)), Double::valueOf);
+
+	@Test
+	void recorrerTodasLasPaginasConElCursor() {
+		List<String> esperadas = new ArrayList<>();
+		for (int i = 0; i < 25; i++) {
+			// Precios repetidos: el desempate por placa decide el orden dentro de cada precio
+			carros.guardar(carro(String.format("ABC-%03d", i), 1000 + (i % 4) * 0.5));
+		}
+		for (int precio = 3; precio >= 0; precio--) {
+			for (int i = 24; i >= 0; i--) {
+				if (i % 4 == precio) {
+					esperadas.add(String.format("ABC-%03d", i));
+				}
+			}
+		}
+
+		List<String> leidas = new ArrayList<>();
+		String cursor = null;
+		int paginas = 0;
+		do {
+			Pagina<Carro> pagina = paginador.solicitud("-precio", cursor, 7, 20, 100).recorrer(c -> true);
+			pagina.getElementos().forEach(c -> leidas.add(c.getPlaca()));
+			cursor = pagina.getSiguienteCursor();
+			paginas++;
+		} while (cursor != null);
+
+		assertEquals(esperadas, leidas);
+		assertEquals(4, paginas);
+	}
+
+	@Test
+	void elCursorSigueValiendoSiLaColeccionCambia() {
+		for (int i = 0; i < 10; i++) {
+			carros.guardar(carro(String.format("ABC-%03d", i), 1000));
+		}
+		Pagina<Carro> primera = paginador.solicitud("placa", null, 4, 20, 100).recorrer(c -> true);
+		assertEquals("ABC-003", primera.getElementos().get(3).getPlaca());
+
+		// Se elimina el último devuelto y se inserta antes del cursor: la página siguiente no cambia
+		carros.eliminar("ABC-003");
+		carros.guardar(carro("ABC-001A", 1000));
+		Pagina<Carro> segunda = paginador.solicitud("placa", primera.getSiguienteCursor(), 4, 20, 100)
+				.paginar(new ArrayList<>(carros.filas()));
+		assertEquals(List.of("ABC-004", "ABC-005", "ABC-006", "ABC-007"),
+				segunda.getElementos().stream().map(Carro::getPlaca).toList());
+
+		Pagina<Carro> ultima = paginador.solicitud("placa", segunda.getSiguienteCursor(), 4, 20, 100).recorrer(c -> true);
+		assertEquals(2, ultima.getElementos().size());
+		assertNull(ultima.getSiguienteCursor());
+	}
+
+	@Test
+	void rechazaCursorDeOtroOrdenOAlterado() {
+		for (int i = 0; i < 5; i++) {
+			carros.guardar(carro(String.format("ABC-%03d", i), 1000 + i));
+		}
+		String cursor = paginador.solicitud("precio", null, 2, 20, 100).recorrer(c -> true).getSiguienteCursor();
+
+		assertThrows(IllegalArgumentException.class, () -> paginador.solicitud("-precio", cursor, 2, 20, 100));
+		assertThrows(IllegalArgumentException.class, () -> paginador.solicitud("placa", cursor, 2, 20, 100));
+		assertThrows(IllegalArgumentException.class, () -> paginador.solicitud("precio", cursor.substring(1), 2, 20, 100));
+		assertThrows(IllegalArgumentException.class, () -> paginador.solicitud("precio", "no-es-un-cursor", 2, 20, 100));
+		assertThrows(IllegalArgumentException.class, () -> paginador.solicitud("color", null, 2, 20, 100));
+	}
+
+	private static Carro carro(String placa, double precio) {
+		return new Carro("Toyota", "Rojo", placa, "GASOLINA", "Corolla", 2020, "NUEVO", 4, true, precio, "MANUAL");
+	}
+}
@@ -0,0 +1,195 @@
+package cal.example.POCEmpleado.service;
+
+import cal.example.POCEmpleado.model.Carro;
+import cal.example.POCEmpleado.model.Mantenimiento;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Prueba de estrés: lecturas y escrituras mezcladas desde muchos hilos sobre los servicios
+ * reales (índices, journal, group commit y checkpoints), con los archivos en target/.
+ */
+@SpringBootTest(properties = {
+		"carros.archivo=target/concurrencia/carros.json",
+		"carros.snapshot.binario=target/concurrencia/carros.snapshot.bin",
+		"carros.journal.archivo=target/concurrencia/carros.journal",
+		"carros.journal.fsync=false",
+		"carros.journal.max-entradas=200",
+		"mantenimientos.archivo=target/concurrencia/mantenimientos.json",
+		"mantenimientos.snapshot.binario=target/concurrencia/mantenimientos.snapshot.bin",
+		"mantenimientos.persistencia.intervalo-ms=5"
+})
+class ServiciosConcurrenciaTests {
+
+	private static final int HILOS = 8;
+	private static final int OPERACIONES_POR_HILO = 1500;
+	private static final int PLACAS = 150;
+	private static final String[] COMBUSTIBLES = {"GASOLINA", "DIESEL", "HIBRIDO", "ELECTRICO"};
+	private static final String[] MARCAS = {"Toyota", "Mazda", "Chevrolet", "Renault"};
+
+	@Autowired
+	private CarroService carroService;
+
+	@Autowired
+	private MantenimientoService mantenimientoService;
+
+	@BeforeAll
+	static void limpiarArchivos() throws IOException {
+		FileSystemUtils.deleteRecursively(Paths.get("target/concurrencia"));
+	}
+
+	@Test
+	void lecturasYEscriturasConcurrentes() throws Exception {
+		Queue<Throwable> errores = new ConcurrentLinkedQueue<>();
+		Queue<String> idsMantenimiento = new ConcurrentLinkedQueue<>();
+		CountDownLatch inicio = new CountDownLatch(1);
+		ExecutorService pool = Executors.newFixedThreadPool(HILOS);
+
+		for (int h = 0; h < HILOS; h++) {
+			pool.execute(() -> {
+				try {
+					inicio.await();
+					for (int i = 0; i < OPERACIONES_POR_HILO; i++) {
+						operacionAleatoria(idsMantenimiento);
+					}
+				} catch (Throwable e) {
+					errores.add(e);
+				}
+			});
+		}
+		inicio.countDown();
+		pool.shutdown();
+		assertTrue(pool.awaitTermination(2, TimeUnit.MINUTES), "Los hilos no terminaron a tiempo");
+		assertTrue(errores.isEmpty(), () -> "Errores concurrentes: " + errores);
+
+		// Los agregados y los índices coinciden con un recorrido completo
+		List<Carro> carros = carroService.listar(new HashMap<>());
+		assertEquals(carros.size(), carroService.count());
+		assertEquals(carros.stream().mapToDouble(Carro::getPrecio).average().orElse(0.0),
+				carroService.getPrecioPromedio(), 1e-6);
+		Map<String, Object> filtros = new HashMap<>();
+		filtros.put("combustible", "ELECTRICO");
+		filtros.put("precio_min", "50000");
+		assertEquals(placas(carros.stream()
+						.filter(c -> "ELECTRICO".equals(c.getCombustible()) && c.getPrecio() >= 50000)
+						.collect(Collectors.toList())),
+				placas(carroService.listar(filtros)));
+
+		List<Mantenimiento> mantenimientos = mantenimientoService.listar(new HashMap<>());
+		assertEquals(mantenimientos.size(), mantenimientoService.count());
+		assertEquals(mantenimientos.stream().mapToDouble(Mantenimiento::getCosto).sum(),
+				mantenimientoService.getCostoTotal(), 1e-3);
+
+		// Snapshot + journal reproducen exactamente el estado en memoria, campo por campo
+		carroService.loadFromJson();
+		assertCarrosIguales(carros, carroService.listar(new HashMap<>()));
+	}
+
+	private void operacionAleatoria(Queue<String> idsMantenimiento) {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		String placa = String.format("TST-%03d", random.nextInt(PLACAS));
+		int operacion = random.nextInt(100);
+		if (operacion < 30) {
+			carroService.save(nuevoCarro(placa, random));
+		} else if (operacion < 38) {
+			carroService.deleteByPlaca(placa);
+		} else if (operacion < 55) {
+			Map<String, Object> filtros = new HashMap<>();
+			String combustible = COMBUSTIBLES[random.nextInt(COMBUSTIBLES.length)];
+			filtros.put("combustible", combustible);
+			filtros.put("precio_min", "30000");
+			for (Carro carro : carroService.listar(filtros)) {
+				assertEquals(combustible, carro.getCombustible());
+				assertTrue(carro.getPrecio() >= 30000);
+			}
+		} else if (operacion < 65) {
+			carroService.findByPlaca(placa).ifPresent(c -> assertEquals(placa, c.getPlaca()));
+		} else if (operacion < 80) {
+			Mantenimiento mantenimiento = new Mantenimiento(placa, LocalDateTime.now().minusDays(random.nextInt(300)),
+					random.nextInt(100000), "Preventivo", 1 + random.nextInt(500), "Prueba de concurrencia",
+					LocalDateTime.now().plusDays(random.nextInt(60)));
+			idsMantenimiento.add(mantenimientoService.save(mantenimiento).getId());
+		} else if (operacion < 85) {
+			String id = idsMantenimiento.poll();
+			if (id != null) {
+				mantenimientoService.deleteById(id);
+			}
+		} else if (operacion < 95) {
+			Map<String, Object> filtros = new HashMap<>();
+			filtros.put("kilometraje_min", "20000");
+			filtros.put("kilometraje_max", "60000");
+			for (Mantenimiento m : mantenimientoService.listar(filtros)) {
+				assertTrue(m.getKilometraje() >= 20000 && m.getKilometraje() <= 60000);
+			}
+		} else {
+			mantenimientoService.getMantenimientosPorCarro(placa);
+			mantenimientoService.getMantenimientosUrgentes();
+			mantenimientoService.getResumenPorPlaca(placa);
+		}
+	}
+
+	private static Carro nuevoCarro(String placa, ThreadLocalRandom random) {
+		return new Carro(MARCAS[random.nextInt(MARCAS.length)], "Rojo", placa,
+				COMBUSTIBLES[random.nextInt(COMBUSTIBLES.length)], "Modelo", 2000 + random.nextInt(25), "USADO",
+				2 + random.nextInt(4), random.nextBoolean(), 1000 + random.nextInt(100000),
+				random.nextBoolean() ? "MANUAL" : "AUTOMATICA");
+	}
+
+	private static void assertCarrosIguales(List<Carro> esperados, List<Carro> recargados) {
+		Map<String, Carro> porPlaca = new HashMap<>();
+		for (Carro carro : recargados) {
+			porPlaca.put(carro.getPlaca(), carro);
+		}
+		assertEquals(esperados.size(), porPlaca.size());
+		for (Carro esperado : esperados) {
+			Carro recargado = porPlaca.get(esperado.getPlaca());
+			assertNotNull(recargado, esperado.getPlaca());
+			assertEquals(esperado.getMarca(), recargado.getMarca(), esperado.getPlaca());
+			assertEquals(esperado.getColor(), recargado.getColor(), esperado.getPlaca());
+			assertEquals(esperado.getCombustible(), recargado.getCombustible(), esperado.getPlaca());
+			assertEquals(esperado.getModelo(), recargado.getModelo(), esperado.getPlaca());
+			assertEquals(esperado.getAnio(), recargado.getAnio(), esperado.getPlaca());
+			assertEquals(esperado.getEstado(), recargado.getEstado(), esperado.getPlaca());
+			assertEquals(esperado.getNumeroPuertas(), recargado.getNumeroPuertas(), esperado.getPlaca());
+			assertEquals(esperado.isTieneAireAcondicionado(), recargado.isTieneAireAcondicionado(), esperado.getPlaca());
+			assertEquals(esperado.getPrecio(), recargado.getPrecio(), esperado.getPlaca());
+			assertEquals(esperado.getTipoTransmision(), recargado.getTipoTransmision(), esperado.getPlaca());
+			// El formato JSON de Carro (yyyy-MM-dd HH:mm:ss) guarda la fecha al segundo
+			assertEquals(esperado.getFechaRegistro().truncatedTo(ChronoUnit.SECONDS), recargado.getFechaRegistro(),
+					esperado.getPlaca());
+		}
+	}
+
+	private static Set<String> placas(List<Carro> carros) {
+		Set<String> placas = new HashSet<>();
+		for (Carro carro : carros) {
+			placas.add(carro.getPlaca());
+		}
+		return placas;
+	}
+}
@@ -0,0 +1,87 @@
+package cal.example.POCEmpleado.store;
+
+import cal.example.POCEmpleado.model.Carro;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * La caché de fragmentos no pasa de su máximo de bytes, lleva bien la cuenta al reemplazar,
+ * eliminar y limpiar, y sigue devolviendo el JSON correcto aunque desaloje.
+ */
+class CacheFragmentosTests {
+
+	// Cada fragmento de prueba pesa 10 bytes de JSON más la sobrecarga fija
+	private static final long PESO = 10 + CacheFragmentos.SOBRECARGA_ENTRADA;
+
+	private final TablaIndexada<Carro> tabla = new TablaIndexada<>(Carro::getPlaca);
+
+	private CacheFragmentos<Carro> cache(long maxBytes) {
+		return tabla.registrarIndice(new CacheFragmentos<>(Carro::getPlaca, tabla::versionDe,
+				carro -> String.format("%-10s", carro.getPlaca()).getBytes(StandardCharsets.UTF_8), maxBytes));
+	}
+
+	@Test
+	void noSuperaElMaximoYDesaloja() {
+		CacheFragmentos<Carro> cache = cache(5 * PESO);
+		for (int i = 0; i < 20; i++) {
+			Carro carro = carro(String.format("ABC-%03d", i));
+			tabla.guardar(carro);
+			assertArrayEquals(String.format("%-10s", carro.getPlaca()).getBytes(StandardCharsets.UTF_8),
+					cache.fragmento(carro));
+		}
+		Map<String, Object> metricas = cache.metricas();
+		assertEquals(5, metricas.get("fragmentos"));
+		assertEquals(5 * PESO, metricas.get("bytes"));
+		assertEquals(15L, metricas.get("desalojos"));
+
+		// Lo que queda cacheado se sirve sin serializar de nuevo
+		long aciertos = (long) metricas.get("aciertos");
+		for (Carro carro : tabla.filas()) {
+			cache.fragmento(carro);
+		}
+		assertTrue((long) cache.metricas().get("aciertos") >= aciertos + 1);
+		assertTrue((long) cache.metricas().get("bytes") <= 5 * PESO);
+	}
+
+	@Test
+	void llevaLaCuentaAlReemplazarEliminarYLimpiar() {
+		CacheFragmentos<Carro> cache = cache(1_000_000);
+		for (int i = 0; i < 10; i++) {
+			Carro carro = carro(String.format("ABC-%03d", i));
+			tabla.guardar(carro);
+			cache.fragmento(carro);
+		}
+		assertEquals(10 * PESO, cache.metricas().get("bytes"));
+
+		Carro nuevo = carro("ABC-000");
+		tabla.guardar(nuevo);
+		assertEquals(9 * PESO, cache.metricas().get("bytes"));
+		cache.fragmento(nuevo);
+		tabla.eliminar("ABC-001");
+		assertEquals(9 * PESO, cache.metricas().get("bytes"));
+
+		tabla.limpiar();
+		assertEquals(0, cache.metricas().get("fragmentos"));
+		assertEquals(0L, cache.metricas().get("bytes"));
+	}
+
+	@Test
+	void conMaximoCeroNoGuardaNada() {
+		CacheFragmentos<Carro> cache = cache(0);
+		Carro carro = carro("ABC-001");
+		tabla.guardar(carro);
+		cache.fragmento(carro);
+		assertEquals(0, cache.metricas().get("fragmentos"));
+		assertEquals(0L, cache.metricas().get("bytes"));
+	}
+
+	private static Carro carro(String placa) {
+		return new Carro("Toyota", "Rojo", placa, "GASOLINA", "Corolla", 2020, "NUEVO", 4, true, 1000, "MANUAL");
+	}
+}
@@ -0,0 +1,191 @@
+package cal.example.POCEmpleado.store;
+
+import cal.example.POCEmpleado.model.Carro;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * La carga masiva deja la tabla y sus índices igual que guardar registro por registro,
+ * y la tabla sigue aceptando mutaciones después, también mientras se arman los índices.
+ * Con una carga reservada, las lecturas esperan las filas en lugar de ver la tabla vacía.
+ */
+class TablaIndexadaTests {
+
+	private static final int REGISTROS = 2000;
+
+	private static final class Tabla {
+		final TablaIndexada<Carro> tabla = new TablaIndexada<>(Carro::getPlaca);
+		final IndiceRango<Carro> porPrecio = tabla.registrarIndice(new IndiceRango<>(Carro::getPrecio));
+		final IndiceAgrupado<Carro> porMarca = tabla.registrarIndice(
+				new IndiceAgrupado<>(Carro::getMarca, Comparator.comparing(Carro::getPlaca)));
+		final IndiceOrdenado<Carro, Double> ordenPorPrecio = tabla.registrarIndice(
+				new IndiceOrdenado<>(Carro::getPrecio, Carro::getPlaca));
+
+		List<Carro> ordenados() {
+			List<Carro> resultado = new ArrayList<>();
+			ordenPorPrecio.despuesDe(null, false).forEach(resultado::add);
+			return resultado;
+		}
+	}
+
+	@Test
+	void cargarEquivaleAGuardarUnoPorUno() {
+		List<Carro> registros = new ArrayList<>();
+		for (int i = 0; i < REGISTROS; i++) {
+			registros.add(carro(String.format("A%02d-%03d", i / 1000, i % 1000), i));
+		}
+		// Claves repetidas (sin distinguir mayúsculas): gana el último, en la fila del primero
+		registros.add(carro("a00-010", 999_999));
+		registros.add(carro("A01-500", 888_888));
+
+		Tabla uno = new Tabla();
+		registros.forEach(uno.tabla::guardar);
+		Tabla masiva = new Tabla();
+		masiva.tabla.guardar(carro("VIE-000", 1));
+		masiva.tabla.cargar(registros);
+
+		assertEquals(REGISTROS, masiva.tabla.tamano());
+		assertEquals(uno.tabla.filas(), masiva.tabla.filas());
+		assertNull(masiva.tabla.buscar("VIE-000"));
+		assertEquals(999_999, masiva.tabla.buscar("A00-010").getPrecio());
+		assertSame(registros.get(REGISTROS), masiva.tabla.filas().get(10));
+		assertEquals(uno.porPrecio.filasEntre(500.0, 1500.0), masiva.porPrecio.filasEntre(500.0, 1500.0));
+		assertEquals(uno.porPrecio.filasEntre(800_000.0, null), masiva.porPrecio.filasEntre(800_000.0, null));
+		assertEquals(uno.porMarca.buscar("Marca3"), masiva.porMarca.buscar("Marca3"));
+		assertEquals(uno.ordenados(), masiva.ordenados());
+
+		// Mutaciones posteriores sobre el vector armado en bloque
+		for (int i = 0; i < REGISTROS; i += 3) {
+			String placa = String.format("A%02d-%03d", i / 1000, i % 1000);
+			uno.tabla.eliminar(placa);
+			masiva.tabla.eliminar(placa);
+		}
+		for (int i = 0; i < 100; i++) {
+			Carro nuevo = carro(String.format("B00-%03d", i), i);
+			uno.tabla.guardar(nuevo);
+			masiva.tabla.guardar(nuevo);
+		}
+		assertEquals(uno.tabla.filas(), masiva.tabla.filas());
+		assertEquals(uno.porPrecio.filasEntre(0.0, 1000.0), masiva.porPrecio.filasEntre(0.0, 1000.0));
+		assertEquals(uno.porMarca.buscar("Marca1"), masiva.porMarca.buscar("Marca1"));
+		assertEquals(uno.ordenados(), masiva.ordenados());
+	}
+
+	@Test
+	void mutacionesMientrasSeArmanLosIndices() throws Exception {
+		List<Carro> registros = new ArrayList<>();
+		for (int i = 0; i < REGISTROS; i++) {
+			registros.add(carro(String.format("A%02d-%03d", i / 1000, i % 1000), i));
+		}
+		Tabla uno = new Tabla();
+		registros.forEach(uno.tabla::guardar);
+
+		// Un índice más cuya carga espera a la prueba: la tabla queda con las filas publicadas
+		// y los índices sin terminar
+		Tabla masiva = new Tabla();
+		CountDownLatch cargando = new CountDownLatch(1);
+		CountDownLatch continuar = new CountDownLatch(1);
+		masiva.tabla.registrarIndice(new IndiceSecundario<Carro>() {
+			@Override
+			public void agregar(int fila, Carro registro) {
+			}
+
+			@Override
+			public void quitar(int fila, Carro registro) {
+			}
+
+			@Override
+			public void limpiar() {
+			}
+
+			@Override
+			public void cargar(List<Carro> registros) {
+				cargando.countDown();
+				try {
+					continuar.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		});
+		CompletableFuture<Void> carga = CompletableFuture.runAsync(() -> masiva.tabla.cargar(registros));
+		cargando.await();
+		assertFalse(masiva.tabla.indicesListos());
+		assertEquals(REGISTROS, masiva.tabla.tamano());
+		assertEquals(uno.porMarca.buscar("Marca3"), masiva.porMarca.buscar(masiva.tabla.filas(), "Marca3"));
+
+		// Reemplazos, eliminaciones con movimiento de fila e inserciones antes de que terminen los índices
+		for (int i = 0; i < REGISTROS; i += 7) {
+			String placa = String.format("A%02d-%03d", i / 1000, i % 1000);
+			uno.tabla.eliminar(placa);
+			masiva.tabla.eliminar(placa);
+		}
+		for (int i = 1; i < REGISTROS; i += 5) {
+			Carro reemplazo = carro(String.format("A%02d-%03d", i / 1000, i % 1000), 500_000 + i);
+			uno.tabla.guardar(reemplazo);
+			masiva.tabla.guardar(reemplazo);
+		}
+		for (int i = 0; i < 100; i++) {
+			Carro nuevo = carro(String.format("B00-%03d", i), i);
+			uno.tabla.guardar(nuevo);
+			masiva.tabla.guardar(nuevo);
+		}
+		assertEquals(uno.tabla.filas(), masiva.tabla.filas());
+
+		continuar.countDown();
+		carga.get();
+		assertTrue(masiva.tabla.indicesListos());
+		assertEquals(uno.porPrecio.filasEntre(0.0, 1000.0), masiva.porPrecio.filasEntre(0.0, 1000.0));
+		assertEquals(uno.porPrecio.filasEntre(500_000.0, null), masiva.porPrecio.filasEntre(500_000.0, null));
+		assertEquals(uno.porMarca.buscar("Marca1"), masiva.porMarca.buscar("Marca1"));
+		assertEquals(uno.ordenados(), masiva.ordenados());
+	}
+
+	@Test
+	void conCargaReservadaLasLecturasEsperanLasFilas() throws Exception {
+		Tabla tabla = new Tabla();
+		tabla.tabla.reservarCarga();
+		assertTrue(tabla.tabla.cargaReservada());
+
+		AtomicReference<Carro> leido = new AtomicReference<>();
+		Thread lector = new Thread(() -> leido.set(tabla.tabla.buscar("ABC-001")));
+		lector.start();
+		while (lector.getState() != Thread.State.WAITING) {
+			Thread.onSpinWait();
+		}
+		tabla.tabla.cargar(List.of(carro("ABC-001", 100)));
+		lector.join();
+
+		assertFalse(tabla.tabla.cargaReservada());
+		assertEquals(100, leido.get().getPrecio());
+	}
+
+	@Test
+	void rechazaGuardarDeNuevoLaMismaInstancia() {
+		Tabla tabla = new Tabla();
+		Carro carro = carro("ABC-001", 100);
+		tabla.tabla.guardar(carro);
+		carro.setPrecio(200);
+		assertThrows(IllegalArgumentException.class, () -> tabla.tabla.guardar(carro));
+		assertEquals(1, tabla.porPrecio.filasEntre(100.0, 100.0).cardinality());
+	}
+
+	private static Carro carro(String placa, double precio) {
+		Carro carro = new Carro("Marca" + ((int) precio % 5), "Rojo", placa, "GASOLINA", "Modelo", 2020, "NUEVO",
+				4, true, precio, "MANUAL");
+		return carro;
+	}
+}
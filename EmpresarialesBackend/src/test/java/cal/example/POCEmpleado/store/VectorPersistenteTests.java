@@ -0,0 +1,92 @@
+package cal.example.POCEmpleado.store;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * El vector persistente se comporta como una lista al cruzar los límites de la cola (32),
+ * de un nivel del trie (32 + 32·32) y del siguiente, y las versiones anteriores no cambian.
+ */
+class VectorPersistenteTests {
+
+	// Tamaños alrededor de cada límite: cola llena, primera hoja, raíz llena, nivel nuevo
+	private static final int[] LIMITES = {1, 31, 32, 33, 64, 65, 1056, 1057, 1088, 1089, 32800, 32801};
+
+	@Test
+	void agregarYQuitarUltimoCruzandoLimites() {
+		VectorPersistente<Integer> vector = VectorPersistente.vacio();
+		List<VectorPersistente<Integer>> versiones = new ArrayList<>();
+		for (int i = 0; i < 32_801 + 40; i++) {
+			versiones.add(vector);
+			vector = vector.agregar(i);
+		}
+		for (int tamano : LIMITES) {
+			assertEquals(secuencia(tamano), versiones.get(tamano));
+		}
+
+		// Quitar de a uno desde justo después de cada límite hasta justo antes
+		for (int tamano : LIMITES) {
+			VectorPersistente<Integer> actual = versiones.get(Math.min(tamano + 2, versiones.size() - 1));
+			int esperado = actual.size();
+			while (actual.size() > Math.max(0, tamano - 2)) {
+				actual = actual.quitarUltimo();
+				esperado--;
+				assertEquals(secuencia(esperado), actual);
+				// Y vuelve a crecer correctamente desde ahí
+				assertEquals(secuencia(esperado + 1), actual.agregar(esperado));
+			}
+		}
+		assertEquals(0, versiones.get(1).quitarUltimo().size());
+		assertThrows(IllegalStateException.class, () -> VectorPersistente.<Integer>vacio().quitarUltimo());
+	}
+
+	@Test
+	void asignarEnColaYEnElArbol() {
+		for (int tamano : LIMITES) {
+			VectorPersistente<Integer> original = VectorPersistente.de(secuencia(tamano));
+			List<Integer> modelo = secuencia(tamano);
+			VectorPersistente<Integer> vector = original;
+			for (int indice : new int[]{0, tamano / 2, tamano - 33, tamano - 32, tamano - 31, tamano - 1}) {
+				if (indice < 0) {
+					continue;
+				}
+				vector = vector.asignar(indice, -indice - 1);
+				modelo.set(indice, -indice - 1);
+			}
+			assertEquals(modelo, vector);
+			assertEquals(secuencia(tamano), original);
+			assertThrows(IndexOutOfBoundsException.class, () -> original.asignar(tamano, 0));
+		}
+	}
+
+	@Test
+	void deEquivaleAAgregarUnoPorUno() {
+		for (int tamano : new int[]{0, 1, 31, 32, 33, 1056, 1057, 32800, 32801, 40_000}) {
+			VectorPersistente<Integer> uno = VectorPersistente.vacio();
+			for (int i = 0; i < tamano; i++) {
+				uno = uno.agregar(i);
+			}
+			VectorPersistente<Integer> deUnaVez = VectorPersistente.de(secuencia(tamano));
+			assertEquals(uno, deUnaVez);
+			// Las operaciones siguientes sobre el vector armado de una vez llegan al mismo resultado
+			assertEquals(uno.agregar(-1), deUnaVez.agregar(-1));
+			if (tamano > 0) {
+				assertEquals(uno.quitarUltimo(), deUnaVez.quitarUltimo());
+				assertEquals(uno.asignar(0, -1), deUnaVez.asignar(0, -1));
+			}
+		}
+	}
+
+	private static List<Integer> secuencia(int tamano) {
+		List<Integer> lista = new ArrayList<>(tamano);
+		for (int i = 0; i < tamano; i++) {
+			lista.add(i);
+		}
+		return lista;
+	}
+}